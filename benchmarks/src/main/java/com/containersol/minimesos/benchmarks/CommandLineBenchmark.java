@@ -0,0 +1,74 @@
+package com.containersol.minimesos.benchmarks;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.containersol.minimesos.marathon.MarathonContainer;
+import com.containersol.minimesos.util.CollectionsUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Preparing commands and Marathon app definitions before they are sent to Docker or Marathon
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CommandLineBenchmark {
+
+    private static final String[] ROLES = { "MASTER", "ZOOKEEPER", "MARATHON", "CONSUL", "MESOSDNS" };
+
+    private static final String CMD = "sh -c 'while true; do echo \"hello world\"; sleep 1; done' --name \"my app\" "
+        + "--env 'A=1' --env \"B=two words\" --label key=value --volume /tmp:/tmp";
+
+    private String appJson;
+
+    private Map<String, String> tokens;
+
+    @Setup
+    public void setUp() {
+        tokens = new LinkedHashMap<>();
+        for (int i = 0; i < ROLES.length; i++) {
+            String ip = "172.17.0." + (i + 2);
+            tokens.put("MINIMESOS_" + ROLES[i], "http://" + ip + ":" + (5000 + i));
+            tokens.put("MINIMESOS_" + ROLES[i] + "_IP", ip);
+            tokens.put("MINIMESOS_" + ROLES[i] + "_PORT", Integer.toString(5000 + i));
+        }
+        tokens.put("MINIMESOS_NETWORK_GATEWAY", "172.17.0.1");
+        tokens.put("MINIMESOS_HOST_DIR", "/home/user/project");
+
+        StringBuilder json = new StringBuilder("{\"id\": \"/benchmark\", \"apps\": [");
+        for (int i = 0; i < 20; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\": \"app").append(i).append("\", \"cmd\": \"curl ${MINIMESOS_MARATHON}/v2/apps\", ")
+                .append("\"env\": {\"ZK\": \"zk://${MINIMESOS_ZOOKEEPER_IP}:2181/mesos\", \"MASTER\": \"${MINIMESOS_MASTER}\", ")
+                .append("\"GATEWAY\": \"${MINIMESOS_NETWORK_GATEWAY}\", \"DIR\": \"${MINIMESOS_HOST_DIR}\"}, \"cpus\": 0.1, \"mem\": 32}");
+        }
+        appJson = json.append("]}").toString();
+    }
+
+    @Benchmark
+    public String[] splitCmd() {
+        return CollectionsUtils.splitCmd(CMD);
+    }
+
+    @Benchmark
+    public String replaceTokens() {
+        return MarathonContainer.replaceTokens(appJson, tokens);
+    }
+
+}
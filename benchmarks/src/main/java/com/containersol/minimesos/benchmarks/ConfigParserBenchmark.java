@@ -0,0 +1,66 @@
+package com.containersol.minimesos.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.ConfigParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of minimesosFiles with many agents
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConfigParserBenchmark {
+
+    private static final String AGENT = "    agent {\n"
+        + "        imageName = \"containersol/mesos-agent\"\n"
+        + "        imageTag = \"1.0.0-0.1.0\"\n"
+        + "        loggingLevel = \"# INHERIT FROM CLUSTER\"\n"
+        + "        portNumber = 5051\n"
+        + "        attributes = \"az:%d\"\n"
+        + "        resources {\n"
+        + "            cpu {\n                role = \"*\"\n                value = 4\n            }\n"
+        + "            disk {\n                role = \"*\"\n                value = 2000\n            }\n"
+        + "            mem {\n                role = \"*\"\n                value = 512\n            }\n"
+        + "            ports {\n                role = \"*\"\n                value = \"[31000-32000]\"\n            }\n"
+        + "        }\n"
+        + "    }\n";
+
+    @Param({ "10", "100" })
+    private int agents;
+
+    private String minimesosFile;
+
+    @Setup
+    public void setUp() {
+        StringBuilder config = new StringBuilder("minimesos {\n    clusterName = \"benchmark\"\n    mesosVersion = \"1.0.0\"\n    timeout = 60\n");
+        for (int i = 0; i < agents; i++) {
+            config.append(String.format(AGENT, i));
+        }
+        config.append("    master {\n        imageName = \"containersol/mesos-master\"\n        imageTag = \"1.0.0-0.1.0\"\n    }\n");
+        config.append("    marathon {\n        imageName = \"mesosphere/marathon\"\n        imageTag = \"v1.3.5\"\n    }\n");
+        config.append("    zookeeper {\n        imageName = \"jplock/zookeeper\"\n        imageTag = \"3.4.6\"\n    }\n");
+        minimesosFile = config.append("}\n").toString();
+    }
+
+    @Benchmark
+    public ClusterConfig parse() {
+        return new ConfigParser().parse(minimesosFile);
+    }
+
+}
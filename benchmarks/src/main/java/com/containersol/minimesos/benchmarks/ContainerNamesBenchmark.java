@@ -0,0 +1,87 @@
+package com.containersol.minimesos.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.containersol.minimesos.docker.DockerContainersUtil;
+import com.containersol.minimesos.integrationtest.container.ContainerName;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.Container;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Selecting the containers of one cluster among the containers of a busy Docker host
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContainerNamesBenchmark {
+
+    private static final String[] ROLES = { "master", "agent", "zookeeper", "marathon", "consul", "registrator" };
+
+    private static final int CLUSTERS = 50;
+
+    @Param({ "1000", "10000" })
+    private int containers;
+
+    private String clusterId;
+
+    private String[][] dockerNames;
+
+    private DockerContainersUtil util;
+
+    private String pattern;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<Container> list = new ArrayList<>(containers);
+        dockerNames = new String[containers][];
+        for (int i = 0; i < containers; i++) {
+            String name;
+            if (i % 10 == 9) {
+                // containers not started by minimesos
+                name = "/jenkins_build_" + i;
+            } else {
+                name = String.format("/minimesos-%s-%010d-%d", ROLES[i % ROLES.length], i % CLUSTERS, i);
+            }
+            dockerNames[i] = new String[] { name };
+            list.add(mapper.readValue(String.format("{\"Id\": \"%064x\", \"Names\": [\"%s\"]}", i, name), Container.class));
+        }
+        clusterId = String.format("%010d", CLUSTERS / 2);
+        pattern = "^minimesos-\\w+-" + clusterId + "-\\w+$";
+        util = DockerContainersUtil.of(list);
+    }
+
+    @Benchmark
+    public int belongsToCluster() {
+        int count = 0;
+        for (String[] names : dockerNames) {
+            if (ContainerName.belongsToCluster(names, clusterId)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int filterByName() {
+        return util.filterByName(pattern).size();
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.containersol.minimesos.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.containersol.minimesos.config.AgentResourcesConfig;
+import com.containersol.minimesos.util.ResourceUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of Mesos resource strings of agents
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ResourcesBenchmark {
+
+    /**
+     * Number of ports in the range
+     */
+    @Param({ "1000", "30000" })
+    private int ports;
+
+    private String resources;
+
+    @Setup
+    public void setUp() {
+        resources = String.format("ports(*):[31000-%d]; cpus(*):0.2; mem(*):256; disk(*):200", 31000 + ports - 1);
+    }
+
+    @Benchmark
+    public List<Integer> parsePorts() {
+        return ResourceUtil.parsePorts(resources);
+    }
+
+    @Benchmark
+    public AgentResourcesConfig agentResourcesFromString() {
+        return AgentResourcesConfig.fromString(resources);
+    }
+
+}
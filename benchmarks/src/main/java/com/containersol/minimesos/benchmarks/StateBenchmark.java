@@ -0,0 +1,86 @@
+package com.containersol.minimesos.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.containersol.minimesos.state.State;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of <code>state.json</code> of masters running many tasks
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class StateBenchmark {
+
+    private static final int FRAMEWORKS = 10;
+
+    private static final int AGENTS = 20;
+
+    @Param({ "1000", "10000", "100000" })
+    private int tasks;
+
+    private String json;
+
+    @Setup
+    public void setUp() {
+        json = createState(tasks);
+    }
+
+    @Benchmark
+    public State fromJSON() throws IOException {
+        return State.fromJSON(json);
+    }
+
+    /**
+     * @param taskCount number of tasks, spread over frameworks and agents
+     * @return JSON of a master state
+     */
+    static String createState(int taskCount) {
+        StringBuilder json = new StringBuilder("{\"hostname\": \"master.mm\", \"activated_slaves\": ").append(AGENTS).append(", \"frameworks\": [");
+        for (int f = 0; f < FRAMEWORKS; f++) {
+            if (f > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\": \"framework-").append(f).append("\", \"name\": \"framework").append(f)
+                .append("\", \"active\": true, \"hostname\": \"framework").append(f).append(".mm\", \"role\": \"*\", \"tasks\": [");
+            boolean first = true;
+            for (int t = f; t < taskCount; t += FRAMEWORKS) {
+                if (!first) {
+                    json.append(',');
+                }
+                first = false;
+                json.append("{\"id\": \"app").append(t).append(".5f0b3c1e-9ad4-11e6-9f33-a24fc0d9649c\", \"name\": \"app").append(t)
+                    .append("\", \"framework_id\": \"framework-").append(f)
+                    .append("\", \"executor_id\": \"\", \"slave_id\": \"agent-").append(t % AGENTS)
+                    .append("\", \"state\": \"TASK_RUNNING\", \"resources\": {\"cpus\": 0.1, \"mem\": 32, \"disk\": 0, \"ports\": \"[31000-31000]\"}")
+                    .append(", \"discovery\": {\"visibility\": \"FRAMEWORK\", \"name\": \"app").append(t)
+                    .append("\", \"ports\": {\"ports\": [{\"number\": 31000, \"protocol\": \"tcp\"}]}}}");
+            }
+            json.append("]}");
+        }
+        json.append("], \"slaves\": [");
+        for (int a = 0; a < AGENTS; a++) {
+            if (a > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\": \"agent-").append(a).append("\", \"hostname\": \"agent").append(a)
+                .append(".mm\", \"pid\": \"slave(1)@172.17.0.").append(a + 10).append(":5051\", \"active\": true}");
+        }
+        return json.append("]}").toString();
+    }
+
+}
@@ -16,10 +16,14 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -77,14 +81,22 @@ public class CommandLogsTest {
 
         MesosMasterContainer master = mock(MesosMasterContainer.class);
         when(master.getState()).thenReturn(masterState);
+        when(master.forEachTask(anyInt(), any())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Consumer<Task> action = (Consumer<Task>) invocation.getArguments()[1];
+            masterState.getFrameworks().forEach(framework -> framework.getTasks().forEach(action));
+            return 1;
+        });
 
         MesosAgentContainer agent = mock(MesosAgentContainer.class);
         when(agent.getState()).thenReturn(agentState);
+        when(agent.getStateAsync()).thenReturn(CompletableFuture.completedFuture(agentState));
         when(agent.getServiceUrl()).thenReturn(new URI(agentServiceURL));
 
         MesosCluster mesosCluster = mock(MesosCluster.class);
         when(mesosCluster.getMaster()).thenReturn(master);
         when(mesosCluster.getAgents()).thenReturn(Collections.singletonList(agent));
+        when(mesosCluster.findAgentState(any(), anyLong())).thenCallRealMethod();
 
         repository = mock(ClusterRepository.class);
         when(repository.loadCluster(any(MesosClusterFactory.class))).thenReturn(mesosCluster);
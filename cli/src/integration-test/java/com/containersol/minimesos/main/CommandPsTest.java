@@ -9,6 +9,7 @@ import com.containersol.minimesos.state.Framework;
 import com.containersol.minimesos.state.Port;
 import com.containersol.minimesos.state.Ports;
 import com.containersol.minimesos.state.State;
+import com.containersol.minimesos.state.StateSummary;
 import com.containersol.minimesos.state.Task;
 import org.apache.commons.io.output.ByteArrayOutputStream;
 import org.junit.Before;
@@ -17,10 +18,12 @@ import org.junit.Test;
 import java.io.PrintStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
+import java.util.function.Consumer;
 
 import static java.util.Collections.singletonList;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -70,8 +73,18 @@ public class CommandPsTest {
         frameworks.add(marathon);
         state.setFrameworks(frameworks);
 
+        StateSummary summary = new StateSummary();
+        summary.setFrameworks(frameworks);
+
         MesosMasterContainer master = mock(MesosMasterContainer.class);
         when(master.getState()).thenReturn(state);
+        when(master.getStateSummary()).thenReturn(summary);
+        when(master.forEachTask(anyInt(), any())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Consumer<Task> action = (Consumer<Task>) invocation.getArguments()[1];
+            tasks.forEach(action);
+            return tasks.size();
+        });
 
         MesosCluster mesosCluster = mock(MesosCluster.class);
         when(mesosCluster.getMaster()).thenReturn(master);
@@ -88,4 +101,51 @@ public class CommandPsTest {
         assertEquals(String.format(FORMAT, COLUMNS) + String.format(FORMAT, VALUES), result);
     }
 
+    @Test
+    public void executeSkipsCompletedTasks() throws UnsupportedEncodingException {
+        Framework marathon = new Framework();
+        marathon.setId("marathon-id");
+        marathon.setName("marathon");
+
+        ArrayList<Task> tasks = new ArrayList<>();
+        tasks.add(task("weave-scope", "marathon-id", "TASK_RUNNING"));
+        tasks.add(task("weave-scope", "marathon-id", "TASK_KILLED"));
+        tasks.add(task("batch", "marathon-id", "TASK_FINISHED"));
+        tasks.add(task("orphan", "completed-framework-id", "TASK_RUNNING"));
+
+        StateSummary summary = new StateSummary();
+        summary.setFrameworks(new ArrayList<>(singletonList(marathon)));
+
+        MesosMasterContainer master = mock(MesosMasterContainer.class);
+        when(master.getStateSummary()).thenReturn(summary);
+        when(master.forEachTask(anyInt(), any())).thenAnswer(invocation -> {
+            @SuppressWarnings("unchecked")
+            Consumer<Task> action = (Consumer<Task>) invocation.getArguments()[1];
+            tasks.forEach(action);
+            return tasks.size();
+        });
+
+        MesosCluster mesosCluster = mock(MesosCluster.class);
+        when(mesosCluster.getMaster()).thenReturn(master);
+
+        ClusterRepository repository = mock(ClusterRepository.class);
+        when(repository.loadCluster(any(MesosClusterFactory.class))).thenReturn(mesosCluster);
+
+        CommandPs commandPs = new CommandPs(ps);
+        commandPs.setRepository(repository);
+
+        commandPs.execute();
+
+        String result = outputStream.toString("UTF-8");
+        assertEquals(String.format(FORMAT, COLUMNS) + String.format(FORMAT, "marathon", "weave-scope", "TASK_RUNNING", null), result);
+    }
+
+    private static Task task(String name, String frameworkId, String state) {
+        Task task = new Task();
+        task.setName(name);
+        task.setFrameworkId(frameworkId);
+        task.setState(state);
+        return task;
+    }
+
 }
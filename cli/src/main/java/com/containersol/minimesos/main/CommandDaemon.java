@@ -0,0 +1,171 @@
+package com.containersol.minimesos.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.ClusterRepository;
+import com.containersol.minimesos.docker.DockerEvents;
+
+import org.apache.commons.io.FileUtils;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the cluster, the Docker client and HTTP connections in memory and runs the commands, which {@link Main} forwards to it.
+ * <p>
+ * The daemon serves the directory it is started in. It listens on a loopback port, which is written together with a random token to
+ * <code>.minimesos/daemon.json</code>. Only clients, which can read this file, can run commands.
+ */
+@Parameters(separators = "=", commandDescription = "Run commands of this directory in a long running process to make them faster")
+public class CommandDaemon implements Command {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CommandDaemon.class);
+
+    public static final String CLINAME = "daemon";
+
+    private static final int TOKEN_BYTES = 16;
+
+    @Parameter(names = "--stop", description = "Stop the daemon running for this directory")
+    private boolean stop = false;
+
+    private ClusterRepository repository = new ClusterRepository();
+
+    private PrintStream output = System.out; //NOSONAR
+
+    private volatile ServerSocket serverSocket;
+
+    public CommandDaemon() { //NOSONAR
+    }
+
+    public CommandDaemon(PrintStream output) {
+        this.output = output;
+    }
+
+    @Override
+    public void execute() {
+        DaemonClient client = new DaemonClient(repository);
+        if (stop) {
+            output.println(client.stop() ? "Minimesos daemon is stopped" : "Minimesos daemon is not running");
+            return;
+        }
+        if (client.isRunning()) {
+            output.println("Minimesos daemon is already running for " + repository.getMinimesosDir().getParent());
+            return;
+        }
+
+        File daemonFile = client.getDaemonFile();
+        String token = newToken();
+        ExecutorService executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "minimesos-daemon");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            serverSocket = server;
+            writeDaemonFile(daemonFile, server.getLocalPort(), token);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> FileUtils.deleteQuietly(daemonFile)));
+            ClusterRepository.setRetainCluster(true);
+            // keeps metadata of containers cached between commands
+            DockerEvents.subscribe();
+
+            output.println("Minimesos daemon is running for " + repository.getMinimesosDir().getParent() + ". Stop it with 'minimesos daemon --stop'");
+            while (!server.isClosed()) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketException e) { //NOSONAR
+                    break;
+                }
+                executor.execute(() -> serve(socket, token));
+            }
+        } catch (IOException e) {
+            throw new MinimesosException("Failed to run minimesos daemon: " + e.getMessage(), e);
+        } finally {
+            ClusterRepository.setRetainCluster(false);
+            executor.shutdownNow();
+            FileUtils.deleteQuietly(daemonFile);
+        }
+    }
+
+    private void serve(Socket socket, String token) {
+        try (Socket ignored = socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+            String requestToken = DaemonProtocol.readToken(in);
+            if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), requestToken.getBytes(StandardCharsets.UTF_8))) {
+                LOGGER.warn("Rejected command with a wrong token");
+                return;
+            }
+
+            String[] args = DaemonProtocol.readArgs(in);
+            if (args.length == 0) {
+                DaemonProtocol.writeExit(out, 0);
+                serverSocket.close();
+                return;
+            }
+
+            PrintStream commandOutput = new PrintStream(new DaemonProtocol.FrameOutputStream(out), true, "UTF-8");
+            int exitCode = Main.create(commandOutput).run(args);
+            commandOutput.flush();
+            DaemonProtocol.writeExit(out, exitCode);
+        } catch (IOException e) {
+            LOGGER.debug("Failed to serve command of minimesos daemon", e);
+        }
+    }
+
+    private static void writeDaemonFile(File daemonFile, int port, String token) throws IOException {
+        File tempFile = new File(daemonFile.getParentFile(), daemonFile.getName() + ".tmp");
+        FileUtils.writeStringToFile(tempFile, new JSONObject().put("port", port).put("token", token).toString(), "UTF-8");
+        try {
+            Files.setPosixFilePermissions(tempFile.toPath(), PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) { //NOSONAR
+            LOGGER.debug("File system does not support POSIX permissions, " + daemonFile + " is readable by other users");
+        }
+        FileUtils.deleteQuietly(daemonFile);
+        FileUtils.moveFile(tempFile, daemonFile);
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(bytes);
+        return String.format("%032x", new BigInteger(1, bytes));
+    }
+
+    @Override
+    public boolean validateParameters() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return CLINAME;
+    }
+
+    public void setRepository(ClusterRepository repository) {
+        this.repository = repository;
+    }
+
+}
@@ -39,14 +39,7 @@ public class CommandInfo implements Command {
         if (clusterId != null) {
             MesosCluster cluster = repository.loadCluster(new MesosClusterContainersFactory());
             if (cluster != null) {
-                output.println("Minimesos cluster is running: " + cluster.getClusterId());
-                output.println("Mesos version: " + cluster.getMaster().getState().getVersion());
-                printServiceUrls(cluster);
-
-                MesosDns mesosDns = cluster.getMesosDns();
-                if (mesosDns != null) {
-                    output.println("Running dnsmasq? Add 'server=/mm/" + mesosDns.getIpAddress() + "#53' to /etc/dnsmasq.d/10-minimesos to resolve master.mm, zookeeper.mm and Marathon apps on app.marathon.mm.");
-                }
+                printInfo(cluster);
             } else {
                 output.println(String.format("Minimesos cluster %s is not running. %s is removed", clusterId, repository.getMinimesosFile().getAbsolutePath()));
             }
@@ -55,6 +48,22 @@ public class CommandInfo implements Command {
         }
     }
 
+    /**
+     * Prints information about a cluster, which the caller has loaded already
+     *
+     * @param cluster running cluster
+     */
+    void printInfo(MesosCluster cluster) {
+        output.println("Minimesos cluster is running: " + cluster.getClusterId());
+        output.println("Mesos version: " + cluster.getMaster().getVersion());
+        printServiceUrls(cluster);
+
+        MesosDns mesosDns = cluster.getMesosDns();
+        if (mesosDns != null) {
+            output.println("Running dnsmasq? Add 'server=/mm/" + mesosDns.getIpAddress() + "#53' to /etc/dnsmasq.d/10-minimesos to resolve master.mm, zookeeper.mm and Marathon apps on app.marathon.mm.");
+        }
+    }
+
     /**
      * Prints cluster services URLs and IPs
      *
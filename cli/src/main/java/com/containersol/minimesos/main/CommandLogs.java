@@ -3,12 +3,14 @@ package com.containersol.minimesos.main;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.AgentState;
 import com.containersol.minimesos.cluster.ClusterRepository;
 import com.containersol.minimesos.cluster.MesosAgent;
 import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.MesosMaster;
 import com.containersol.minimesos.mesos.MesosClusterContainersFactory;
+import com.containersol.minimesos.state.Agent;
 import com.containersol.minimesos.state.Executor;
-import com.containersol.minimesos.state.Framework;
 import com.containersol.minimesos.state.State;
 import com.containersol.minimesos.state.Task;
 import com.containersol.minimesos.util.Downloader;
@@ -17,6 +19,9 @@ import org.apache.http.client.utils.URIBuilder;
 import java.io.PrintStream;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.apache.commons.lang.StringUtils.isBlank;
@@ -24,11 +29,23 @@ import static org.apache.commons.lang.StringUtils.isBlank;
 @Parameters(separators = "=", commandDescription = "Fetches the stdout logs of the specified task")
 public class CommandLogs implements Command {
 
+    public static final String CLINAME = "logs";
+
+    /**
+     * Time to wait for agents to report their state, when looking for the agent of a task
+     */
+    private static final long AGENT_STATE_TIMEOUT_MS = 10000;
+
+    private static final int PAGE_SIZE = 500;
+
     private PrintStream output = System.out; // NOSONAR
 
     private ClusterRepository repository = new ClusterRepository();
 
-    private Downloader downloader = new Downloader();
+    /**
+     * Fetches the file with the HTTP transport of the cluster, unless set
+     */
+    private Downloader downloader;
 
     @Parameter(names = "--task", description = "Substring of a task ID", required = true)
     String taskId = null;
@@ -51,7 +68,7 @@ public class CommandLogs implements Command {
 
     @Override
     public String getName() {
-        return "logs";
+        return CLINAME;
     }
 
     @Override
@@ -62,15 +79,14 @@ public class CommandLogs implements Command {
             return;
         }
 
-        State masterState = cluster.getMaster().getState();
-        Task task = findTask(masterState, taskId);
+        Task task = findTask(cluster.getMaster());
         if (task == null) {
             output.println(String.format("Cannot find task: '%s'", taskId));
             return;
         }
 
-        MesosAgent agent = findAgent(cluster, task.getSlaveId());
-        if (agent == null) {
+        AgentState agentState = findAgent(cluster, task.getSlaveId());
+        if (agentState == null) {
             output.println(String.format("Cannot find agent: '%s'", task.getSlaveId()));
             return;
         }
@@ -78,8 +94,9 @@ public class CommandLogs implements Command {
 
         String filename = stderr ? "stderr" : "stdout";
         output.println(String.format("[minimesos] Fetching '%s' of task '%s'\n", filename, task.getId()));
-        URI fileUrl = getFileUrl(agent, task, filename);
-        String content = downloader.getFileContentAsString(fileUrl.toString());
+        URI fileUrl = getFileUrl(agentState, task, filename);
+        Downloader fileDownloader = (downloader != null) ? downloader : new Downloader(cluster.getHttpTransport());
+        String content = fileDownloader.getFileContentAsString(fileUrl.toString());
         output.println(content);
     }
 
@@ -91,34 +108,53 @@ public class CommandLogs implements Command {
         this.downloader = downloader;
     }
 
-    private Task findTask(State state, String taskId) {
-        for (Framework framework : state.getFrameworks()) {
-            for (Task task: framework.getTasks()) {
-                if (task.getId().contains(taskId)) {
-                    return task;
-                }
+    /**
+     * Reads the tasks of the master page by page and keeps only the ones, which IDs contain the searched ID. A running task is
+     * preferred over a completed one. Then a task with exactly the searched ID is preferred over one, which ID starts with it, and
+     * that over one, which ID only contains it
+     */
+    private Task findTask(MesosMaster master) {
+        List<Task> matches = new ArrayList<>();
+        master.forEachTask(PAGE_SIZE, task -> {
+            if (task.getId().contains(taskId)) {
+                matches.add(task);
             }
-        }
-        return null;
+        });
+        return matches.stream()
+            .min(Comparator.comparing(Task::isTerminal)
+                .thenComparing(task -> !task.getId().equals(taskId))
+                .thenComparing(task -> !task.getId().startsWith(taskId))
+                .thenComparing(Task::getId))
+            .orElse(null);
     }
 
-    private MesosAgent findAgent(MesosCluster cluster, String slaveId) {
-        for (MesosAgent agent : cluster.getAgents()) {
-            State agentState = agent.getState();
-            if (agentState.getId().equals(slaveId)) {
-                return agent;
+    /**
+     * Finds the agent by its address in the list of agents of the master. Falls back to asking all agents for their ID, if the
+     * agent is not listed with an address of a cluster member
+     */
+    private AgentState findAgent(MesosCluster cluster, String slaveId) {
+        Agent listed = cluster.getMaster().getRegisteredAgents().stream()
+            .filter(agent -> slaveId.equals(agent.getId()))
+            .findFirst()
+            .orElse(null);
+        String host = (listed != null) ? listed.getPidHost() : null;
+        if (host != null) {
+            for (MesosAgent agent : cluster.getAgents()) {
+                if (host.equals(agent.getIpAddress())) {
+                    return new AgentState(agent, agent.getState());
+                }
             }
         }
-        return null;
+        return cluster.findAgentState(agentState -> slaveId.equals(agentState.getId()), AGENT_STATE_TIMEOUT_MS);
     }
 
-    private URI getFileUrl(MesosAgent agent, Task task, String filename) throws MinimesosException {
-        Executor executor = findExecutor(agent, task);
+    private URI getFileUrl(AgentState agentState, Task task, String filename) throws MinimesosException {
+        Executor executor = findExecutor(agentState.getState(), task);
         if (executor == null) {
             throw new MinimesosException(String.format("Cannot find executor: '%s'", taskId));
         }
         String path = executor.getDirectory();
-        URIBuilder uriBuilder = new URIBuilder(agent.getServiceUrl())
+        URIBuilder uriBuilder = new URIBuilder(agentState.getAgent().getServiceUrl())
             .setPath("/files/download")
             .addParameter("path", path + "/" + filename);
         URI sandboxUrl = null;
@@ -130,21 +166,12 @@ public class CommandLogs implements Command {
         return sandboxUrl;
     }
 
-    private Executor findExecutor(MesosAgent agent, Task task) {
+    private Executor findExecutor(State agentState, Task task) {
         String executorId = task.getExecutorId();
         if (isBlank(executorId)) { // if executorId is empty, try with the taskId
             executorId = task.getId();
         }
-        for (Framework framework : agent.getState().getFrameworks()) {
-            if (framework.getId().equals(task.getFrameworkId())) {
-                for (Executor executor : framework.getExecutors()) {
-                    if (executor.getId().equals(executorId)) {
-                        return executor;
-                    }
-                }
-            }
-        }
-        return null;
+        return agentState.getIndex().getExecutor(task.getFrameworkId(), executorId);
     }
 
 }
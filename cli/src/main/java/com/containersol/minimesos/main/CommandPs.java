@@ -1,14 +1,17 @@
 package com.containersol.minimesos.main;
 
+import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import com.containersol.minimesos.cluster.ClusterRepository;
 import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.mesos.ClusterStateWatcher;
 import com.containersol.minimesos.mesos.MesosClusterContainersFactory;
 import com.containersol.minimesos.state.Framework;
-import com.containersol.minimesos.state.State;
 import com.containersol.minimesos.state.Task;
 
 import java.io.PrintStream;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Lists tasks on the cluster
@@ -16,10 +19,25 @@ import java.io.PrintStream;
 @Parameters(separators = "=", commandDescription = "List running tasks")
 public class CommandPs implements Command {
 
+    public static final String CLINAME = "ps";
+
     private static final String FORMAT = "%-20s %-20s %-20s %-20s\n";
 
     private static final Object[] COLUMNS = { "FRAMEWORK", "TASK", "STATE", "PORT" };
 
+    /**
+     * Number of tasks retrieved from the master at once. Tasks are printed while they are read
+     */
+    private static final int PAGE_SIZE = 500;
+
+    /**
+     * Time between checks whether the output of <code>ps --watch</code> is still read
+     */
+    private static final long WATCH_CHECK_INTERVAL_MS = 1000;
+
+    @Parameter(names = "--watch", description = "Keep running and print tasks as they are added or change their state")
+    private boolean watch = false;
+
     private ClusterRepository repository = new ClusterRepository();
 
     private PrintStream output = System.out; // NOSONAR
@@ -39,7 +57,7 @@ public class CommandPs implements Command {
 
     @Override
     public String getName() {
-        return "ps";
+        return CLINAME;
     }
 
     @Override
@@ -52,14 +70,54 @@ public class CommandPs implements Command {
         }
 
         output.printf(FORMAT, COLUMNS);
-        State state = cluster.getMaster().getState();
-        for (Framework framework : state.getFrameworks()) {
-            for (Task task : framework.getTasks()) {
-                output.printf(FORMAT, framework.getName(), task.getName(), task.getState(), task.getDiscovery().getPorts().getPorts().get(0).getNumber());
+        if (watch) {
+            watch(cluster);
+            return;
+        }
+        Map<String, String> frameworkNames = new HashMap<>();
+        for (Framework framework : cluster.getMaster().getStateSummary().getFrameworks()) {
+            frameworkNames.put(framework.getId(), framework.getName());
+        }
+        cluster.getMaster().forEachTask(PAGE_SIZE, task -> {
+            // the master also lists completed tasks and tasks of completed frameworks
+            if (!task.isTerminal() && frameworkNames.containsKey(task.getFrameworkId())) {
+                output.printf(FORMAT, frameworkNames.get(task.getFrameworkId()), task.getName(), task.getState(), getPort(task));
             }
+        });
+    }
+
+    /**
+     * Prints every task once the master reports it and again whenever its state changes, until the output is closed
+     */
+    private void watch(MesosCluster cluster) {
+        try (ClusterStateWatcher watcher = new ClusterStateWatcher(cluster.getMaster(), cluster.getHttpTransport())) {
+            watcher.addTaskListener(task ->
+                output.printf(FORMAT, watcher.getFrameworkName(task.getFrameworkId()), task.getName(), task.getState(), getPort(task))
+            );
+            watcher.start();
+            while (!output.checkError()) {
+                Thread.sleep(WATCH_CHECK_INTERVAL_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
+    private static Integer getPort(Task task) {
+        if (task.getDiscovery() == null || task.getDiscovery().getPorts() == null || task.getDiscovery().getPorts().getPorts() == null
+            || task.getDiscovery().getPorts().getPorts().isEmpty()) {
+            return null;
+        }
+        return task.getDiscovery().getPorts().getPorts().get(0).getNumber();
+    }
+
+    /**
+     * @return true, if the command keeps running to print changes of tasks
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
     public void setRepository(ClusterRepository repository) {
         this.repository = repository;
     }
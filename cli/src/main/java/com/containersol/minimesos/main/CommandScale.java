@@ -0,0 +1,127 @@
+package com.containersol.minimesos.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.List;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.ClusterRepository;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.ConfigParser;
+import com.containersol.minimesos.config.MesosAgentConfig;
+import com.containersol.minimesos.mesos.ClusterReconciler;
+import com.containersol.minimesos.mesos.MesosClusterContainersFactory;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Adds or removes agents of the running cluster
+ */
+@Parameters(separators = "=", commandDescription = "Add or remove agents of the running cluster")
+public class CommandScale implements Command {
+
+    public static final String CLINAME = "scale";
+
+    @Parameter(names = "--agents", description = "Number of agents to run", required = true)
+    private int agents = 0;
+
+    @Parameter(names = "--template", description = "Agent block of a minimesosFile or path to a file with it, e.g. 'agent { imageTag = \"1.0.0-0.1.0\" }', to configure added agents. Defaults to the last configured agent")
+    private String template = null;
+
+    private ClusterRepository repository = new ClusterRepository();
+
+    private PrintStream output = System.out; //NOSONAR
+
+    public CommandScale() {
+        // NOSONAR
+    }
+
+    public CommandScale(PrintStream output) {
+        this.output = output;
+    }
+
+    @Override
+    public void execute() {
+        MesosClusterContainersFactory factory = new MesosClusterContainersFactory();
+        MesosCluster cluster = repository.loadCluster(factory);
+        if (cluster == null) {
+            output.println("Minimesos cluster is not running");
+            return;
+        }
+
+        ClusterConfig applied = repository.loadAppliedConfig();
+        MesosAgentConfig agentTemplate = getAgentTemplate(applied);
+        int timeout = (applied != null) ? applied.getTimeout() : cluster.getClusterConfig().getTimeout();
+
+        List<String> changes = new ClusterReconciler(cluster).scaleAgents(agents, agentTemplate, applied, timeout);
+        if (applied != null) {
+            repository.saveAppliedConfig(applied);
+        }
+        repository.saveClusterDescriptor(cluster, factory);
+
+        changes.forEach(output::println);
+        output.println("Cluster " + cluster.getClusterId() + " runs " + cluster.getAgents().size() + " agents");
+    }
+
+    /**
+     * @param applied configuration the cluster was brought up with or null, if it is not known
+     * @return configuration of agents to add
+     */
+    MesosAgentConfig getAgentTemplate(ClusterConfig applied) {
+        String mesosVersion = (applied != null) ? applied.getMesosVersion() : ClusterConfig.DEFAULT_MESOS_VERSION;
+        if (template == null) {
+            if (applied != null && !applied.getAgents().isEmpty()) {
+                return applied.getAgents().get(applied.getAgents().size() - 1);
+            }
+            return new MesosAgentConfig(mesosVersion);
+        }
+
+        String block = template;
+        File templateFile = new File(template);
+        if (templateFile.isFile()) {
+            try {
+                block = FileUtils.readFileToString(templateFile, "UTF-8");
+            } catch (IOException e) {
+                throw new MinimesosException("Failed to read agent template from " + templateFile.getAbsolutePath(), e);
+            }
+        }
+
+        ClusterConfig parsed;
+        try {
+            parsed = new ConfigParser().parse(String.format("minimesos {%n mesosVersion = \"%s\"%n %s%n}", mesosVersion, block));
+        } catch (Exception e) {
+            throw new MinimesosException("Failed to parse agent template: " + e.getMessage(), e);
+        }
+        if (parsed.getAgents().size() != 1) {
+            throw new MinimesosException("Agent template must contain exactly one 'agent' block, found " + parsed.getAgents().size());
+        }
+        return parsed.getAgents().get(0);
+    }
+
+    @Override
+    public boolean validateParameters() {
+        return agents > 0;
+    }
+
+    @Override
+    public String getName() {
+        return CLINAME;
+    }
+
+    public void setAgents(int agents) {
+        this.agents = agents;
+    }
+
+    public void setTemplate(String template) {
+        this.template = template;
+    }
+
+    public void setRepository(ClusterRepository repository) {
+        this.repository = repository;
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.containersol.minimesos.main;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.ClusterRepository;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.ZooKeeper;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.ConfigParser;
+import com.containersol.minimesos.mesos.MesosClusterContainersFactory;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Saves state of the running cluster, so it can be restored with 'up --from-snapshot'
+ */
+@Parameters(separators = "=", commandDescription = "Save ZooKeeper and Marathon state of the running cluster to restore it with 'up --from-snapshot'")
+public class CommandSnapshot implements Command {
+
+    public static final String CLINAME = "snapshot";
+
+    public static final String DEFAULT_SNAPSHOT_NAME = "default";
+
+    @Parameter(names = "--name", description = "Name of the snapshot")
+    private String name = DEFAULT_SNAPSHOT_NAME;
+
+    @Parameter(names = "--clusterConfig", description = "Path to file with cluster configuration, which is stored with the snapshot, if the configuration the cluster runs with is not known. Defaults to minimesosFile")
+    private String clusterConfigPath = ClusterConfig.DEFAULT_CONFIG_FILE;
+
+    private ClusterRepository repository = new ClusterRepository();
+
+    private PrintStream output = System.out; //NOSONAR
+
+    public CommandSnapshot() {
+        // NOSONAR
+    }
+
+    public CommandSnapshot(PrintStream output) {
+        this.output = output;
+    }
+
+    @Override
+    public void execute() {
+        MesosCluster cluster = repository.loadCluster(new MesosClusterContainersFactory());
+        if (cluster == null) {
+            output.println("Minimesos cluster is not running");
+            return;
+        }
+
+        ZooKeeper zooKeeper = cluster.getZooKeeper();
+        if (zooKeeper == null) {
+            throw new MinimesosException("Cluster " + cluster.getClusterId() + " has no ZooKeeper to take snapshot of");
+        }
+
+        File snapshotDir = repository.getSnapshotDir(name);
+        saveConfig(new File(snapshotDir, ClusterRepository.SNAPSHOT_CONFIG_FILE));
+
+        zooKeeper.saveData(new File(snapshotDir, ClusterRepository.SNAPSHOT_ZOOKEEPER_FILE));
+
+        output.println("Saved snapshot '" + name + "' of cluster " + cluster.getClusterId() + " to " + snapshotDir.getAbsolutePath());
+    }
+
+    /**
+     * Stores the configuration the cluster was started or last reconciled with. Falls back to the minimesosFile, if it is not known
+     */
+    private void saveConfig(File configFile) {
+        ClusterConfig applied = repository.loadAppliedConfig();
+        try {
+            if (applied != null) {
+                FileUtils.writeStringToFile(configFile, new ConfigParser().toString(applied), "UTF-8");
+                return;
+            }
+            try (InputStream config = MesosCluster.getInputStream(clusterConfigPath)) {
+                if (config == null) {
+                    throw new MinimesosException("No minimesosFile found at " + clusterConfigPath + " to store with the snapshot");
+                }
+                FileUtils.copyInputStreamToFile(config, configFile);
+            }
+        } catch (IOException e) {
+            throw new MinimesosException("Failed to store cluster configuration in " + configFile.getParentFile().getAbsolutePath(), e);
+        }
+    }
+
+    @Override
+    public boolean validateParameters() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return CLINAME;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setClusterConfigPath(String clusterConfigPath) {
+        this.clusterConfigPath = clusterConfigPath;
+    }
+
+    public void setRepository(ClusterRepository repository) {
+        this.repository = repository;
+    }
+
+}
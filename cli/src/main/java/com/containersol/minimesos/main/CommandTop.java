@@ -0,0 +1,147 @@
+package com.containersol.minimesos.main;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import com.containersol.minimesos.cluster.ClusterMetrics;
+import com.containersol.minimesos.cluster.ClusterRepository;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.mesos.MesosClusterContainersFactory;
+
+import java.io.PrintStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Samples metrics of the master and agents and prints load of the cluster
+ */
+@Parameters(separators = "=", commandDescription = "Display load of the master and agents, sampled from their metrics")
+public class CommandTop implements Command {
+
+    public static final String CLINAME = "top";
+
+    /**
+     * Counters and gauges, which sum up to the number of tasks the master has seen launched
+     */
+    static final String[] TASKS_LAUNCHED = {
+        "master/tasks_staging", "master/tasks_starting", "master/tasks_running", "master/tasks_killing", "master/tasks_finished",
+        "master/tasks_failed", "master/tasks_killed", "master/tasks_lost", "master/tasks_error"
+    };
+
+    /**
+     * Calls answering offers. Mesos does not count the offers it sends, but every offer is either accepted or declined
+     */
+    static final String[] OFFERS_ANSWERED = { "master/messages_launch_tasks", "master/messages_decline_offers" };
+
+    private static final String AGENT_FORMAT = "%-14s %-24s %-24s\n";
+
+    @Parameter(names = "--interval", description = "Seconds between samples")
+    private int interval = 2;
+
+    @Parameter(names = "--count", description = "Number of samples to print. Keep sampling until interrupted, if 0")
+    private int count = 0;
+
+    @Parameter(names = "--prometheus", description = "Print the latest sample of all metrics in Prometheus text format")
+    private boolean prometheus = false;
+
+    private ClusterRepository repository = new ClusterRepository();
+
+    private PrintStream output = System.out; // NOSONAR
+
+    public CommandTop(PrintStream output) {
+        this.output = output;
+    }
+
+    public CommandTop() {
+        // NOSONAR
+    }
+
+    @Override
+    public boolean validateParameters() {
+        return interval > 0 && count >= 0;
+    }
+
+    @Override
+    public String getName() {
+        return CLINAME;
+    }
+
+    @Override
+    public void execute() {
+        MesosCluster cluster = repository.loadCluster(new MesosClusterContainersFactory());
+        if (cluster == null) {
+            output.println("Minimesos cluster is not running");
+            return;
+        }
+
+        ClusterMetrics metrics = new ClusterMetrics(cluster, ClusterMetrics.DEFAULT_CAPACITY);
+        try {
+            if (prometheus) {
+                metrics.sample();
+                output.print(metrics.toPrometheus());
+                return;
+            }
+            // rates need two samples
+            metrics.sample();
+            for (int printed = 0; count == 0 || printed < count; printed++) {
+                Thread.sleep(interval * 1000L);
+                metrics.sample();
+                print(metrics);
+                if (output.checkError()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void print(ClusterMetrics metrics) {
+        output.println(new SimpleDateFormat("HH:mm:ss").format(new Date()));
+        ClusterMetrics.Member master = metrics.getMaster();
+        if (master != null) {
+            output.printf("master  offers: %s outstanding, %s answered/s  allocation runs/s: %s%n",
+                format(master.getLatest("master/outstanding_offers")), format(master.getRate(OFFERS_ANSWERED)),
+                format(master.getRate("allocator/mesos/allocation_runs")));
+            output.printf("        tasks launched/s: %s  failed/s: %s  event queue: %s (allocator: %s)%n",
+                format(master.getRate(TASKS_LAUNCHED)), format(master.getRate("master/tasks_failed")),
+                format(master.getLatest("master/event_queue_messages", "master/event_queue_dispatches")),
+                format(master.getLatest("allocator/event_queue_dispatches")));
+        }
+        output.printf(AGENT_FORMAT, "AGENT", "CPUS", "MEM (MB)");
+        for (ClusterMetrics.Member member : metrics.getMembers()) {
+            if (!member.isMaster()) {
+                output.printf(AGENT_FORMAT, shortId(member.getContainerId()),
+                    utilization(member.getLatest("slave/cpus_used"), member.getLatest("slave/cpus_total")),
+                    utilization(member.getLatest("slave/mem_used"), member.getLatest("slave/mem_total")));
+            }
+        }
+        output.println();
+    }
+
+    static String utilization(double used, double total) {
+        if (Double.isNaN(used) || Double.isNaN(total)) {
+            return "-";
+        }
+        String percentage = (total > 0) ? String.format(" %3.0f%%", used * 100 / total) : "";
+        return String.format("%s/%s%s", format(used), format(total), percentage);
+    }
+
+    static String format(double value) {
+        if (Double.isNaN(value)) {
+            return "-";
+        }
+        if (value == Math.rint(value)) {
+            return Long.toString((long) value);
+        }
+        return String.format("%.1f", value);
+    }
+
+    private static String shortId(String containerId) {
+        return (containerId.length() > 12) ? containerId.substring(0, 12) : containerId;
+    }
+
+    public void setRepository(ClusterRepository repository) {
+        this.repository = repository;
+    }
+
+}
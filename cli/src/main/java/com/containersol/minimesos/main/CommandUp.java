@@ -1,17 +1,30 @@
 package com.containersol.minimesos.main;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
 import com.containersol.minimesos.MinimesosException;
 import com.containersol.minimesos.cluster.ClusterRepository;
 import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.Timeline;
 import com.containersol.minimesos.config.ClusterConfig;
 import com.containersol.minimesos.config.ConfigParser;
 import com.containersol.minimesos.config.MesosMasterConfig;
 import com.containersol.minimesos.config.ZooKeeperConfig;
+import com.containersol.minimesos.mesos.ClusterReconciler;
 import com.containersol.minimesos.mesos.MesosClusterContainersFactory;
 
 import org.apache.commons.io.IOUtils;
@@ -28,6 +41,15 @@ public class CommandUp implements Command {
 
     public static final String CLINAME = "up";
 
+    private static final String PROFILE_FORMAT = "%-24s %-20s %10s %10s\n";
+
+    private static final Object[] PROFILE_COLUMNS = { "MEMBER", "PHASE", "START MS", "TOOK MS" };
+
+    /**
+     * Editors write files in several steps. Changes are reconciled once the file is quiet for this long.
+     */
+    private static final long WATCH_DEBOUNCE_MS = 500;
+
     private ClusterRepository repository = new ClusterRepository();
 
     @Parameter(names = "--mapPortsToHost", description = "Map the Mesos, Marathon UI, Zookeeper and Consul ports to the host level (we recommend to enable this on Mac (e.g. when using docker-machine) and disable on Linux).")
@@ -36,6 +58,18 @@ public class CommandUp implements Command {
     @Parameter(names = "--clusterConfig", description = "Path to file with cluster configuration. Defaults to minimesosFile")
     private String clusterConfigPath = ClusterConfig.DEFAULT_CONFIG_FILE;
 
+    @Parameter(names = "--from-snapshot", description = "Name of the snapshot, taken with 'snapshot' command, to restore ZooKeeper and Marathon state from. Configuration stored with the snapshot is used")
+    private String fromSnapshot = null;
+
+    @Parameter(names = "--profile", description = "Record durations of the startup phases, write them to .minimesos as Chrome trace and print a summary")
+    private boolean profile = false;
+
+    @Parameter(names = "--reconcile", description = "If the cluster is running, apply changes of the minimesosFile to it: add or remove agents, Consul, Registrator, Marathon apps and groups")
+    private boolean reconcile = false;
+
+    @Parameter(names = "--watch", description = "Keep running and reconcile the cluster every time the minimesosFile changes. Implies --reconcile")
+    private boolean watch = false;
+
     private MesosCluster startedCluster = null;
 
     private PrintStream output = System.out; //NOSONAR
@@ -71,26 +105,176 @@ public class CommandUp implements Command {
         this.clusterConfigPath = clusterConfigPath;
     }
 
+    public String getFromSnapshot() {
+        return fromSnapshot;
+    }
+
+    public void setFromSnapshot(String fromSnapshot) {
+        this.fromSnapshot = fromSnapshot;
+    }
+
+    public boolean isProfile() {
+        return profile;
+    }
+
+    public void setProfile(boolean profile) {
+        this.profile = profile;
+    }
+
+    public boolean isReconcile() {
+        return reconcile;
+    }
+
+    public void setReconcile(boolean reconcile) {
+        this.reconcile = reconcile;
+    }
+
+    public boolean isWatch() {
+        return watch;
+    }
+
+    public void setWatch(boolean watch) {
+        this.watch = watch;
+    }
+
     @Override
     public void execute() {
         LOGGER.debug("Executing up command");
 
         MesosCluster cluster = getCluster();
         if (cluster != null) {
-            output.println("Cluster " + cluster.getClusterId() + " is already running");
+            if (reconcile || watch) {
+                reconcile(cluster);
+                if (watch) {
+                    watch(cluster);
+                }
+            } else {
+                output.println("Cluster " + cluster.getClusterId() + " is already running");
+            }
             return;
         }
+        File snapshotDir = null;
+        if (fromSnapshot != null) {
+            snapshotDir = repository.getSnapshotDir(fromSnapshot);
+            if (!new File(snapshotDir, ClusterRepository.SNAPSHOT_ZOOKEEPER_FILE).isFile()) {
+                throw new MinimesosException("Snapshot '" + fromSnapshot + "' is not found in " + snapshotDir.getAbsolutePath());
+            }
+            setClusterConfigPath(new File(snapshotDir, ClusterRepository.SNAPSHOT_CONFIG_FILE).getAbsolutePath());
+        }
+
         ClusterConfig clusterConfig = readClusterConfigFromMinimesosFile();
         updateWithParameters(clusterConfig);
+        if (snapshotDir != null && clusterConfig.getMarathon() != null) {
+            // apps and groups are restored by Marathon from its state in ZooKeeper
+            clusterConfig.getMarathon().getApps().clear();
+            clusterConfig.getMarathon().getGroups().clear();
+        }
 
         startedCluster = mesosClusterFactory.createMesosCluster(clusterConfig);
+        if (profile) {
+            startedCluster.enableProfiling();
+        }
+        if (snapshotDir != null) {
+            startedCluster.getZooKeeper().setInitialData(new File(snapshotDir, ClusterRepository.SNAPSHOT_ZOOKEEPER_FILE));
+        }
         // save cluster ID first, so it becomes available for 'destroy' even if its part failed to start
         repository.saveClusterFile(startedCluster);
 
-        startedCluster.start();
-        startedCluster.waitForState(state -> state != null);
+        try {
+            startedCluster.start();
+            startedCluster.waitForState(state -> state != null);
+        } finally {
+            if (profile) {
+                printProfile(startedCluster);
+            }
+        }
+        repository.saveAppliedConfig(clusterConfig);
+        repository.saveAppliedMarathonJson(ClusterReconciler.readMarathonJson(clusterConfig));
+        repository.saveClusterDescriptor(startedCluster, mesosClusterFactory);
+
+        new CommandInfo(output).printInfo(startedCluster);
 
-        new CommandInfo(output).execute();
+        if (watch) {
+            watch(startedCluster);
+        }
+    }
+
+    /**
+     * Applies changes of the minimesosFile to the running cluster
+     *
+     * @param cluster running cluster
+     */
+    private void reconcile(MesosCluster cluster) {
+        ClusterConfig desired = readClusterConfigFromMinimesosFile();
+        updateWithParameters(desired);
+
+        ClusterReconciler reconciler = new ClusterReconciler(cluster);
+        List<String> changes = reconciler.reconcile(repository.loadAppliedConfig(), repository.loadAppliedMarathonJson(), desired);
+        repository.saveAppliedConfig(desired);
+        repository.saveAppliedMarathonJson(reconciler.getAppliedMarathonJson());
+        repository.saveClusterDescriptor(cluster, mesosClusterFactory);
+
+        if (changes.isEmpty()) {
+            output.println("Cluster " + cluster.getClusterId() + " is up to date");
+        } else {
+            changes.forEach(output::println);
+            output.println("Cluster " + cluster.getClusterId() + " is reconciled with " + getClusterConfigPath());
+        }
+    }
+
+    /**
+     * Reconciles the cluster every time the minimesosFile changes, until the process is interrupted
+     *
+     * @param cluster running cluster
+     */
+    private void watch(MesosCluster cluster) {
+        Path configFile = Paths.get(getClusterConfigPath()).toAbsolutePath();
+        if (!configFile.toFile().isFile()) {
+            throw new MinimesosException("Only a local minimesosFile can be watched, " + getClusterConfigPath() + " is not a file");
+        }
+
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            configFile.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            output.println("Watching " + configFile + " for changes. Press Ctrl+C to stop");
+
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = key.pollEvents().stream().anyMatch(event -> configFile.getFileName().equals(event.context()));
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+
+                WatchKey next;
+                while ((next = watchService.poll(WATCH_DEBOUNCE_MS, TimeUnit.MILLISECONDS)) != null) {
+                    next.pollEvents();
+                    next.reset();
+                }
+
+                try {
+                    reconcile(cluster);
+                } catch (MinimesosException e) {
+                    output.println("Failed to reconcile cluster " + cluster.getClusterId() + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new MinimesosException("Failed to watch " + configFile, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void printProfile(MesosCluster cluster) {
+        File profileFile = repository.saveTimeline(cluster);
+
+        List<Timeline.Span> spans = cluster.getTimeline().getSpans();
+        spans.sort(Comparator.comparingLong(Timeline.Span::getStartNanos));
+        output.printf(PROFILE_FORMAT, PROFILE_COLUMNS);
+        for (Timeline.Span span : spans) {
+            output.printf(PROFILE_FORMAT, span.getMember(), span.getPhase(),
+                TimeUnit.NANOSECONDS.toMillis(span.getStartNanos()), TimeUnit.NANOSECONDS.toMillis(span.getDurationNanos()));
+        }
+        output.println("Timeline is written to " + profileFile.getAbsolutePath());
     }
 
     /**
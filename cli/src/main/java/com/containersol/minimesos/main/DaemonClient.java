@@ -0,0 +1,156 @@
+package com.containersol.minimesos.main;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.ClusterRepository;
+
+import org.apache.commons.io.FileUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Forwards commands to the daemon running for the current directory, see {@link CommandDaemon}
+ */
+class DaemonClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DaemonClient.class);
+
+    private static final int CONNECT_TIMEOUT_MS = 200;
+
+    private final ClusterRepository repository;
+
+    DaemonClient(ClusterRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Runs the command in the daemon and copies its output
+     *
+     * @param args   command line arguments
+     * @param output to print the output of the command to
+     * @return exit code of the command or null, if no daemon is running
+     */
+    Integer forward(String[] args, PrintStream output) {
+        return send(args, output);
+    }
+
+    /**
+     * @return true if a running daemon was asked to stop
+     */
+    boolean stop() {
+        return send(new String[0], null) != null;
+    }
+
+    /**
+     * @return true if a daemon accepts connections
+     */
+    boolean isRunning() {
+        DaemonAddress address = readAddress();
+        if (address == null) {
+            return false;
+        }
+        try (Socket ignored = connect(address)) {
+            return true;
+        } catch (IOException e) { //NOSONAR
+            return false;
+        }
+    }
+
+    private Integer send(String[] args, PrintStream output) {
+        DaemonAddress address = readAddress();
+        if (address == null) {
+            return null;
+        }
+
+        Socket socket;
+        try {
+            socket = connect(address);
+        } catch (ConnectException e) {
+            LOGGER.debug("Removing " + getDaemonFile() + " of a daemon, which is not running anymore");
+            FileUtils.deleteQuietly(getDaemonFile());
+            return null;
+        } catch (IOException e) {
+            LOGGER.debug("Failed to connect to minimesos daemon, running command in process", e);
+            return null;
+        }
+
+        try (Socket ignored = socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DaemonProtocol.writeRequest(out, address.token, args);
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            while (true) {
+                byte type = in.readByte();
+                if (type == DaemonProtocol.FRAME_EXIT) {
+                    return in.readInt();
+                }
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                if (output != null) {
+                    output.write(bytes);
+                    output.flush();
+                }
+            }
+        } catch (EOFException e) {
+            throw new MinimesosException("Minimesos daemon closed the connection before the command finished", e);
+        } catch (IOException e) {
+            throw new MinimesosException("Failed to run command in minimesos daemon: " + e.getMessage(), e);
+        }
+    }
+
+    private static Socket connect(DaemonAddress address) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), address.port), CONNECT_TIMEOUT_MS);
+            return socket;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    private DaemonAddress readAddress() {
+        File daemonFile = getDaemonFile();
+        if (!daemonFile.isFile()) {
+            return null;
+        }
+        try {
+            JSONObject json = new JSONObject(FileUtils.readFileToString(daemonFile, "UTF-8"));
+            return new DaemonAddress(json.getInt("port"), json.getString("token"));
+        } catch (IOException | JSONException e) {
+            LOGGER.debug("Ignoring unreadable " + daemonFile, e);
+            return null;
+        }
+    }
+
+    File getDaemonFile() {
+        return new File(repository.getMinimesosDir(), DaemonProtocol.DAEMON_FILE);
+    }
+
+    private static class DaemonAddress {
+
+        private final int port;
+
+        private final String token;
+
+        private DaemonAddress(int port, String token) {
+            this.port = port;
+            this.token = token;
+        }
+    }
+
+}
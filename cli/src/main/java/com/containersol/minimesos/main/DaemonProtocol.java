@@ -0,0 +1,90 @@
+package com.containersol.minimesos.main;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Wire format between {@link DaemonClient} and {@link CommandDaemon}.
+ * <p>
+ * A request is the token of the daemon followed by the command line arguments. An empty argument list asks the daemon to stop. The
+ * response is a sequence of output frames, each a type byte, a length and the bytes printed by the command, terminated by an exit
+ * frame with the exit code of the command.
+ */
+final class DaemonProtocol {
+
+    /**
+     * File in .minimesos with port and token of the daemon
+     */
+    static final String DAEMON_FILE = "daemon.json";
+
+    static final byte FRAME_OUTPUT = 'O';
+
+    static final byte FRAME_EXIT = 'X';
+
+    private DaemonProtocol() {
+        // do not allow creation of instances
+    }
+
+    static void writeRequest(DataOutputStream out, String token, String[] args) throws IOException {
+        out.writeUTF(token);
+        out.writeInt(args.length);
+        for (String arg : args) {
+            out.writeUTF(arg);
+        }
+        out.flush();
+    }
+
+    static String readToken(DataInputStream in) throws IOException {
+        return in.readUTF();
+    }
+
+    static String[] readArgs(DataInputStream in) throws IOException {
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+        return args;
+    }
+
+    static void writeExit(DataOutputStream out, int exitCode) throws IOException {
+        synchronized (out) {
+            out.writeByte(FRAME_EXIT);
+            out.writeInt(exitCode);
+            out.flush();
+        }
+    }
+
+    /**
+     * Sends everything written to it as output frames
+     */
+    static class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+
+        FrameOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return;
+            }
+            synchronized (out) {
+                out.writeByte(FRAME_OUTPUT);
+                out.writeInt(len);
+                out.write(b, off, len);
+                out.flush();
+            }
+        }
+
+    }
+
+}
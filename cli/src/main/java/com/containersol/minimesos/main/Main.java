@@ -2,8 +2,11 @@ package com.containersol.minimesos.main;
 
 import java.io.PrintStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
@@ -44,19 +47,19 @@ public class Main {
 
     private ClusterRepository repository = new ClusterRepository();
 
+    /**
+     * Commands, which run in the daemon, if it is running. Others read from stdin, block or change the cluster the daemon holds
+     */
+    private static final Set<String> DAEMON_COMMANDS = new HashSet<>(Arrays.asList(
+        CommandInfo.CLINAME, CommandState.CLINAME, CommandPs.CLINAME, CommandLogs.CLINAME, CommandVersion.CLI_NAME,
+        CommandScale.CLINAME, CommandSnapshot.CLINAME
+    ));
+
+    private DaemonClient daemonClient;
+
     public static void main(String[] args) {
-        Main main = new Main();
-        main.addCommand(new CommandUp());
-        main.addCommand(new CommandDestroy());
-        main.addCommand(new CommandHelp());
-        main.addCommand(new CommandInstall());
-        main.addCommand(new CommandUninstall());
-        main.addCommand(new CommandState());
-        main.addCommand(new CommandInfo());
-        main.addCommand(new CommandInit());
-        main.addCommand(new CommandPs());
-        main.addCommand(new CommandVersion());
-        main.addCommand(new CommandLogs());
+        Main main = create(System.out); //NOSONAR
+        main.setDaemonClient(new DaemonClient(main.repository));
         try {
             int rc = main.run(args);
             if (EXIT_CODE_OK != rc) {
@@ -73,6 +76,35 @@ public class Main {
     }
 
 
+    /**
+     * @param output stream, commands print to
+     * @return main with all commands
+     */
+    static Main create(PrintStream output) {
+        Main main = new Main();
+        main.setOutput(output);
+        main.addCommand(new CommandUp(output));
+        main.addCommand(new CommandDestroy());
+        main.addCommand(new CommandHelp());
+        main.addCommand(new CommandInstall());
+        main.addCommand(new CommandUninstall(output));
+        main.addCommand(new CommandState(output));
+        main.addCommand(new CommandInfo(output));
+        main.addCommand(new CommandInit());
+        main.addCommand(new CommandPs(output));
+        main.addCommand(new CommandVersion(output));
+        main.addCommand(new CommandLogs(output));
+        main.addCommand(new CommandSnapshot(output));
+        main.addCommand(new CommandScale(output));
+        main.addCommand(new CommandTop(output));
+        main.addCommand(new CommandDaemon(output));
+        return main;
+    }
+
+    void setDaemonClient(DaemonClient daemonClient) {
+        this.daemonClient = daemonClient;
+    }
+
     public void setOutput(PrintStream output) {
         this.output = output;
     }
@@ -88,6 +120,13 @@ public class Main {
                 return EXIT_CODE_OK;
             }
 
+            if (daemonClient != null && isForwarded()) {
+                Integer exitCode = daemonClient.forward(args, output);
+                if (exitCode != null) {
+                    return exitCode;
+                }
+            }
+
             if (debug) {
                 initializeDebugLogging();
             }
@@ -157,10 +196,22 @@ public class Main {
         LOGGER.debug("Initialized debug logging");
     }
 
+    /**
+     * Commands, which keep running until they are interrupted, are not forwarded to the daemon, so they end with this process
+     */
+    private boolean isForwarded() {
+        String name = jc.getParsedCommand();
+        if (!DAEMON_COMMANDS.contains(name)) {
+            return false;
+        }
+        Command command = commands.get(name);
+        return !(command instanceof CommandPs && ((CommandPs) command).isWatch());
+    }
+
     private int handleNoCommand() {
         MesosCluster cluster = repository.loadCluster(new MesosClusterContainersFactory());
         if (cluster != null) {
-            new CommandInfo().execute();
+            new CommandInfo(output).printInfo(cluster);
             return EXIT_CODE_OK;
         } else {
             printUsage(null);
@@ -0,0 +1,66 @@
+package com.containersol.minimesos.main;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.MesosAgentConfig;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CommandScaleTest {
+
+    private CommandScale command;
+
+    @Before
+    public void before() {
+        command = new CommandScale();
+    }
+
+    @Test
+    public void testTemplate_defaultsToLastAgent() {
+        // Given
+        ClusterConfig applied = new ClusterConfig();
+        MesosAgentConfig first = new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION);
+        MesosAgentConfig last = new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION);
+        applied.getAgents().add(first);
+        applied.getAgents().add(last);
+
+        // When
+        MesosAgentConfig template = command.getAgentTemplate(applied);
+
+        // Then
+        assertSame(last, template);
+    }
+
+    @Test
+    public void testTemplate_parsesAgentBlock() {
+        // Given
+        command.setTemplate("agent { imageTag = \"custom\" }");
+
+        // When
+        MesosAgentConfig template = command.getAgentTemplate(null);
+
+        // Then
+        assertEquals("custom", template.getImageTag());
+    }
+
+    @Test
+    public void testTemplate_requiresSingleAgent() {
+        // Given
+        command.setTemplate("agent { }\nagent { }");
+
+        // When
+        try {
+            command.getAgentTemplate(null);
+            fail("Template with two agents is expected to be rejected");
+        } catch (MinimesosException e) {
+            // Then
+            assertTrue(e.getMessage().contains("exactly one"));
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.containersol.minimesos.main;
+
+import com.containersol.minimesos.cluster.ClusterRepository;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.MesosClusterFactory;
+import com.containersol.minimesos.cluster.ZooKeeper;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.ConfigParser;
+import com.containersol.minimesos.config.MesosAgentConfig;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class CommandSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ByteArrayOutputStream outputStream;
+
+    private ClusterRepository repository;
+
+    private ZooKeeper zooKeeper;
+
+    private File snapshotDir;
+
+    private CommandSnapshot command;
+
+    @Before
+    public void before() {
+        outputStream = new ByteArrayOutputStream();
+        zooKeeper = mock(ZooKeeper.class);
+        MesosCluster cluster = mock(MesosCluster.class);
+        when(cluster.getClusterId()).thenReturn("123456");
+        when(cluster.getZooKeeper()).thenReturn(zooKeeper);
+
+        snapshotDir = new File(folder.getRoot(), "snapshots/default");
+        repository = mock(ClusterRepository.class);
+        when(repository.loadCluster(any(MesosClusterFactory.class))).thenReturn(cluster);
+        when(repository.getSnapshotDir(CommandSnapshot.DEFAULT_SNAPSHOT_NAME)).thenReturn(snapshotDir);
+
+        command = new CommandSnapshot(new PrintStream(outputStream, true));
+        command.setRepository(repository);
+    }
+
+    @Test
+    public void testExecute_storesAppliedConfig() throws IOException {
+        ClusterConfig applied = new ClusterConfig();
+        applied.getAgents().add(new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION));
+        when(repository.loadAppliedConfig()).thenReturn(applied);
+        command.setClusterConfigPath(new File(folder.getRoot(), "missing").getAbsolutePath());
+
+        command.execute();
+
+        String stored = FileUtils.readFileToString(new File(snapshotDir, ClusterRepository.SNAPSHOT_CONFIG_FILE), "UTF-8");
+        assertEquals(new ConfigParser().toString(applied), stored);
+        verify(zooKeeper).saveData(new File(snapshotDir, ClusterRepository.SNAPSHOT_ZOOKEEPER_FILE));
+        assertTrue(outputStream.toString("UTF-8").contains("Saved snapshot 'default' of cluster 123456"));
+    }
+
+    @Test
+    public void testExecute_fallsBackToConfigFile() throws IOException {
+        File minimesosFile = folder.newFile("minimesosFile");
+        FileUtils.writeStringToFile(minimesosFile, "minimesos { }", "UTF-8");
+        command.setClusterConfigPath(minimesosFile.getAbsolutePath());
+
+        command.execute();
+
+        assertEquals("minimesos { }", FileUtils.readFileToString(new File(snapshotDir, ClusterRepository.SNAPSHOT_CONFIG_FILE), "UTF-8"));
+    }
+
+    @Test
+    public void testExecute_clusterNotRunning() throws IOException {
+        when(repository.loadCluster(any(MesosClusterFactory.class))).thenReturn(null);
+
+        command.execute();
+
+        assertEquals("Minimesos cluster is not running", outputStream.toString("UTF-8").trim());
+        assertFalse(snapshotDir.exists());
+        verify(zooKeeper, never()).saveData(any(File.class));
+    }
+
+}
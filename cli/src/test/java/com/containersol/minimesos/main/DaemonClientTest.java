@@ -0,0 +1,120 @@
+package com.containersol.minimesos.main;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.ClusterRepository;
+import com.containersol.minimesos.cluster.MesosCluster;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.ByteArrayOutputStream;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DaemonClientTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DaemonClient client;
+
+    @Before
+    public void before() {
+        System.setProperty(MesosCluster.MINIMESOS_HOST_DIR_PROPERTY, folder.getRoot().getAbsolutePath());
+        client = new DaemonClient(new ClusterRepository());
+    }
+
+    @After
+    public void after() {
+        System.clearProperty(MesosCluster.MINIMESOS_HOST_DIR_PROPERTY);
+    }
+
+    @Test
+    public void testForward_withoutDaemon() {
+        assertNull(client.forward(new String[]{"ps"}, new PrintStream(new ByteArrayOutputStream())));
+    }
+
+    @Test
+    public void testForward_removesFileOfStoppedDaemon() throws Exception {
+        // Given
+        File daemonFile = client.getDaemonFile();
+        FileUtils.writeStringToFile(daemonFile, "{\"port\": 1, \"token\": \"abc\"}", "UTF-8");
+
+        // When
+        Integer exitCode = client.forward(new String[]{"ps"}, new PrintStream(new ByteArrayOutputStream()));
+
+        // Then
+        assertNull(exitCode);
+        assertFalse(daemonFile.exists());
+    }
+
+    @Test
+    public void testForward_runsCommandInDaemon() throws Exception {
+        // Given
+        ByteArrayOutputStream daemonOutput = new ByteArrayOutputStream();
+        Thread daemon = new Thread(() -> new CommandDaemon(new PrintStream(daemonOutput, true)).execute());
+        daemon.start();
+        waitForDaemon();
+
+        // When
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        Integer exitCode = client.forward(new String[]{"--help"}, new PrintStream(outputStream, true));
+
+        // Then
+        assertEquals(Integer.valueOf(0), exitCode);
+        assertTrue(outputStream.toString("UTF-8").contains("Usage: minimesos"));
+
+        assertTrue(client.stop());
+        daemon.join(5000);
+        assertFalse(daemon.isAlive());
+        assertFalse(client.getDaemonFile().exists());
+    }
+
+    @Test
+    public void testForward_rejectsWrongToken() throws Exception {
+        // Given
+        Thread daemon = new Thread(() -> new CommandDaemon(new PrintStream(new ByteArrayOutputStream(), true)).execute());
+        daemon.start();
+        waitForDaemon();
+        File daemonFile = client.getDaemonFile();
+        String address = FileUtils.readFileToString(daemonFile, "UTF-8");
+        JSONObject json = new JSONObject(address);
+        FileUtils.writeStringToFile(daemonFile, json.put("token", "wrong").toString(), "UTF-8");
+
+        // When
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            client.forward(new String[]{"--help"}, new PrintStream(outputStream, true));
+            fail("Command with a wrong token is expected to be rejected");
+        } catch (MinimesosException e) {
+            // Then
+            assertEquals("", outputStream.toString("UTF-8"));
+        }
+
+        FileUtils.writeStringToFile(daemonFile, address, "UTF-8");
+        assertTrue(client.stop());
+        daemon.join(5000);
+        assertFalse(daemon.isAlive());
+    }
+
+    private void waitForDaemon() throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            if (client.isRunning()) {
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Daemon did not start");
+    }
+
+}
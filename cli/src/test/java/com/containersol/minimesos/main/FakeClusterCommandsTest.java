@@ -0,0 +1,94 @@
+package com.containersol.minimesos.main;
+
+import com.containersol.minimesos.cluster.ClusterRepository;
+import com.containersol.minimesos.cluster.MesosClusterFactory;
+import com.containersol.minimesos.fake.FakeClusterConfig;
+import com.containersol.minimesos.fake.FakeControlPlane;
+import com.containersol.minimesos.fake.FakeMesosClusterFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs commands against a fake cluster with many agents and tasks
+ */
+public class FakeClusterCommandsTest {
+
+    private FakeControlPlane controlPlane;
+
+    private ClusterRepository repository;
+
+    private ByteArrayOutputStream outputStream;
+
+    private PrintStream output;
+
+    @Before
+    public void before() {
+        controlPlane = new FakeControlPlane(new FakeClusterConfig().withAgents(100).withTasks(5000).withApps(10));
+        repository = mock(ClusterRepository.class);
+        when(repository.loadCluster(any(MesosClusterFactory.class))).thenReturn(new FakeMesosClusterFactory(controlPlane).loadCluster());
+        outputStream = new ByteArrayOutputStream();
+        output = new PrintStream(outputStream, true);
+    }
+
+    @After
+    public void after() {
+        controlPlane.close();
+    }
+
+    @Test
+    public void testPs() {
+        CommandPs command = new CommandPs(output);
+        command.setRepository(repository);
+
+        command.execute();
+
+        String[] lines = outputStream.toString().split("\n");
+        assertEquals(5001, lines.length);
+        assertTrue(lines[1].startsWith("marathon"));
+        assertTrue(lines[1].contains("TASK_RUNNING"));
+    }
+
+    @Test
+    public void testPs_skipsCompletedTasks() {
+        FakeControlPlane completed = new FakeControlPlane(new FakeClusterConfig().withAgents(2).withTasks(6).withCompletedTasks(4));
+        try {
+            when(repository.loadCluster(any(MesosClusterFactory.class))).thenReturn(new FakeMesosClusterFactory(completed).loadCluster());
+            CommandPs command = new CommandPs(output);
+            command.setRepository(repository);
+
+            command.execute();
+
+            String[] lines = outputStream.toString().split("\n");
+            assertEquals(7, lines.length);
+            for (int i = 1; i < lines.length; i++) {
+                assertTrue(lines[i], lines[i].contains("TASK_RUNNING"));
+                assertFalse(lines[i], lines[i].startsWith("null"));
+            }
+        } finally {
+            completed.close();
+        }
+    }
+
+    @Test
+    public void testLogs() {
+        CommandLogs command = new CommandLogs(output);
+        command.setRepository(repository);
+        command.taskId = "app3.00004213";
+
+        command.execute();
+
+        assertTrue(outputStream.toString().contains("stdout of task app3.00004213-fake on agent fake-agent-S6"));
+    }
+
+}
@@ -8,10 +8,15 @@ import java.io.IOException;
 import java.io.PrintStream;
 
 import static junit.framework.TestCase.assertFalse;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 public class MainTest {
 
@@ -104,6 +109,35 @@ public class MainTest {
         assertTrue(result.contains("Usage: logs [options]"));
     }
 
+    @Test
+    public void testPs_forwardedToDaemon() {
+        DaemonClient daemonClient = mock(DaemonClient.class);
+        when(daemonClient.forward(any(String[].class), any(PrintStream.class))).thenReturn(0);
+        main.setDaemonClient(daemonClient);
+        CommandPs commandPs = spy(new CommandPs());
+        doNothing().when(commandPs).execute();
+        main.addCommand(commandPs);
+
+        assertEquals(0, main.run(new String[]{"ps"}));
+
+        verify(daemonClient).forward(any(String[].class), any(PrintStream.class));
+        verify(commandPs, never()).execute();
+    }
+
+    @Test
+    public void testPsWatch_runsInProcess() {
+        DaemonClient daemonClient = mock(DaemonClient.class);
+        main.setDaemonClient(daemonClient);
+        CommandPs commandPs = spy(new CommandPs());
+        doNothing().when(commandPs).execute();
+        main.addCommand(commandPs);
+
+        main.run(new String[]{"ps", "--watch"});
+
+        verify(daemonClient, never()).forward(any(String[].class), any(PrintStream.class));
+        verify(commandPs).execute();
+    }
+
     @Test
     public void testUnsupportedCommand() throws IOException {
         main.run(new String[]{"unsupported"});
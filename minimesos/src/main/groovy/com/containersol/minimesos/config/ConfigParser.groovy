@@ -23,10 +23,16 @@ class ConfigParser {
             "cpus"  : "cpu",
             "mems"  : "mem",
             "disks" : "disk",
-            "apps"  : "app"
+            "apps"  : "app",
+            "groups": "group"
     ]
     private final List<String> ignoredProperties = ["class", "format"]
 
+    /**
+     * Properties, which describe what runs on the cluster rather than how a container is configured
+     */
+    private final List<String> workloadProperties = ["apps", "groups"]
+
     private final Map<String, String> comments = [
             "minimesos.marathon.apps": "Add 'app { marathonJson = \"<path or URL to JSON file>\" }' for every task you want to execute",
             "minimesos.marathon.cmd": "BEWARE: this option customize the marathon starting command, changing it can break the cluster"
@@ -62,13 +68,30 @@ class ConfigParser {
         buffer.toString()
     }
 
+    /**
+     * Prints configuration of a single block, e.g. an agent, without Marathon apps and groups. Equal blocks are printed
+     * equally, so the result can be used to detect changes of a cluster member.
+     *
+     * @param block configuration block to print
+     * @return string representation of the block
+     */
+    public String blockToString(Object block) {
+        StringBuilder buffer = new StringBuilder()
+        printProperties(buffer, "", block.properties, "", workloadProperties)
+        buffer.toString()
+    }
+
     private void printProperties(StringBuilder buffer, String intent, Map properties, String dslPath) {
+        printProperties(buffer, intent, properties, dslPath, Collections.emptyList())
+    }
+
+    private void printProperties(StringBuilder buffer, String intent, Map properties, String dslPath, List<String> skippedProperties) {
 
         List<String> propNames = properties.keySet().sort()
         List<String> complexProps = new ArrayList<>()
 
         for (String propName : propNames) {
-            if (!ignoredProperties.contains(propName)) {
+            if (!ignoredProperties.contains(propName) && !skippedProperties.contains(propName)) {
 
                 Object value = properties.get(propName)
                 String strValue = formatSimpleValue(value)
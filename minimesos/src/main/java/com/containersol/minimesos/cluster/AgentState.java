@@ -0,0 +1,27 @@
+package com.containersol.minimesos.cluster;
+
+import com.containersol.minimesos.state.State;
+
+/**
+ * Agent with the state it reported, so the state can be used again without asking the agent a second time
+ */
+public class AgentState {
+
+    private final MesosAgent agent;
+
+    private final State state;
+
+    public AgentState(MesosAgent agent, State state) {
+        this.agent = agent;
+        this.state = state;
+    }
+
+    public MesosAgent getAgent() {
+        return agent;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.containersol.minimesos.cluster;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * ID and hash of the Marathon JSON of an app or group deployed to the running cluster. Stored in <code>.minimesos</code>, so the app
+ * or group can be deleted or updated after its JSON file is edited, moved or deleted.
+ */
+public class AppliedMarathonJson {
+
+    private final String id;
+
+    private final String hash;
+
+    /**
+     * @param id   ID of the deployed app or group or null, if it is not known
+     * @param hash SHA-1 of the deployed JSON
+     */
+    public AppliedMarathonJson(String id, String hash) {
+        this.id = id;
+        this.hash = hash;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public JSONObject toJson() {
+        return new JSONObject()
+            .putOpt("id", id)
+            .put("hash", hash);
+    }
+
+    /**
+     * @param json stored app or group, or only the hash of its JSON, as stored by earlier versions
+     * @return applied JSON
+     * @throws JSONException if the JSON is malformed
+     */
+    public static AppliedMarathonJson fromJson(Object json) {
+        if (json instanceof JSONObject) {
+            JSONObject applied = (JSONObject) json;
+            return new AppliedMarathonJson(applied.optString("id", null), applied.getString("hash"));
+        }
+        if (json instanceof String) {
+            return new AppliedMarathonJson(null, (String) json);
+        }
+        throw new JSONException("Expected applied Marathon JSON, got " + json);
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.containersol.minimesos.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Members of a running cluster with their container IDs and addresses, as they were known when the cluster was started or changed.
+ * Stored in <code>.minimesos</code>, so commands can reach the cluster without asking Docker for its containers.
+ */
+public class ClusterDescriptor {
+
+    /**
+     * Version of the stored format. Descriptors of other versions are ignored.
+     */
+    public static final int VERSION = 1;
+
+    private final String clusterId;
+
+    private final boolean mapPortsToHost;
+
+    private final List<Member> members;
+
+    public ClusterDescriptor(String clusterId, boolean mapPortsToHost, List<Member> members) {
+        this.clusterId = clusterId;
+        this.mapPortsToHost = mapPortsToHost;
+        this.members = Collections.unmodifiableList(new ArrayList<>(members));
+    }
+
+    public String getClusterId() {
+        return clusterId;
+    }
+
+    public boolean isMapPortsToHost() {
+        return mapPortsToHost;
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    public JSONObject toJson() {
+        JSONArray array = new JSONArray();
+        for (Member member : members) {
+            array.put(new JSONObject()
+                .put("role", member.getRole())
+                .put("uuid", member.getUuid())
+                .put("containerId", member.getContainerId())
+                .putOpt("ipAddress", member.getIpAddress())
+                .putOpt("gateway", member.getGateway())
+                .putOpt("configHash", member.getConfigHash()));
+        }
+        return new JSONObject()
+            .put("version", VERSION)
+            .put("clusterId", clusterId)
+            .put("mapPortsToHost", mapPortsToHost)
+            .put("members", array);
+    }
+
+    /**
+     * @param json stored descriptor
+     * @return descriptor or null, if it is stored in another version
+     * @throws JSONException if the descriptor is malformed
+     */
+    public static ClusterDescriptor fromJson(JSONObject json) {
+        if (json.optInt("version") != VERSION) {
+            return null;
+        }
+        List<Member> members = new ArrayList<>();
+        JSONArray array = json.getJSONArray("members");
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject member = array.getJSONObject(i);
+            members.add(new Member(member.getString("role"), member.getString("uuid"), member.getString("containerId"),
+                member.optString("ipAddress", null), member.optString("gateway", null), member.optString("configHash", null)));
+        }
+        return new ClusterDescriptor(json.getString("clusterId"), json.optBoolean("mapPortsToHost"), members);
+    }
+
+    /**
+     * Container of the cluster
+     */
+    public static class Member {
+
+        private final String role;
+
+        private final String uuid;
+
+        private final String containerId;
+
+        private final String ipAddress;
+
+        private final String gateway;
+
+        private final String configHash;
+
+        public Member(String role, String uuid, String containerId, String ipAddress, String gateway, String configHash) {
+            this.role = role;
+            this.uuid = uuid;
+            this.containerId = containerId;
+            this.ipAddress = ipAddress;
+            this.gateway = gateway;
+            this.configHash = configHash;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getUuid() {
+            return uuid;
+        }
+
+        public String getContainerId() {
+            return containerId;
+        }
+
+        public String getIpAddress() {
+            return ipAddress;
+        }
+
+        public String getGateway() {
+            return gateway;
+        }
+
+        public String getConfigHash() {
+            return configHash;
+        }
+    }
+
+}
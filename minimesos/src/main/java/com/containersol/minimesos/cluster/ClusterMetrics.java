@@ -0,0 +1,241 @@
+package com.containersol.minimesos.cluster;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.util.MetricSeries;
+import com.containersol.minimesos.util.ParallelUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Samples <code>/metrics/snapshot</code> of the master and all agents of a cluster and keeps the last samples of every metric.
+ * <p>
+ * Members are sampled concurrently. A member, which cannot be reached, is skipped for that sample. Agents added to the cluster
+ * are picked up with the next sample.
+ */
+public class ClusterMetrics implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterMetrics.class);
+
+    /**
+     * Number of samples kept per metric by default, e.g. 10 minutes when sampling every 2 seconds
+     */
+    public static final int DEFAULT_CAPACITY = 300;
+
+    private final MesosCluster cluster;
+
+    private final int capacity;
+
+    private final Map<String, Member> members = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param cluster  to sample
+     * @param capacity number of samples kept per metric
+     */
+    public ClusterMetrics(MesosCluster cluster, int capacity) {
+        this.cluster = cluster;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Samples the master and all agents once
+     */
+    public void sample() {
+        List<MesosContainer> containers = new ArrayList<>();
+        if (cluster.getMaster() != null) {
+            containers.add(cluster.getMaster());
+        }
+        containers.addAll(cluster.getAgents());
+        if (containers.isEmpty()) {
+            return;
+        }
+        try {
+            ParallelUtil.forEach("sample metrics", containers, containers.size(), container -> {
+                Map<String, Double> metrics = container.getMetrics();
+                long timestamp = System.currentTimeMillis();
+                Member member = members.computeIfAbsent(container.getContainerId(), id -> new Member(container.getRole(), id));
+                metrics.forEach((name, value) -> member.series.computeIfAbsent(name, n -> new MetricSeries(capacity)).add(timestamp, value));
+            });
+        } catch (MinimesosException e) { //NOSONAR
+            // the members, which answered, are sampled; try the others again with the next sample
+            LOGGER.debug("Could not sample metrics of all cluster members", e);
+        }
+    }
+
+    /**
+     * Samples the cluster in a background thread until the metrics are closed
+     *
+     * @param interval between samples
+     * @param unit     of the interval
+     * @return these metrics
+     */
+    public synchronized ClusterMetrics start(long interval, TimeUnit unit) {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(ParallelUtil.daemonThreadFactory("minimesos-metrics"));
+            scheduler.scheduleAtFixedRate(this::sample, 0, interval, unit);
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * @return sampled members, the master first and agents ordered by container ID
+     */
+    public List<Member> getMembers() {
+        List<Member> result = new ArrayList<>(members.values());
+        result.sort((a, b) -> {
+            if (a.isMaster() != b.isMaster()) {
+                return a.isMaster() ? -1 : 1;
+            }
+            return a.getContainerId().compareTo(b.getContainerId());
+        });
+        return result;
+    }
+
+    /**
+     * @return the sampled master or null, if it has not answered yet
+     */
+    public Member getMaster() {
+        for (Member member : members.values()) {
+            if (member.isMaster()) {
+                return member;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes the latest sample of every metric in Prometheus text format. Mesos does not tell counters from gauges, so metrics are
+     * untyped. Names are prefixed with <code>mesos_</code>, e.g. <code>master/tasks_failed</code> becomes
+     * <code>mesos_master_tasks_failed</code>, and labelled with the role and container of the member.
+     *
+     * @return exposition of the metrics
+     */
+    public String toPrometheus() {
+        Map<String, StringBuilder> byName = new TreeMap<>();
+        for (Member member : getMembers()) {
+            for (Map.Entry<String, MetricSeries> entry : new TreeMap<>(member.series).entrySet()) {
+                MetricSeries series = entry.getValue();
+                if (series.size() == 0) {
+                    continue;
+                }
+                String name = toPrometheusName(entry.getKey());
+                StringBuilder lines = byName.computeIfAbsent(name, n -> new StringBuilder("# TYPE ").append(n).append(" untyped\n"));
+                lines.append(name)
+                    .append("{role=\"").append(member.getRole())
+                    .append("\",container=\"").append(member.getContainerId())
+                    .append("\"} ").append(formatValue(series.getLatest()))
+                    .append(' ').append(series.getTimestamp(0)).append('\n');
+            }
+        }
+        StringBuilder exposition = new StringBuilder();
+        byName.values().forEach(exposition::append);
+        return exposition.toString();
+    }
+
+    static String toPrometheusName(String metric) {
+        StringBuilder name = new StringBuilder("mesos_");
+        for (char c : metric.toCharArray()) {
+            boolean valid = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+            name.append(valid ? c : '_');
+        }
+        return name.toString();
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (Double.isInfinite(value)) {
+            return (value > 0) ? "+Inf" : "-Inf";
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    /**
+     * Samples of one master or agent
+     */
+    public static class Member {
+
+        private final String role;
+
+        private final String containerId;
+
+        private final Map<String, MetricSeries> series = new ConcurrentHashMap<>();
+
+        Member(String role, String containerId) {
+            this.role = role;
+            this.containerId = containerId;
+        }
+
+        public String getRole() {
+            return role;
+        }
+
+        public String getContainerId() {
+            return containerId;
+        }
+
+        public boolean isMaster() {
+            return "master".equals(role);
+        }
+
+        /**
+         * @return samples by metric name
+         */
+        public Map<String, MetricSeries> getSeries() {
+            return Collections.unmodifiableMap(series);
+        }
+
+        /**
+         * @param metrics names of gauges
+         * @return sum of the latest values of the metrics or NaN, if any of them is not sampled
+         */
+        public double getLatest(String... metrics) {
+            double sum = 0;
+            for (String metric : metrics) {
+                MetricSeries s = series.get(metric);
+                sum += (s != null) ? s.getLatest() : Double.NaN;
+            }
+            return sum;
+        }
+
+        /**
+         * @param metrics names of counters
+         * @return sum of the changes per second of the metrics between the last two samples or NaN, if any of them is not sampled
+         * twice yet
+         */
+        public double getRate(String... metrics) {
+            double sum = 0;
+            for (String metric : metrics) {
+                MetricSeries s = series.get(metric);
+                sum += (s != null) ? s.getRate() : Double.NaN;
+            }
+            return sum;
+        }
+
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.containersol.minimesos.cluster;
 
 import java.net.URI;
+import java.util.List;
 
 /**
  * Generic functionality of every cluster member
@@ -33,6 +34,21 @@ public interface ClusterProcess {
      */
     String getContainerId();
 
+    /**
+     * @return name of the image the container is created from
+     */
+    String getImageName();
+
+    /**
+     * @return tag of the image the container is created from
+     */
+    String getImageTag();
+
+    /**
+     * Pulls the image of the container, unless it is present already
+     */
+    void pullImage();
+
     /**
      * Starts the container and waits until is started
      *
@@ -43,7 +59,24 @@ public interface ClusterProcess {
     String getRole();
 
     /**
-     * Removes a container with force
+     * @return check of whether the started member is ready to serve its dependents or null, if it is ready as soon as it is started
+     */
+    ReadinessProbe getReadinessProbe();
+
+    /**
+     * @return members of the cluster, which have to be started before this one
+     */
+    List<ClusterProcess> getDependencies();
+
+    /**
+     * @return hash of the configuration the member was created with or null, if it is not known
+     */
+    String getConfigHash();
+
+    /**
+     * Removes a container with force. A container, which is already gone, counts as removed
+     *
+     * @throws com.containersol.minimesos.MinimesosException if the container cannot be removed
      */
     void remove();
 
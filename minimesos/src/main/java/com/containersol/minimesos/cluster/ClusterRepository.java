@@ -1,14 +1,24 @@
 package com.containersol.minimesos.cluster;
 
 import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.ConfigParser;
 import org.apache.commons.io.FileUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Manages persistent information about the minimesos cluster
@@ -19,6 +29,45 @@ public class ClusterRepository {
 
     public static final String MINIMESOS_FILE_PROPERTY = "minimesos.cluster";
 
+    /**
+     * Archive with ZooKeeper data in a snapshot directory
+     */
+    public static final String SNAPSHOT_ZOOKEEPER_FILE = "zookeeper.tar";
+
+    /**
+     * Configuration of the cluster in a snapshot directory
+     */
+    public static final String SNAPSHOT_CONFIG_FILE = "minimesosFile";
+
+    /**
+     * Members of the running cluster, see {@link ClusterDescriptor}
+     */
+    public static final String DESCRIPTOR_FILE = "cluster.json";
+
+    /**
+     * Configuration the running cluster was started or last reconciled with
+     */
+    public static final String APPLIED_CONFIG_FILE = "minimesosFile.applied";
+
+    /**
+     * IDs and hashes of the Marathon JSON of the apps and groups deployed to the running cluster, by location
+     */
+    public static final String APPLIED_MARATHON_FILE = "marathon.applied.json";
+
+    private static final String SNAPSHOT_NAME_PATTERN = "[\\w.-]+";
+
+    private static volatile boolean retainCluster = false;
+
+    /**
+     * Cluster loaded last, if {@link #setRetainCluster(boolean)} is enabled
+     */
+    private static volatile MesosCluster retainedCluster;
+
+    /**
+     * Modification times and sizes of the descriptor and the applied configuration, when the retained cluster was loaded or saved
+     */
+    private static volatile String retainedFingerprint;
+
     /**
      * Loads representation of the running cluster
      *
@@ -26,16 +75,154 @@ public class ClusterRepository {
      */
     public MesosCluster loadCluster(MesosClusterFactory factory) {
         String clusterId = readClusterId();
-        if (clusterId != null) {
+        if (clusterId == null) {
+            return null;
+        }
+        MesosCluster retained = retainedCluster;
+        if (retainCluster && retained != null && clusterId.equals(retained.getClusterId()) && fingerprint().equals(retainedFingerprint)
+            && isRunning(retained, factory)) {
+            return retained;
+        }
+
+        MesosCluster cluster = restoreCluster(clusterId, factory);
+        if (cluster == null) {
             try {
-                return MesosCluster.loadCluster(clusterId, factory);
+                cluster = MesosCluster.loadCluster(clusterId, factory);
             } catch (MinimesosException e) {
                 deleteMinimesosFile();
             }
+            if (cluster != null) {
+                storeDescriptor(cluster, factory);
+            }
         }
+        if (retainCluster) {
+            retainedCluster = cluster;
+            retainedFingerprint = fingerprint();
+        }
+        return cluster;
+    }
+
+    /**
+     * Long running processes keep the loaded cluster, so following calls of {@link #loadCluster(MesosClusterFactory)} reuse its
+     * members with their clients and caches, as long as its containers are running. The cluster is loaded again, when another
+     * process changes the descriptor or the applied configuration, e.g. <code>up --reconcile</code> adds agents.
+     *
+     * @param retain true to keep the loaded cluster in memory
+     */
+    public static void setRetainCluster(boolean retain) {
+        retainCluster = retain;
+        if (!retain) {
+            retainedCluster = null;
+            retainedFingerprint = null;
+        }
+    }
+
+    /**
+     * Restores the cluster from the stored descriptor without inspecting its members. The descriptor is trusted, if exactly the
+     * stored containers of the cluster are running, which takes a single list of containers.
+     *
+     * @return restored cluster or null, if there is no valid descriptor of the cluster
+     */
+    private MesosCluster restoreCluster(String clusterId, MesosClusterFactory factory) {
+        ClusterDescriptor descriptor = readClusterDescriptor();
+        if (descriptor == null || !clusterId.equals(descriptor.getClusterId())) {
+            return null;
+        }
+        try {
+            List<String> containerIds = new ArrayList<>();
+            descriptor.getMembers().forEach(member -> containerIds.add(member.getContainerId()));
+            if (factory.isRunningCluster(clusterId, containerIds)) {
+                return MesosCluster.restoreCluster(descriptor, factory);
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Failed to restore cluster " + clusterId + " from descriptor", e);
+        }
+        LOGGER.debug("Descriptor of cluster " + clusterId + " is outdated, discovering members");
+        FileUtils.deleteQuietly(getDescriptorFile());
         return null;
     }
 
+    private static boolean isRunning(MesosCluster cluster, MesosClusterFactory factory) {
+        List<String> containerIds = new ArrayList<>();
+        cluster.getMemberProcesses().forEach(process -> containerIds.add(process.getContainerId()));
+        try {
+            return factory.isRunningCluster(cluster.getClusterId(), containerIds);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Failed to check containers of cluster " + cluster.getClusterId(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Stores the descriptor of a discovered cluster. Failure only costs the next command another discovery, so the cluster is
+     * still returned.
+     */
+    private void storeDescriptor(MesosCluster cluster, MesosClusterFactory factory) {
+        try {
+            saveClusterDescriptor(cluster, factory);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not store descriptor of cluster " + cluster.getClusterId() + ": " + e.getMessage());
+            LOGGER.debug("Failed to store cluster descriptor", e);
+        }
+    }
+
+    /**
+     * Stores members of the running cluster, so following commands can skip discovery. The file is replaced atomically.
+     *
+     * @param cluster running cluster
+     * @param factory which created the members of the cluster
+     */
+    public void saveClusterDescriptor(MesosCluster cluster, MesosClusterFactory factory) {
+        ClusterDescriptor descriptor = factory.describeRunningCluster(cluster);
+        if (descriptor == null) {
+            return;
+        }
+        File descriptorFile = getDescriptorFile();
+        File tempFile = new File(descriptorFile.getParentFile(), DESCRIPTOR_FILE + ".tmp");
+        try {
+            FileUtils.writeStringToFile(tempFile, descriptor.toJson().toString(2), "UTF-8");
+            try {
+                Files.move(tempFile.toPath(), descriptorFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) { //NOSONAR
+                Files.move(tempFile.toPath(), descriptorFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            LOGGER.debug("Writing descriptor of cluster " + cluster.getClusterId() + " to " + descriptorFile);
+            if (retainCluster && cluster == retainedCluster) {
+                // changed by this process, so the retained cluster is up to date
+                retainedFingerprint = fingerprint();
+            }
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(tempFile);
+            throw new MinimesosException("Could not write cluster descriptor to " + descriptorFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return stored descriptor of the cluster or null, if there is none of the current version
+     */
+    public ClusterDescriptor readClusterDescriptor() {
+        File descriptorFile = getDescriptorFile();
+        if (!descriptorFile.isFile()) {
+            return null;
+        }
+        try {
+            return ClusterDescriptor.fromJson(new JSONObject(FileUtils.readFileToString(descriptorFile, "UTF-8")));
+        } catch (IOException | JSONException e) {
+            LOGGER.debug("Ignoring unreadable cluster descriptor at " + descriptorFile.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    private String fingerprint() {
+        File descriptorFile = getDescriptorFile();
+        File appliedFile = new File(getMinimesosDir(), APPLIED_CONFIG_FILE);
+        return descriptorFile.lastModified() + ":" + descriptorFile.length() + "/" + appliedFile.lastModified() + ":" + appliedFile.length();
+    }
+
+    private File getDescriptorFile() {
+        return new File(getMinimesosDir(), DESCRIPTOR_FILE);
+    }
+
     /**
      * Writes cluster id to file
      *
@@ -55,11 +242,111 @@ public class ClusterRepository {
         }
     }
 
+    /**
+     * Writes timeline of the cluster lifecycle in Chrome trace format
+     *
+     * @param cluster cluster to store timeline of
+     * @return file with the timeline
+     */
+    public File saveTimeline(MesosCluster cluster) {
+        File profileFile = new File(getMinimesosDir(), "profile-" + cluster.getClusterId() + ".json");
+        try {
+            FileUtils.writeStringToFile(profileFile, cluster.getTimeline().toChromeTrace().toString(2), "UTF-8");
+            LOGGER.debug("Writing timeline of cluster " + cluster.getClusterId() + " to " + profileFile);
+        } catch (IOException e) {
+            throw new MinimesosException("Could not write timeline to " + profileFile.getAbsolutePath(), e);
+        }
+        return profileFile;
+    }
+
+    /**
+     * Stores configuration, which is applied to the running cluster, so later changes of the minimesosFile can be reconciled
+     *
+     * @param config applied configuration
+     */
+    public void saveAppliedConfig(ClusterConfig config) {
+        File appliedFile = new File(getMinimesosDir(), APPLIED_CONFIG_FILE);
+        try {
+            FileUtils.writeStringToFile(appliedFile, new ConfigParser().toString(config), "UTF-8");
+            LOGGER.debug("Writing applied configuration to " + appliedFile);
+        } catch (IOException e) {
+            throw new MinimesosException("Could not write applied configuration to " + appliedFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return configuration, which is applied to the running cluster, or null if it is not known
+     */
+    public ClusterConfig loadAppliedConfig() {
+        File appliedFile = new File(getMinimesosDir(), APPLIED_CONFIG_FILE);
+        if (!appliedFile.exists()) {
+            return null;
+        }
+        try {
+            return new ConfigParser().parse(FileUtils.readFileToString(appliedFile, "UTF-8"));
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable applied configuration at " + appliedFile.getAbsolutePath() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Stores IDs and hashes of the Marathon JSON deployed to the running cluster, so later changes of the files can be reconciled
+     *
+     * @param applied IDs and hashes of the JSON by its location
+     */
+    public void saveAppliedMarathonJson(Map<String, AppliedMarathonJson> applied) {
+        File appliedFile = new File(getMinimesosDir(), APPLIED_MARATHON_FILE);
+        JSONObject json = new JSONObject();
+        applied.forEach((location, app) -> json.put(location, app.toJson()));
+        try {
+            FileUtils.writeStringToFile(appliedFile, json.toString(2), "UTF-8");
+            LOGGER.debug("Writing applied Marathon JSON to " + appliedFile);
+        } catch (IOException e) {
+            throw new MinimesosException("Could not write applied Marathon JSON to " + appliedFile.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * @return IDs and hashes of the Marathon JSON deployed to the running cluster by its location, empty if they are not known
+     */
+    public Map<String, AppliedMarathonJson> loadAppliedMarathonJson() {
+        Map<String, AppliedMarathonJson> applied = new HashMap<>();
+        File appliedFile = new File(getMinimesosDir(), APPLIED_MARATHON_FILE);
+        if (!appliedFile.exists()) {
+            return applied;
+        }
+        try {
+            JSONObject json = new JSONObject(FileUtils.readFileToString(appliedFile, "UTF-8"));
+            for (Object location : json.keySet()) {
+                applied.put(location.toString(), AppliedMarathonJson.fromJson(json.get(location.toString())));
+            }
+        } catch (IOException | JSONException e) {
+            LOGGER.warn("Ignoring unreadable applied Marathon JSON at " + appliedFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+        return applied;
+    }
+
+    /**
+     * @param name of the snapshot
+     * @return directory, possibly non-existing, where snapshot with given name is stored
+     */
+    public File getSnapshotDir(String name) {
+        if (name == null || !name.matches(SNAPSHOT_NAME_PATTERN)) {
+            throw new MinimesosException("Invalid snapshot name '" + name + "'. Use letters, digits, '.', '-' and '_'");
+        }
+        return new File(new File(getMinimesosDir(), "snapshots"), name);
+    }
+
     /**
      * Deletes cluster file
      */
     public void deleteClusterFile() {
+        retainedCluster = null;
         deleteMinimesosFile();
+        FileUtils.deleteQuietly(getDescriptorFile());
+        FileUtils.deleteQuietly(new File(getMinimesosDir(), APPLIED_CONFIG_FILE));
+        FileUtils.deleteQuietly(new File(getMinimesosDir(), APPLIED_MARATHON_FILE));
     }
 
     public String readClusterId() {
@@ -33,6 +33,11 @@ public interface Marathon extends ClusterProcess {
      */
     void killAllApps();
 
+    /**
+     * Delete all application groups together with their apps
+     */
+    void killAllGroups();
+
     void setZooKeeper(ZooKeeper zookeeper);
 
     /**
@@ -49,6 +54,13 @@ public interface Marathon extends ClusterProcess {
      */
     void deployGroup(String groupJson);
 
+    /**
+     * Replaces a Marathon application group with the given definition, deploying it if it does not exist yet
+     *
+     * @param groupJson JSON string with Marathon application group definition
+     */
+    void updateGroup(String groupJson);
+
     /**
      * Deploy a Marathon application group.
      *
@@ -9,22 +9,27 @@ import java.io.PrintStream;
 import java.net.URI;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import com.containersol.minimesos.MinimesosException;
 import com.containersol.minimesos.config.ClusterConfig;
 import com.containersol.minimesos.state.State;
+import com.containersol.minimesos.state.Task;
 import com.containersol.minimesos.util.Environment;
+import com.containersol.minimesos.util.HttpTransport;
+import com.containersol.minimesos.util.ParallelUtil;
 import com.containersol.minimesos.util.Predicate;
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
 import com.github.dockerjava.api.exception.InternalServerErrorException;
 import com.github.dockerjava.api.exception.NotFoundException;
-import com.mashape.unirest.http.exceptions.UnirestException;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang.StringUtils;
@@ -47,6 +52,8 @@ public class MesosCluster {
 
     public static final String TOKEN_NETWORK_GATEWAY = MINIMESOS_TOKEN_PREFIX + "NETWORK_GATEWAY";
 
+    public static final int DEFAULT_PARALLELISM = 8;
+
     private String clusterId;
 
     private final ClusterConfig clusterConfig;
@@ -57,6 +64,16 @@ public class MesosCluster {
 
     private boolean running = false;
 
+    private boolean destroyed = false;
+
+    private int parallelism = DEFAULT_PARALLELISM;
+
+    private final Set<String> prefetchedImages = ConcurrentHashMap.newKeySet();
+
+    private Timeline timeline = Timeline.DISABLED;
+
+    private HttpTransport httpTransport;
+
     /**
      * Create a new MesosCluster with a specified cluster architecture.
      */
@@ -76,15 +93,26 @@ public class MesosCluster {
      * @param clusterId the cluster ID of the cluster that is already running
      */
     public static MesosCluster loadCluster(String clusterId, MesosClusterFactory factory) {
-        return new MesosCluster(clusterId, factory);
+        return new MesosCluster(clusterId, factory, null);
+    }
+
+    /**
+     * Recreate a MesosCluster object from stored members of a running cluster without discovering them, unless the factory
+     * cannot restore members from a descriptor
+     *
+     * @param descriptor stored members of the cluster
+     */
+    public static MesosCluster restoreCluster(ClusterDescriptor descriptor, MesosClusterFactory factory) {
+        return new MesosCluster(descriptor.getClusterId(), factory, descriptor);
     }
 
     /**
      * This constructor is used for deserialization of running cluster
      *
-     * @param clusterId ID of the cluster to deserialize
+     * @param clusterId  ID of the cluster to deserialize
+     * @param descriptor stored members of the cluster or null to discover them
      */
-    private MesosCluster(String clusterId, MesosClusterFactory factory) {
+    private MesosCluster(String clusterId, MesosClusterFactory factory, ClusterDescriptor descriptor) {
         this.clusterId = clusterId;
         this.clusterConfig = new ClusterConfig();
 
@@ -93,7 +121,9 @@ public class MesosCluster {
             setMapPortsToHost(true);
         }
 
-        factory.loadRunningCluster(this);
+        if (descriptor == null || !factory.restoreRunningCluster(this, descriptor)) {
+            factory.loadRunningCluster(this);
+        }
 
         if (memberProcesses.isEmpty()) {
             throw new MinimesosException("No containers found for cluster ID " + clusterId);
@@ -123,7 +153,8 @@ public class MesosCluster {
     }
 
     /**
-     * Starts the Mesos cluster and its containers with given timeout.
+     * Starts the Mesos cluster and its containers with given timeout. Containers, which do not depend on each other, are started
+     * concurrently. The timeout applies to the startup of all containers together.
      *
      * @param timeoutSeconds seconds to wait until timeout
      */
@@ -138,18 +169,53 @@ public class MesosCluster {
         }
 
         LOGGER.debug("Cluster " + getClusterId() + " - start");
-        this.memberProcesses.forEach((container) -> container.start(timeoutSeconds));
+        try (Timeline.Span ignored = timeline.begin(Timeline.CLUSTER, "image-prefetch")) {
+            prefetchImages(memberProcesses);
+        }
+        try (Timeline.Span ignored = timeline.begin(Timeline.CLUSTER, "members-start")) {
+            new StartupOrchestrator(parallelism, timeline).start(new ArrayList<>(memberProcesses), timeoutSeconds);
+        }
         // wait until the given number of agents are registered
-        getMaster().waitFor();
+        try (Timeline.Span ignored = timeline.begin(Timeline.CLUSTER, "agents-registered")) {
+            getMaster().waitFor();
+        }
 
         Marathon marathon = getMarathon();
         if (marathon != null) {
-            marathon.installMarathonApps();
+            try (Timeline.Span ignored = timeline.begin(Timeline.memberOf(marathon), "marathon-install")) {
+                marathon.installMarathonApps();
+            }
         }
 
         running = true;
     }
 
+    /**
+     * Pulls missing images of the given members concurrently, so that containers are not held back by pulls of each other.
+     * Every distinct image is checked once, even when it is shared by several members, and not again when members start.
+     */
+    private void prefetchImages(Collection<ClusterProcess> processes) {
+        Map<String, ClusterProcess> images = new LinkedHashMap<>();
+        for (ClusterProcess process : new ArrayList<>(processes)) {
+            String image = process.getImageName() + ":" + process.getImageTag();
+            if (!prefetchedImages.contains(image)) {
+                images.putIfAbsent(image, process);
+            }
+        }
+        LOGGER.debug("Cluster " + getClusterId() + " - checking images " + images.keySet());
+        ParallelUtil.forEach("pull images", images.entrySet(), parallelism, image -> {
+            image.getValue().pullImage();
+            prefetchedImages.add(image.getKey());
+        });
+    }
+
+    /**
+     * @return whether the prefetch stage of this cluster checked or pulled the image already
+     */
+    public boolean isImagePrefetched(String imageName, String imageTag) {
+        return prefetchedImages.contains(imageName + ":" + imageTag);
+    }
+
     /**
      * Prints the state of the Mesos master or agent
      */
@@ -163,7 +229,9 @@ public class MesosCluster {
     }
 
     /**
-     * Destroys the Mesos cluster and its containers
+     * Destroys the Mesos cluster and its containers. Containers are removed concurrently.
+     *
+     * @throws MinimesosException after the cluster is cleaned up, if some of its members could not be removed
      */
     public void destroy(MesosClusterFactory factory) {
         LOGGER.debug("Cluster " + getClusterId() + " - destroy");
@@ -173,19 +241,23 @@ public class MesosCluster {
             marathon.killAllApps();
         }
 
-        if (memberProcesses.size() > 0) {
-            for (int i = memberProcesses.size() - 1; i >= 0; i--) {
-                ClusterProcess container = memberProcesses.get(i);
+        MinimesosException removalFailure = null;
+        try {
+            ParallelUtil.forEach("remove cluster members", new ArrayList<>(memberProcesses), parallelism, container -> {
                 LOGGER.debug("Removing container [" + container.getContainerId() + "]");
                 try {
                     container.remove();
                 } catch (NotFoundException e) {
                     LOGGER.error(String.format("Cannot remove container %s, maybe it's already dead?", container.getContainerId()));
                 }
-            }
+            });
+        } catch (MinimesosException e) {
+            // remaining containers of the cluster are removed by the factory below, the failure is reported afterwards
+            removalFailure = e;
         }
         this.running = false;
         this.memberProcesses.clear();
+        closeHttpTransport();
 
         if (clusterId != null) {
             factory.destroyRunningCluster(clusterId);
@@ -207,6 +279,11 @@ public class MesosCluster {
         repository.deleteClusterFile();
 
         this.running = false;
+        this.destroyed = true;
+
+        if (removalFailure != null) {
+            throw removalFailure;
+        }
     }
 
     /**
@@ -233,6 +310,41 @@ public class MesosCluster {
         return process.getContainerId();
     }
 
+    /**
+     * Adds members to the running cluster and starts them concurrently in the order of their dependencies
+     *
+     * @param processes members to add
+     * @param timeout   in seconds for all members together
+     */
+    public void addAndStartProcesses(List<ClusterProcess> processes, int timeout) {
+        for (ClusterProcess process : processes) {
+            process.setCluster(this);
+            memberProcesses.add(process);
+        }
+        try (Timeline.Span ignored = timeline.begin(Timeline.CLUSTER, "image-prefetch")) {
+            prefetchImages(processes);
+        }
+        try (Timeline.Span ignored = timeline.begin(Timeline.CLUSTER, "members-add")) {
+            new StartupOrchestrator(parallelism, timeline).start(new ArrayList<>(processes), timeout);
+        }
+    }
+
+    /**
+     * Removes members from the running cluster concurrently
+     *
+     * @param processes members to remove
+     */
+    public void removeProcesses(List<ClusterProcess> processes) {
+        try {
+            ParallelUtil.forEach("remove cluster members", processes, parallelism, process -> {
+                LOGGER.debug("Removing container [" + process.getContainerId() + "]");
+                process.remove();
+            });
+        } finally {
+            memberProcesses.removeAll(processes);
+        }
+    }
+
     /**
      * Starts a container. This container will be removed when the Mesos cluster is shut down.
      * The method is used by frameworks
@@ -250,11 +362,7 @@ public class MesosCluster {
      * @return stage JSON 
      */
     public JSONObject getClusterStateInfo() {
-        try {
-            return getMaster().getStateInfoJSON();
-        } catch (UnirestException e) {
-            throw new MinimesosException("Failed to retrieve state from Mesos Master", e);
-        }
+        return getMaster().getStateInfoJSON();
     }
 
     /**
@@ -275,11 +383,7 @@ public class MesosCluster {
             }
         }
 
-        try {
-            return (theAgent != null) ? theAgent.getStateInfoJSON() : null;
-        } catch (UnirestException e) {
-            throw new MinimesosException("Failed to retrieve state from Mesos Agent container " + theAgent.getContainerId(), e);
-        }
+        return (theAgent != null) ? theAgent.getStateInfoJSON() : null;
     }
 
     public List<ClusterProcess> getMemberProcesses() {
@@ -290,6 +394,20 @@ public class MesosCluster {
         return memberProcesses.stream().filter(Filter.mesosAgent()).map(c -> (MesosAgent) c).collect(Collectors.toList());
     }
 
+    /**
+     * Asks all agents for their state concurrently and returns the first agent, which state matches. The requests to the other agents
+     * are aborted then
+     *
+     * @param predicate to test agent states with
+     * @param timeoutMs time to wait for the matching agent
+     * @return matching agent with its state or null, if no agent matches
+     */
+    public AgentState findAgentState(Predicate<State> predicate, long timeoutMs) {
+        List<MesosAgent> agents = getAgents();
+        return ParallelUtil.findFirstAsync("query state of agents", agents, timeoutMs,
+            agent -> agent.getStateAsync().thenApply(state -> new AgentState(agent, state)), agentState -> predicate.test(agentState.getState()));
+    }
+
     public MesosMaster getMaster() {
         Optional<MesosMaster> master = getOne(Filter.mesosMaster());
         return master.isPresent() ? master.get() : null;
@@ -344,16 +462,85 @@ public class MesosCluster {
         clusterConfig.setMapPortsToHost(mapPortsToHost);
     }
 
+    /**
+     * @return true if the cluster is started or loaded from a running one
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @return true if the cluster is destroyed, after which it cannot be started again
+     */
+    public boolean isDestroyed() {
+        return destroyed;
+    }
+
+    /**
+     * @return durations of the lifecycle phases of the cluster and its members, recorded only when profiling is enabled
+     */
+    public Timeline getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Starts to record durations of the lifecycle phases, e.g. for 'up --profile'. Clusters do not record them by default, as
+     * spans of long running processes would pile up.
+     */
+    public void enableProfiling() {
+        if (timeline == Timeline.DISABLED) {
+            timeline = new Timeline();
+        }
+    }
+
+    /**
+     * @return HTTP transport shared by all members for requests to their endpoints, created on first use
+     */
+    public synchronized HttpTransport getHttpTransport() {
+        if (httpTransport == null) {
+            httpTransport = new HttpTransport();
+        }
+        return httpTransport;
+    }
+
+    private synchronized void closeHttpTransport() {
+        if (httpTransport != null) {
+            httpTransport.close();
+            httpTransport = null;
+        }
+    }
+
+    /**
+     * @return maximum number of cluster members, which are started or removed concurrently
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     public void waitForState(final Predicate<State> predicate) {
         await("Mesos master startup" + clusterConfig.getTimeout()).atMost(clusterConfig.getTimeout(), TimeUnit.SECONDS).until(() -> {
             try {
-                assertTrue(predicate.test(State.fromJSON(getMaster().getStateInfoJSON().toString())));
-            } catch (InternalServerErrorException | JsonParseException | UnirestException | JsonMappingException e) { //NOSONAR
+                assertTrue(predicate.test(getMaster().getState()));
+            } catch (InternalServerErrorException | MinimesosException e) { //NOSONAR
                 throw new AssertionError("Mesos master did not start after " + clusterConfig.getTimeout(), e);
             }
         });
     }
 
+    /**
+     * Waits until a task of the cluster matches, e.g. until a task of a deployed app is running
+     *
+     * @param predicate to test tasks with
+     * @return first matching task
+     */
+    public Task waitForTask(Predicate<Task> predicate) {
+        return getMaster().waitForTask(predicate, clusterConfig.getTimeout());
+    }
+
     /**
      * Returns the directory on the host from which the cluster was created.
      *
@@ -434,7 +621,7 @@ public class MesosCluster {
      * @return Mesos version of running cluster
      */
     public String getMesosVersion() {
-        return getMaster().getState().getVersion();
+        return getMaster().getVersion();
     }
 
     /**
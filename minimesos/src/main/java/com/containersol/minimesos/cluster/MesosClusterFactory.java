@@ -1,5 +1,7 @@
 package com.containersol.minimesos.cluster;
 
+import java.util.Collection;
+
 /**
  * Interface for creating members of the cluster and destroying running cluster
  */
@@ -19,4 +21,34 @@ public abstract class MesosClusterFactory {
      */
     public abstract void destroyRunningCluster(String clusterId);
 
+    /**
+     * Fills given cluster with members of a stored descriptor, without discovering them
+     *
+     * @param cluster    to load with members
+     * @param descriptor stored members of the cluster
+     * @return false, if the factory cannot restore members from a descriptor
+     */
+    public boolean restoreRunningCluster(MesosCluster cluster, ClusterDescriptor descriptor) {
+        return false;
+    }
+
+    /**
+     * Checks stored members of a cluster without inspecting them one by one
+     *
+     * @param clusterId    ID of the cluster
+     * @param containerIds IDs of the stored member containers
+     * @return true, if exactly these containers of the cluster are running. False, if the factory cannot tell
+     */
+    public boolean isRunningCluster(String clusterId, Collection<String> containerIds) {
+        return false;
+    }
+
+    /**
+     * @param cluster running cluster
+     * @return descriptor of the cluster members or null, if the factory cannot describe members
+     */
+    public ClusterDescriptor describeRunningCluster(MesosCluster cluster) {
+        return null;
+    }
+
 }
@@ -1,9 +1,11 @@
 package com.containersol.minimesos.cluster;
 
 import com.containersol.minimesos.state.State;
-import com.mashape.unirest.http.exceptions.UnirestException;
 import org.json.JSONObject;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Functionality of Mesos Cluster core members
  */
@@ -11,7 +13,7 @@ public interface MesosContainer extends ClusterProcess {
 
     void setZooKeeper(ZooKeeper zookeeper);
 
-    JSONObject getStateInfoJSON() throws UnirestException;
+    JSONObject getStateInfoJSON();
 
     /**
      * Retrieve state of the Master or Agent.
@@ -20,4 +22,18 @@ public interface MesosContainer extends ClusterProcess {
      */
     State getState();
 
+    /**
+     * Retrieve state of the Master or Agent without blocking the caller. Cancelling the future aborts the request.
+     *
+     * @return future of the state, which completes exceptionally if the state cannot be retrieved
+     */
+    CompletableFuture<State> getStateAsync();
+
+    /**
+     * Retrieve current values of counters and gauges of the Master or Agent from <code>/metrics/snapshot</code>
+     *
+     * @return values by metric name, e.g. <code>master/tasks_failed</code>
+     */
+    Map<String, Double> getMetrics();
+
 }
@@ -1,5 +1,15 @@
 package com.containersol.minimesos.cluster;
 
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.containersol.minimesos.state.Agent;
+import com.containersol.minimesos.state.Framework;
+import com.containersol.minimesos.state.StateSummary;
+import com.containersol.minimesos.state.Task;
+import com.containersol.minimesos.util.Predicate;
+
 /**
  * Functionality of Mesos Master
  */
@@ -9,4 +19,57 @@ public interface MesosMaster extends MesosContainer {
 
     void waitFor();
 
+    /**
+     * @return version of Mesos, from <code>/version</code>
+     */
+    String getVersion();
+
+    /**
+     * @return agents registered with the master, from <code>/master/slaves</code>
+     */
+    List<Agent> getRegisteredAgents();
+
+    /**
+     * @return frameworks with their tasks, from <code>/master/frameworks</code>
+     */
+    List<Framework> getFrameworks();
+
+    /**
+     * @return frameworks and agents without tasks, from <code>/state-summary</code>
+     */
+    StateSummary getStateSummary();
+
+    /**
+     * Retrieves tasks from <code>/master/tasks</code> page by page, so only one page is held in memory. Completed tasks and tasks of
+     * completed frameworks are included, see {@link com.containersol.minimesos.state.Task#isTerminal()}
+     *
+     * @param pageSize number of tasks requested at once
+     * @param action   to call for every task
+     * @return number of tasks
+     */
+    int forEachTask(int pageSize, Consumer<Task> action);
+
+    /**
+     * Waits until a task matches. The master reports changes of tasks as they happen, so the wait ends without polling the state.
+     *
+     * @param predicate      to test tasks with
+     * @param timeoutSeconds seconds to wait
+     * @return first matching task
+     */
+    Task waitForTask(Predicate<Task> predicate, int timeoutSeconds);
+
+    /**
+     * Tears down all frameworks except the ones with given names, so their tasks are killed and resources are freed
+     *
+     * @param keptFrameworks names of the frameworks to keep, e.g. Marathon
+     */
+    void teardownFrameworks(Set<String> keptFrameworks);
+
+    /**
+     * Waits until no resources are used on any of the agents
+     *
+     * @param timeoutSeconds seconds to wait
+     */
+    void waitForIdleAgents(int timeoutSeconds);
+
 }
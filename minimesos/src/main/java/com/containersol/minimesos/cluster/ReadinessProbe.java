@@ -0,0 +1,14 @@
+package com.containersol.minimesos.cluster;
+
+/**
+ * Cheap, protocol specific check of whether a started cluster member is able to serve its dependents
+ */
+@FunctionalInterface
+public interface ReadinessProbe {
+
+    /**
+     * @return true if the member is ready. Failures to reach the member mean it is not ready yet
+     */
+    boolean isReady();
+
+}
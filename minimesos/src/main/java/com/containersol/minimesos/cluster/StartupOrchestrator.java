@@ -0,0 +1,188 @@
+package com.containersol.minimesos.cluster;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.util.ExponentialBackoff;
+import com.containersol.minimesos.util.ParallelUtil;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts members of the cluster in the order of their dependencies, as they are reported by {@link ClusterProcess#getDependencies()}.
+ * Members, which do not depend on each other, are started concurrently by a bounded pool of workers. A member counts as started,
+ * when its {@link ReadinessProbe} passes. All members have to start before a single cluster-wide deadline.
+ */
+public class StartupOrchestrator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StartupOrchestrator.class);
+
+    private final int parallelism;
+
+    private final Timeline timeline;
+
+    /**
+     * @param parallelism maximum number of members, which are started at the same time
+     */
+    public StartupOrchestrator(int parallelism) {
+        this(parallelism, Timeline.DISABLED);
+    }
+
+    /**
+     * @param parallelism maximum number of members, which are started at the same time
+     * @param timeline    to record readiness of the members in
+     */
+    public StartupOrchestrator(int parallelism, Timeline timeline) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive, got " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.timeline = timeline;
+    }
+
+    /**
+     * Starts given processes and waits until all of them are started.
+     *
+     * @param processes      to start
+     * @param timeoutSeconds seconds to wait until all processes are started
+     * @throws MinimesosException if a process fails to start, the deadline is exceeded or dependencies are cyclic
+     */
+    public void start(List<ClusterProcess> processes, int timeoutSeconds) {
+        if (processes.isEmpty()) {
+            return;
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+
+        // container objects are compared by identity, as their equality depends on container ID, which is assigned on start
+        Set<ClusterProcess> members = identitySet();
+        members.addAll(processes);
+
+        Map<ClusterProcess, Set<ClusterProcess>> waitingFor = new IdentityHashMap<>();
+        Map<ClusterProcess, List<ClusterProcess>> dependents = new IdentityHashMap<>();
+        for (ClusterProcess process : processes) {
+            Set<ClusterProcess> dependencies = identitySet();
+            List<ClusterProcess> declared = process.getDependencies();
+            if (declared != null) {
+                for (ClusterProcess dependency : declared) {
+                    // dependencies outside of the given list are either started already or not managed by this run
+                    if (dependency != process && members.contains(dependency)) {
+                        dependencies.add(dependency);
+                        dependents.computeIfAbsent(dependency, d -> new ArrayList<>()).add(process);
+                    }
+                }
+            }
+            waitingFor.put(process, dependencies);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, processes.size()), ParallelUtil.daemonThreadFactory("minimesos-startup"));
+        CompletionService<ClusterProcess> completion = new ExecutorCompletionService<>(executor);
+
+        try {
+            int running = 0;
+            int started = 0;
+
+            for (ClusterProcess process : processes) {
+                if (waitingFor.get(process).isEmpty()) {
+                    submit(completion, process, deadline);
+                    running++;
+                }
+            }
+
+            while (running > 0) {
+                Future<ClusterProcess> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new MinimesosException("Cluster did not start within " + timeoutSeconds + " seconds");
+                }
+                running--;
+
+                ClusterProcess process = getStarted(done);
+                started++;
+
+                for (ClusterProcess dependent : dependents.getOrDefault(process, Collections.emptyList())) {
+                    Set<ClusterProcess> dependencies = waitingFor.get(dependent);
+                    dependencies.remove(process);
+                    if (dependencies.isEmpty()) {
+                        submit(completion, dependent, deadline);
+                        running++;
+                    }
+                }
+            }
+
+            if (started < processes.size()) {
+                List<String> blocked = new ArrayList<>();
+                for (ClusterProcess process : processes) {
+                    if (!waitingFor.get(process).isEmpty()) {
+                        blocked.add(process.getRole());
+                    }
+                }
+                throw new MinimesosException("Cannot start cluster members with cyclic dependencies: " + blocked);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinimesosException("Interrupted while starting the cluster", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void submit(CompletionService<ClusterProcess> completion, ClusterProcess process, long deadline) {
+        completion.submit(() -> {
+            LOGGER.debug("Starting " + process.getRole() + " " + process);
+            process.start(remainingSeconds(deadline));
+            awaitReady(process, deadline);
+            return process;
+        });
+    }
+
+    private void awaitReady(ClusterProcess process, long deadline) throws InterruptedException {
+        ReadinessProbe probe = process.getReadinessProbe();
+        if (probe == null) {
+            return;
+        }
+        LOGGER.debug("Waiting for " + process.getRole() + " to become ready");
+        try (Timeline.Span ignored = timeline.begin(Timeline.memberOf(process), "readiness")) {
+            if (!new ExponentialBackoff().await(probe::isReady, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new MinimesosException("Cluster member " + process.getRole() + " did not become ready in time");
+            }
+        }
+    }
+
+    private static ClusterProcess getStarted(Future<ClusterProcess> done) throws InterruptedException {
+        try {
+            return done.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof MinimesosException) {
+                throw (MinimesosException) cause;
+            }
+            throw new MinimesosException("Failed to start cluster member: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * @return whole seconds left until the deadline, at least one
+     */
+    private static int remainingSeconds(long deadline) {
+        long remaining = TimeUnit.NANOSECONDS.toSeconds(deadline - System.nanoTime());
+        return (int) Math.max(1, remaining);
+    }
+
+    private static Set<ClusterProcess> identitySet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+}
@@ -0,0 +1,157 @@
+package com.containersol.minimesos.cluster;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+/**
+ * Records how long phases of the cluster lifecycle take for every member. Spans are recorded with {@link System#nanoTime()}
+ * relative to creation of the timeline and can be exported in the Chrome trace event format (chrome://tracing).
+ */
+public class Timeline {
+
+    /**
+     * Name of the member for phases of the whole cluster
+     */
+    public static final String CLUSTER = "cluster";
+
+    /**
+     * Timeline, which does not record anything. Used by clusters, which are not profiled, and members, which do not belong to a cluster.
+     */
+    public static final Timeline DISABLED = new Timeline(false);
+
+    private final long origin = System.nanoTime();
+
+    private final List<Span> spans = new ArrayList<>();
+
+    private final boolean enabled;
+
+    public Timeline() {
+        this(true);
+    }
+
+    private Timeline(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param process cluster member
+     * @return short name of the member, which is unique within the cluster
+     */
+    public static String memberOf(ClusterProcess process) {
+        String name = process.getName();
+        if (name == null || name.lastIndexOf('-') < 0) {
+            return process.getRole();
+        }
+        return process.getRole() + "-" + name.substring(name.lastIndexOf('-') + 1);
+    }
+
+    /**
+     * Starts a span, which ends when it is closed. Use it with try-with-resources.
+     *
+     * @param member name of the cluster member or "cluster" for phases of the whole cluster
+     * @param phase  name of the phase, e.g. "pull" or "readiness"
+     * @return started span
+     */
+    public Span begin(String member, String phase) {
+        return new Span(member, phase, System.nanoTime() - origin);
+    }
+
+    /**
+     * @return copy of all closed spans in the order they were closed
+     */
+    public synchronized List<Span> getSpans() {
+        return new ArrayList<>(spans);
+    }
+
+    private synchronized void add(Span span) {
+        if (enabled) {
+            spans.add(span);
+        }
+    }
+
+    /**
+     * Every member gets its own row in the trace viewer
+     *
+     * @return timeline in Chrome trace event format
+     */
+    public JSONObject toChromeTrace() {
+        Map<String, Integer> rows = new LinkedHashMap<>();
+        JSONArray events = new JSONArray();
+        for (Span span : getSpans()) {
+            Integer row = rows.get(span.getMember());
+            if (row == null) {
+                row = rows.size() + 1;
+                rows.put(span.getMember(), row);
+                events.put(new JSONObject()
+                    .put("name", "thread_name")
+                    .put("ph", "M")
+                    .put("pid", 1)
+                    .put("tid", row)
+                    .put("args", new JSONObject().put("name", span.getMember())));
+            }
+            events.put(new JSONObject()
+                .put("name", span.getPhase())
+                .put("cat", span.getMember())
+                .put("ph", "X")
+                .put("pid", 1)
+                .put("tid", row)
+                .put("ts", TimeUnit.NANOSECONDS.toMicros(span.getStartNanos()))
+                .put("dur", TimeUnit.NANOSECONDS.toMicros(span.getDurationNanos())));
+        }
+        return new JSONObject().put("traceEvents", events).put("displayTimeUnit", "ms");
+    }
+
+    /**
+     * Phase of a cluster member. Closing the span records it in the timeline.
+     */
+    public final class Span implements AutoCloseable {
+
+        private final String member;
+
+        private final String phase;
+
+        private final long startNanos;
+
+        private long durationNanos = -1;
+
+        private Span(String member, String phase, long startNanos) {
+            this.member = member;
+            this.phase = phase;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (durationNanos < 0) {
+                durationNanos = System.nanoTime() - origin - startNanos;
+                add(this);
+            }
+        }
+
+        public String getMember() {
+            return member;
+        }
+
+        public String getPhase() {
+            return phase;
+        }
+
+        /**
+         * @return start of the span relative to creation of the timeline
+         */
+        public long getStartNanos() {
+            return startNanos;
+        }
+
+        public long getDurationNanos() {
+            return durationNanos;
+        }
+    }
+
+}
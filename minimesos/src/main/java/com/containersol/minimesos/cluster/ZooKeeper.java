@@ -1,5 +1,7 @@
 package com.containersol.minimesos.cluster;
 
+import java.io.File;
+
 /**
  * Expected from ZooKeeper functionality
  */
@@ -10,4 +12,18 @@ public interface ZooKeeper extends ClusterProcess {
      */
     String getFormattedZKAddress();
 
+    /**
+     * Saves data directory of the running ZooKeeper, which includes Marathon state, as tar archive
+     *
+     * @param archive file to write
+     */
+    void saveData(File archive);
+
+    /**
+     * Sets archive, written by {@link #saveData(File)}, to restore data directory from when ZooKeeper is started
+     *
+     * @param archive file to read or null to start with empty data directory
+     */
+    void setInitialData(File archive);
+
 }
@@ -0,0 +1,25 @@
+package com.containersol.minimesos.docker;
+
+/**
+ * Network details of a container, which do not change while it runs
+ */
+public class ContainerMetadata {
+
+    private final String ipAddress;
+
+    private final String gateway;
+
+    public ContainerMetadata(String ipAddress, String gateway) {
+        this.ipAddress = ipAddress;
+        this.gateway = gateway;
+    }
+
+    public String getIpAddress() {
+        return ipAddress;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.containersol.minimesos.docker;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.containersol.minimesos.MinimesosException;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.ContainerNetwork;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Metadata of containers by container ID, so that commands and token substitution do not inspect a container again for every role.
+ * <p>
+ * Entries are filled in one pass from a container list or on demand by inspecting a container. Concurrent lookups of the same
+ * container share a single inspection. Entries are dropped on Docker <code>die</code>, <code>destroy</code> and network events, so
+ * inspected entries are only kept while the events stream is open. Lookups do not open the stream themselves, as a single CLI command
+ * would pay for the subscription without reusing the entries; long running processes open it with {@link DockerEvents#subscribe()}.
+ * Entries from a container list are kept without the stream, as the list is as fresh as an inspection and every later list replaces
+ * them, so a command, which discovers the cluster, does not inspect its members again.
+ */
+public class ContainerMetadataCache {
+
+    private static final String DEFAULT_NETWORK = "bridge";
+
+    private static final Map<String, CompletableFuture<ContainerMetadata>> CACHE = new ConcurrentHashMap<>();
+
+    private ContainerMetadataCache() {
+        // do not allow creation of instances
+    }
+
+    /**
+     * @param containerId ID of the container
+     * @return cached metadata or metadata from inspection of the container
+     */
+    public static ContainerMetadata get(String containerId) {
+        return get(containerId, ContainerMetadataCache::inspect, DockerEvents.isSubscribed());
+    }
+
+    /**
+     * @param containerId ID of the container
+     * @param loader      to inspect the container, if it is not cached
+     * @param keep        whether to cache the result or only share it with concurrent lookups
+     * @return metadata of the container
+     */
+    static ContainerMetadata get(String containerId, Function<String, ContainerMetadata> loader, boolean keep) {
+        CompletableFuture<ContainerMetadata> created = new CompletableFuture<>();
+        CompletableFuture<ContainerMetadata> existing = CACHE.putIfAbsent(containerId, created);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            ContainerMetadata metadata = loader.apply(containerId);
+            created.complete(metadata);
+            return metadata;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            if (!keep || created.isCompletedExceptionally()) {
+                CACHE.remove(containerId, created);
+            }
+        }
+    }
+
+    /**
+     * Fills the cache from network settings in a container list, which saves inspecting the containers one by one
+     *
+     * @param containers listed containers
+     */
+    public static void prime(Collection<Container> containers) {
+        for (Container container : containers) {
+            ContainerNetwork network = (container.getNetworkSettings() != null) ? getNetwork(container.getNetworkSettings().getNetworks()) : null;
+            if (network != null && StringUtils.isNotEmpty(network.getIpAddress())) {
+                put(container.getId(), new ContainerMetadata(network.getIpAddress(), network.getGateway()));
+            } else {
+                // e.g. cached before the container was disconnected
+                invalidate(container.getId());
+            }
+        }
+    }
+
+    /**
+     * Caches known metadata of a container, e.g. restored from a stored cluster descriptor
+     *
+     * @param containerId ID of the container
+     * @param metadata    of the container
+     */
+    public static void put(String containerId, ContainerMetadata metadata) {
+        CACHE.put(containerId, CompletableFuture.completedFuture(metadata));
+    }
+
+    /**
+     * Drops cached metadata of the container
+     *
+     * @param containerId ID of the container
+     */
+    public static void invalidate(String containerId) {
+        CACHE.remove(containerId);
+    }
+
+    /**
+     * Drops all cached metadata
+     */
+    static void invalidateAll() {
+        CACHE.clear();
+    }
+
+    private static ContainerMetadata await(CompletableFuture<ContainerMetadata> pending) {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MinimesosException("Failed to inspect container", e.getCause());
+        }
+    }
+
+    /**
+     * @param networks the container is connected to, may be null
+     * @return the default bridge network or, if the container is not connected to it, any other network
+     */
+    private static ContainerNetwork getNetwork(Map<String, ContainerNetwork> networks) {
+        if (networks == null) {
+            return null;
+        }
+        ContainerNetwork network = networks.get(DEFAULT_NETWORK);
+        if (network == null && !networks.isEmpty()) {
+            network = networks.values().iterator().next();
+        }
+        return network;
+    }
+
+    private static ContainerMetadata inspect(String containerId) {
+        InspectContainerResponse response = DockerClientFactory.build().inspectContainerCmd(containerId).exec();
+        ContainerNetwork network = (response.getNetworkSettings() != null) ? getNetwork(response.getNetworkSettings().getNetworks()) : null;
+        if (network == null) {
+            // container is not connected, e.g. it has stopped
+            return new ContainerMetadata("", "");
+        }
+        return new ContainerMetadata(network.getIpAddress(), network.getGateway());
+    }
+
+}
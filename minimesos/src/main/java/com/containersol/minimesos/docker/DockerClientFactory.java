@@ -4,29 +4,137 @@ import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.core.DefaultDockerClientConfig;
 import com.github.dockerjava.core.DockerClientBuilder;
 import com.github.dockerjava.core.DockerClientConfig;
+import com.github.dockerjava.core.RemoteApiVersion;
+import com.github.dockerjava.jaxrs.JerseyDockerCmdExecFactory;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Factory for creating {@link DockerClient}s
+ * Factory for creating {@link DockerClient}s. All callers share a single client, which is created on first use.
+ * <p>
+ * The client uses a pool of connections, so that cluster members can be created, started and removed concurrently, and talks to the
+ * daemon in the newest API version both the daemon and docker-java support. Both can be overridden with system properties.
  */
 public class DockerClientFactory {
 
-    private static DockerClient dockerClient;
+    private static final Logger LOGGER = LoggerFactory.getLogger(DockerClientFactory.class);
 
-    public static DockerClient build() {
-        if (dockerClient == null) {
-            DefaultDockerClientConfig.Builder builder = new DefaultDockerClientConfig.Builder();
-            builder = builder.withApiVersion("1.12");
+    /**
+     * Docker daemon to connect to. Defaults to DOCKER_HOST environment variable or the local unix socket
+     */
+    public static final String DOCKER_HOST_PROPERTY = "minimesos.docker.host";
+
+    /**
+     * Docker API version to use instead of negotiating it with the daemon, e.g. <code>1.24</code>
+     */
+    public static final String API_VERSION_PROPERTY = "minimesos.docker.apiVersion";
+
+    /**
+     * Maximum number of concurrent connections to the daemon
+     */
+    public static final String MAX_CONNECTIONS_PROPERTY = "minimesos.docker.maxConnections";
+
+    /**
+     * Enough for parallel operations on cluster members next to long running event and log streams
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = 32;
+
+    private static final String DEFAULT_DOCKER_HOST = "unix:///var/run/docker.sock";
+
+    /**
+     * Version used when the daemon cannot be asked for its version
+     */
+    static final RemoteApiVersion FALLBACK_API_VERSION = RemoteApiVersion.parseConfig("1.12");
+
+    /**
+     * Newest version the bundled docker-java understands
+     */
+    static final RemoteApiVersion MAX_API_VERSION = RemoteApiVersion.VERSION_1_24;
+
+    private static volatile DockerClient dockerClient;
 
-            String dockerHostEnv = System.getenv("DOCKER_HOST");
-            if (StringUtils.isBlank(dockerHostEnv)) {
-                builder.withDockerHost("unix:///var/run/docker.sock");
+    private DockerClientFactory() {
+        // do not allow creation of instances
+    }
+
+    public static DockerClient build() {
+        DockerClient client = dockerClient;
+        if (client == null) {
+            synchronized (DockerClientFactory.class) {
+                client = dockerClient;
+                if (client == null) {
+                    client = create();
+                    dockerClient = client;
+                }
             }
+        }
+        return client;
+    }
 
-            DockerClientConfig config = builder.build();
-            dockerClient = DockerClientBuilder.getInstance(config).build();
+    /**
+     * Closes the shared client and the events subscription, so the next client connects with the current system properties,
+     * e.g. to another daemon
+     */
+    public static void reset() {
+        synchronized (DockerClientFactory.class) {
+            DockerEvents.close();
+            DockerClient client = dockerClient;
+            dockerClient = null;
+            IOUtils.closeQuietly(client);
         }
-        return dockerClient;
+    }
+
+    private static DockerClient create() {
+        String apiVersion = System.getProperty(API_VERSION_PROPERTY);
+        RemoteApiVersion version = StringUtils.isNotBlank(apiVersion) ? RemoteApiVersion.parseConfig(apiVersion) : negotiateApiVersion();
+
+        int maxConnections = Integer.getInteger(MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS);
+        LOGGER.debug("Connecting to Docker with API version " + version + " and up to " + maxConnections + " connections");
+
+        JerseyDockerCmdExecFactory execFactory = new JerseyDockerCmdExecFactory()
+            .withMaxTotalConnections(maxConnections)
+            .withMaxPerRouteConnections(maxConnections);
+
+        return DockerClientBuilder.getInstance(config(version)).withDockerCmdExecFactory(execFactory).build();
+    }
+
+    /**
+     * Asks the daemon for its API version with an unversioned request, which every daemon understands
+     */
+    private static RemoteApiVersion negotiateApiVersion() {
+        try (DockerClient probe = DockerClientBuilder.getInstance(config(RemoteApiVersion.unknown())).build()) {
+            return negotiate(probe.versionCmd().exec().getApiVersion());
+        } catch (Exception e) {
+            LOGGER.debug("Failed to negotiate Docker API version, using " + FALLBACK_API_VERSION, e);
+            return FALLBACK_API_VERSION;
+        }
+    }
+
+    /**
+     * @param daemonApiVersion API version reported by the daemon
+     * @return newest version supported by both the daemon and docker-java
+     */
+    static RemoteApiVersion negotiate(String daemonApiVersion) {
+        RemoteApiVersion daemonVersion = RemoteApiVersion.parseConfigWithDefault(daemonApiVersion);
+        if (!daemonVersion.isGreaterOrEqual(FALLBACK_API_VERSION)) {
+            return FALLBACK_API_VERSION;
+        }
+        return daemonVersion.isGreaterOrEqual(MAX_API_VERSION) ? MAX_API_VERSION : daemonVersion;
+    }
+
+    private static DockerClientConfig config(RemoteApiVersion version) {
+        DefaultDockerClientConfig.Builder builder = new DefaultDockerClientConfig.Builder().withApiVersion(version);
+
+        String dockerHost = System.getProperty(DOCKER_HOST_PROPERTY);
+        if (StringUtils.isNotBlank(dockerHost)) {
+            builder.withDockerHost(dockerHost);
+        } else if (StringUtils.isBlank(System.getenv("DOCKER_HOST"))) {
+            builder.withDockerHost(DEFAULT_DOCKER_HOST);
+        }
+
+        return builder.build();
     }
 
 }
@@ -3,34 +3,50 @@ package com.containersol.minimesos.docker;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
 
 import com.containersol.minimesos.MinimesosException;
-import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.containersol.minimesos.util.ParallelUtil;
 import com.github.dockerjava.api.command.LogContainerCmd;
 import com.github.dockerjava.api.exception.DockerException;
+import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.Container;
 import com.github.dockerjava.api.model.Frame;
 import com.github.dockerjava.api.model.PullResponseItem;
+import com.github.dockerjava.api.model.ResponseItem;
 import com.github.dockerjava.core.command.LogContainerResultCallback;
 import com.github.dockerjava.core.command.PullImageResultCallback;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Immutable utility class, which represents set of docker containers with filters and operations on this list
  */
 public class DockerContainersUtil {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(DockerContainersUtil.class);
+
     private final List<Container> containers;
 
     private DockerContainersUtil(List<Container> containers) {
         this.containers = containers;
     }
 
+    /**
+     * @param containers already listed docker containers
+     * @return set of the docker containers
+     */
+    public static DockerContainersUtil of(List<Container> containers) {
+        return new DockerContainersUtil(new ArrayList<>(containers));
+    }
+
     /**
      * Use this getter if you need to iterate over docker objects
      *
@@ -49,6 +65,24 @@ public class DockerContainersUtil {
         return new DockerContainersUtil(newContainers);
     }
 
+    /**
+     * Lists containers with given labels. Docker filters the containers, so unrelated containers on the host are not transferred.
+     *
+     * @param showAll should the list include stopped containers
+     * @param labels  labels and their values every container must have
+     * @return set of docker containers
+     */
+    public static DockerContainersUtil getContainers(boolean showAll, Map<String, String> labels) {
+        List<Container> newContainers = new ArrayList<>();
+        for (Container container : DockerClientFactory.build().listContainersCmd().withShowAll(showAll).withLabelFilter(labels).exec()) {
+            // daemons, which are older than label filters, return all containers
+            if (container.getLabels() != null && container.getLabels().entrySet().containsAll(labels.entrySet())) {
+                newContainers.add(container);
+            }
+        }
+        return new DockerContainersUtil(newContainers);
+    }
+
     public int size() {
         return (containers != null) ? containers.size() : 0;
     }
@@ -64,12 +98,13 @@ public class DockerContainersUtil {
             return this;
         }
 
+        Pattern compiled = Pattern.compile(pattern);
         List<Container> matched = new ArrayList<>();
         for (Container container : containers) {
             String[] names = container.getNames();
             for (String name : names) {
                 // all names start with '/'
-                if (name.substring(1).matches(pattern)) {
+                if (compiled.matcher(name.substring(1)).matches()) {
                     matched.add(container);
                 }
             }
@@ -89,9 +124,10 @@ public class DockerContainersUtil {
             return this;
         }
 
+        Pattern compiled = Pattern.compile(pattern);
         List<Container> matched = new ArrayList<>();
         for (Container container : containers) {
-            if (container.getImage().matches(pattern)) {
+            if (compiled.matcher(container.getImage()).matches()) {
                 matched.add(container);
             }
         }
@@ -110,6 +146,32 @@ public class DockerContainersUtil {
         }
     }
 
+    /**
+     * Removes all containers in the util object concurrently. Removal is forced, so running containers are killed first.
+     * Containers, which are already gone, are skipped. Failure to remove one container does not stop removal of the others.
+     *
+     * @param parallelism maximum number of containers removed at the same time
+     * @throws MinimesosException with all failures, if any of the containers could not be removed
+     */
+    public void remove(int parallelism) {
+        if (containers != null) {
+            ParallelUtil.forEach("remove containers", containers, parallelism, container -> removeContainer(container.getId()));
+        }
+    }
+
+    /**
+     * Removes container with force, ignoring containers, which are already gone
+     *
+     * @param containerId ID of the container to remove
+     */
+    public static void removeContainer(String containerId) {
+        try {
+            DockerClientFactory.build().removeContainerCmd(containerId).withForce(true).withRemoveVolumes(true).exec();
+        } catch (NotFoundException ignored) { //NOSONAR
+            // container is already removed
+        }
+    }
+
     /**
      * Removes all containers in the util object
      */
@@ -143,6 +205,7 @@ public class DockerContainersUtil {
     public Set<String> getIpAddresses() {
         Set<String> ips = new HashSet<>();
         if (containers != null) {
+            ContainerMetadataCache.prime(containers);
             for (Container container : containers) {
                 ips.add(getIpAddress(container.getId()));
             }
@@ -155,8 +218,7 @@ public class DockerContainersUtil {
      * @return IP Address of the container
      */
     public static String getIpAddress(String containerId) {
-        InspectContainerResponse response = DockerClientFactory.build().inspectContainerCmd(containerId).exec();
-        return response.getNetworkSettings().getIpAddress();
+        return ContainerMetadataCache.get(containerId).getIpAddress();
     }
 
     /**
@@ -186,18 +248,97 @@ public class DockerContainersUtil {
     }
 
     /**
-     * Pulls a Docker image with given name and version. Throws exception when it times out after given timeout.
+     * Pulls a Docker image with given name and version. Progress of the pull is logged in downloaded bytes.
+     * Throws exception when the pull makes no progress for given timeout, so large images keep downloading as long as data arrives.
      *
      * @param imageName    image to pull
      * @param imageVersion image version to pull
-     * @param timeoutSecs  pulling timeout in seconds
+     * @param timeoutSecs  seconds without progress after which the pull is aborted
      */
     public static void pullImage(String imageName, String imageVersion, long timeoutSecs) {
+        String image = imageName + ":" + imageVersion;
+        PullProgressCallback callback = new PullProgressCallback(image);
+        boolean stalled = false;
         try {
-            final CompletableFuture<Void> result = new CompletableFuture<>();
-            DockerClientFactory.build().pullImageCmd(imageName).withTag(imageVersion).exec(new PullImageResultCallback()).awaitCompletion();
-        } catch (InterruptedException | RuntimeException e) {
-            throw new MinimesosException("Error pulling image or image not found in registry: " + imageName + ":" + imageVersion, e);
+            DockerClientFactory.build().pullImageCmd(imageName).withTag(imageVersion).exec(callback);
+            while (!callback.awaitCompletion(1, TimeUnit.SECONDS)) {
+                if (callback.getIdleMillis() > TimeUnit.SECONDS.toMillis(timeoutSecs)) {
+                    stalled = true;
+                    break;
+                }
+            }
+            if (!stalled) {
+                callback.awaitSuccess();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinimesosException("Interrupted while pulling image " + image, e);
+        } catch (RuntimeException e) {
+            throw new MinimesosException("Error pulling image or image not found in registry: " + image, e);
+        } finally {
+            IOUtils.closeQuietly(callback);
+        }
+
+        if (stalled) {
+            throw new MinimesosException("Pulling of " + image + " made no progress for " + timeoutSecs + " seconds");
+        }
+        LOGGER.info("Pulled image " + image + " (" + FileUtils.byteCountToDisplaySize(callback.getDownloadedBytes()) + ")");
+    }
+
+    /**
+     * Tracks downloaded bytes per layer of the image and the time of the last progress report from Docker
+     */
+    private static class PullProgressCallback extends PullImageResultCallback {
+
+        private static final long REPORT_INTERVAL_MILLIS = 5000;
+
+        private final String image;
+
+        private final Map<String, Long> downloaded = new ConcurrentHashMap<>();
+
+        private final Map<String, Long> sizes = new ConcurrentHashMap<>();
+
+        private volatile long lastProgress = System.currentTimeMillis();
+
+        private long lastReport = System.currentTimeMillis();
+
+        PullProgressCallback(String image) {
+            this.image = image;
+        }
+
+        @Override
+        public void onNext(PullResponseItem item) {
+            super.onNext(item);
+            lastProgress = System.currentTimeMillis();
+
+            String layer = item.getId();
+            ResponseItem.ProgressDetail detail = item.getProgressDetail();
+            if (layer != null && "Downloading".equals(item.getStatus()) && detail != null && detail.getCurrent() != null) {
+                downloaded.put(layer, detail.getCurrent());
+                if (detail.getTotal() != null) {
+                    sizes.put(layer, detail.getTotal());
+                }
+            } else if (layer != null && "Download complete".equals(item.getStatus()) && sizes.containsKey(layer)) {
+                downloaded.put(layer, sizes.get(layer));
+            }
+
+            if (lastProgress - lastReport > REPORT_INTERVAL_MILLIS) {
+                lastReport = lastProgress;
+                LOGGER.info(String.format("Pulling image %s: %s of %s", image,
+                        FileUtils.byteCountToDisplaySize(getDownloadedBytes()), FileUtils.byteCountToDisplaySize(sum(sizes))));
+            }
+        }
+
+        long getIdleMillis() {
+            return System.currentTimeMillis() - lastProgress;
+        }
+
+        long getDownloadedBytes() {
+            return sum(downloaded);
+        }
+
+        private static long sum(Map<String, Long> bytes) {
+            return bytes.values().stream().mapToLong(Long::longValue).sum();
         }
     }
 
@@ -205,8 +346,7 @@ public class DockerContainersUtil {
      * @return IP Address of the container's gateway (which would be docker0)
      */
     public static String getGatewayIpAddress(String containerId) {
-        InspectContainerResponse response = DockerClientFactory.build().inspectContainerCmd(containerId).exec();
-        return response.getNetworkSettings().getGateway();
+        return ContainerMetadataCache.get(containerId).getGateway();
     }
 
     /**
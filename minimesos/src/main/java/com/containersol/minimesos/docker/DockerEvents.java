@@ -0,0 +1,170 @@
+package com.containersol.minimesos.docker;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.github.dockerjava.api.command.EventsCmd;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventType;
+import com.github.dockerjava.core.command.EventsResultCallback;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shared subscription to the Docker events stream. Lets callers wait for a container to start without listing all containers and
+ * drops metadata of containers, which die or change networks, from {@link ContainerMetadataCache}.
+ * The subscription is opened by waits for a container and by long running processes, and reopened after it fails, so callers
+ * should keep polling as a fallback.
+ */
+public class DockerEvents {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DockerEvents.class);
+
+    public static final String STATUS_START = "start";
+
+    public static final String STATUS_DIE = "die";
+
+    public static final String STATUS_DESTROY = "destroy";
+
+    private static final String ACTION_CONNECT = "connect";
+
+    private static final String ACTION_DISCONNECT = "disconnect";
+
+    private static final String ATTRIBUTE_CONTAINER = "container";
+
+    private static final Map<String, CompletableFuture<String>> PENDING = new ConcurrentHashMap<>();
+
+    private static EventsResultCallback subscription;
+
+    private DockerEvents() {
+        // do not allow creation of instances
+    }
+
+    /**
+     * Returns future, which completes with the status of the first <code>start</code> or <code>die</code> event of the container.
+     * Call it before the container is started, so the event is not missed. Call {@link #forget(String)} when done waiting.
+     *
+     * @param containerId ID of the container to wait for
+     * @return future with the status of the event
+     */
+    public static CompletableFuture<String> startedOrDied(String containerId) {
+        subscribe();
+        return register(containerId);
+    }
+
+    /**
+     * Stops tracking events of the container
+     *
+     * @param containerId ID of the container
+     */
+    public static void forget(String containerId) {
+        PENDING.remove(containerId);
+    }
+
+    static CompletableFuture<String> register(String containerId) {
+        return PENDING.computeIfAbsent(containerId, id -> new CompletableFuture<>());
+    }
+
+    static void onEvent(Event event) {
+        String status = event.getAction() != null ? event.getAction() : event.getStatus();
+        if (EventType.NETWORK.equals(event.getType())) {
+            // connect and disconnect events name the container in the attributes
+            if (event.getActor() != null && event.getActor().getAttributes() != null && event.getActor().getAttributes().get(ATTRIBUTE_CONTAINER) != null) {
+                ContainerMetadataCache.invalidate(event.getActor().getAttributes().get(ATTRIBUTE_CONTAINER));
+            }
+            return;
+        }
+        String containerId = event.getActor() != null && event.getActor().getId() != null ? event.getActor().getId() : event.getId();
+        if (containerId == null) {
+            return;
+        }
+        if (STATUS_DIE.equals(status) || STATUS_DESTROY.equals(status)) {
+            ContainerMetadataCache.invalidate(containerId);
+        }
+        if (!STATUS_START.equals(status) && !STATUS_DIE.equals(status)) {
+            return;
+        }
+        CompletableFuture<String> pending = PENDING.remove(containerId);
+        if (pending != null) {
+            pending.complete(status);
+        }
+    }
+
+    /**
+     * Opens the subscription, unless it is open already. Long running processes, e.g. the daemon, subscribe once, so that
+     * {@link ContainerMetadataCache} keeps metadata of containers between commands.
+     * <p>
+     * The stream connects in the background. It replays events since the subscription was requested, so events of containers
+     * started before it is connected are not missed.
+     *
+     * @return whether the subscription is open
+     */
+    public static synchronized boolean subscribe() {
+        if (subscription != null) {
+            return true;
+        }
+        try {
+            String since = Long.toString(TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()));
+            EventsCmd command = DockerClientFactory.build().eventsCmd()
+                .withSince(since)
+                .withEventFilter(STATUS_START, STATUS_DIE, STATUS_DESTROY, ACTION_CONNECT, ACTION_DISCONNECT);
+            // EventsCmd of docker-java has no type filter, e.g. volumes are destroyed too
+            command.getFilters().put("type", Arrays.asList(EventType.CONTAINER.getValue(), EventType.NETWORK.getValue()));
+            subscription = command.exec(new EventsResultCallback() {
+                @Override
+                public void onNext(Event event) {
+                    onEvent(event);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    LOGGER.debug("Docker events stream failed, falling back to polling", throwable);
+                    unsubscribe(this);
+                }
+
+                @Override
+                public void onComplete() {
+                    unsubscribe(this);
+                }
+            });
+        } catch (RuntimeException e) {
+            LOGGER.debug("Cannot subscribe to Docker events, falling back to polling", e);
+        }
+        return subscription != null;
+    }
+
+    /**
+     * @return whether the subscription is open, so cached metadata is invalidated when containers change
+     */
+    static synchronized boolean isSubscribed() {
+        return subscription != null;
+    }
+
+    /**
+     * Closes the subscription. Pending waits are left to their polling fallback.
+     */
+    static synchronized void close() {
+        if (subscription != null) {
+            unsubscribe(subscription);
+        }
+    }
+
+    private static synchronized void unsubscribe(EventsResultCallback callback) {
+        if (subscription == callback) {
+            subscription = null;
+            // events might have been missed
+            ContainerMetadataCache.invalidateAll();
+        }
+        try {
+            callback.close();
+        } catch (IOException | RuntimeException e) {
+            // e.g. ProcessingException of Jersey, when the daemon is gone already
+            LOGGER.debug("Could not close Docker events stream", e);
+        }
+    }
+
+}
@@ -1,28 +1,41 @@
 package com.containersol.minimesos.integrationtest.container;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import com.containersol.minimesos.MinimesosException;
 import com.containersol.minimesos.cluster.ClusterProcess;
 import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.ReadinessProbe;
+import com.containersol.minimesos.cluster.Timeline;
+import com.containersol.minimesos.config.ConfigParser;
 import com.containersol.minimesos.config.ContainerConfig;
 import com.containersol.minimesos.docker.DockerClientFactory;
 import com.containersol.minimesos.docker.DockerContainersUtil;
+import com.containersol.minimesos.docker.DockerEvents;
+import com.containersol.minimesos.util.HashUtil;
+import com.containersol.minimesos.util.HttpTransport;
 import com.github.dockerjava.api.command.CreateContainerCmd;
-import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.command.InspectContainerResponse;
+import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.Image;
-import com.jayway.awaitility.core.ConditionTimeoutException;
 
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.HttpGet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import static com.jayway.awaitility.Awaitility.await;
-
 /**
  * Extend this class to start and manage your own containers
  */
@@ -30,13 +43,37 @@ public abstract class AbstractContainer implements ClusterProcess {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractContainer.class);
 
-    private static final int IMAGE_PULL_TIMEOUT_SECS = 30;
+    /**
+     * Seconds a pull may go without progress before it is aborted
+     */
+    public static final int IMAGE_PULL_TIMEOUT_SECS = 30;
+
+    /**
+     * Label with ID of the cluster the container belongs to
+     */
+    public static final String LABEL_CLUSTER_ID = "minimesos.cluster";
+
+    /**
+     * Label with role of the container in the cluster
+     */
+    public static final String LABEL_ROLE = "minimesos.role";
+
+    /**
+     * Label with UUID of the container within the cluster
+     */
+    public static final String LABEL_UUID = "minimesos.uuid";
+
+    /**
+     * Label with hash of the configuration the container was created with
+     */
+    public static final String LABEL_CONFIG_HASH = "minimesos.config.hash";
 
     private MesosCluster cluster;
     private final ContainerConfig config;
     private final String uuid;
     private String containerId;
     private String ipAddress = null;
+    private String configHash = null;
 
     protected AbstractContainer(ContainerConfig config) {
         this.config = config;
@@ -89,27 +126,30 @@ public abstract class AbstractContainer implements ClusterProcess {
             return;
         }
 
-        pullImage();
+        if (cluster == null || !cluster.isImagePrefetched(getImageName(), getImageTag())) {
+            pullImage();
+        }
 
         CreateContainerCmd createCommand = dockerCommand();
-        LOGGER.debug("Creating container [" + createCommand.getName() + "]");
-        containerId = createCommand.exec().getId();
+        createCommand.withLabels(getLabels(createCommand.getLabels()));
 
-        DockerClientFactory.build().startContainerCmd(containerId).exec();
-
-        try {
+        LOGGER.debug("Creating container [" + createCommand.getName() + "]");
+        try (Timeline.Span ignored = getTimeline().begin(Timeline.memberOf(this), "create")) {
+            containerId = createCommand.exec().getId();
+            beforeStart();
+        }
 
-            await("Container did not start within " + timeout + " seconds").atMost(timeout, TimeUnit.SECONDS).pollDelay(1, TimeUnit.SECONDS).until(() -> {
-                List<Container> containers = DockerClientFactory.build().listContainersCmd().withShowAll(true).exec();
-                for (Container container : containers) {
-                    if (container.getId().equals(containerId)) {
-                        return true;
-                    }
-                }
-                return false;
-            });
+        // subscribe before starting, the stream replays events since then, so the start event is not missed even when it connects late
+        CompletableFuture<String> started = DockerEvents.startedOrDied(containerId);
+        String status;
+        try (Timeline.Span ignored = getTimeline().begin(Timeline.memberOf(this), "start")) {
+            DockerClientFactory.build().startContainerCmd(containerId).exec();
+            status = awaitStarted(started, timeout);
+        } finally {
+            DockerEvents.forget(containerId);
+        }
 
-        } catch (ConditionTimeoutException cte) {
+        if (status == null) {
             String errorMessage = String.format("Container [%s] did not start within %d seconds.", createCommand.getName(), timeout);
             LOGGER.error(errorMessage);
             try {
@@ -122,9 +162,153 @@ public abstract class AbstractContainer implements ClusterProcess {
             throw new MinimesosException(errorMessage + " See container logs above");
         }
 
+        if (DockerEvents.STATUS_DIE.equals(status)) {
+            LOGGER.warn(String.format("Container %s exited right after start", containerId));
+        }
+
         LOGGER.debug(String.format("Container %s is up and running", containerId));
     }
 
+    /**
+     * Labels identify the container, so a running cluster can be found without matching names of all containers on the host
+     *
+     * @param commandLabels labels set by the derived class or null
+     * @return labels to create the container with
+     */
+    private Map<String, String> getLabels(Map<String, String> commandLabels) {
+        Map<String, String> labels = new HashMap<>();
+        if (commandLabels != null) {
+            labels.putAll(commandLabels);
+        }
+        if (getClusterId() != null) {
+            labels.put(LABEL_CLUSTER_ID, getClusterId());
+        }
+        labels.put(LABEL_ROLE, getRole());
+        labels.put(LABEL_UUID, uuid);
+        if (getConfigHash() != null) {
+            labels.put(LABEL_CONFIG_HASH, getConfigHash());
+        }
+        return labels;
+    }
+
+    /**
+     * Enables derived classes to prepare the created container, e.g. copy files into it, before it is started
+     */
+    protected void beforeStart() {
+        // nothing to prepare by default
+    }
+
+    /**
+     * Waits for the start or die event of the container. Checks the container directly every second in case the event is missed.
+     *
+     * @param started future completed by the Docker events stream
+     * @param timeout in seconds
+     * @return status of the container or null, if it did not start in time
+     */
+    private String awaitStarted(CompletableFuture<String> started, int timeout) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        while (System.nanoTime() < deadline) {
+            try {
+                return started.get(Math.min(1000, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                String status = getStartedStatus();
+                if (status != null) {
+                    return status;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MinimesosException("Interrupted while waiting for container " + containerId + " to start", e);
+            } catch (ExecutionException e) {
+                throw new MinimesosException("Failed to wait for container " + containerId + " to start", e.getCause());
+            }
+        }
+        return null;
+    }
+
+    private String getStartedStatus() {
+        try {
+            InspectContainerResponse.ContainerState state = DockerClientFactory.build().inspectContainerCmd(containerId).exec().getState();
+            if (Boolean.TRUE.equals(state.getRunning())) {
+                return DockerEvents.STATUS_START;
+            }
+            if ("exited".equals(state.getStatus()) || "dead".equals(state.getStatus())) {
+                return DockerEvents.STATUS_DIE;
+            }
+        } catch (NotFoundException e) {
+            LOGGER.debug("Container " + containerId + " is not found yet");
+        }
+        return null;
+    }
+
+    /**
+     * Enables derived classes to provide a check of their service
+     *
+     * @return null, meaning the container is ready as soon as it is started
+     */
+    @Override
+    public ReadinessProbe getReadinessProbe() {
+        return null;
+    }
+
+    /**
+     * Helper for HTTP readiness probes
+     *
+     * @param url to request
+     * @return true if the URL responds with status 200
+     */
+    protected boolean respondsWithOk(String url) {
+        try {
+            return getHttpTransport().execute(new HttpGet(url), response -> response.getStatusLine().getStatusCode()) == HttpStatus.SC_OK;
+        } catch (IOException e) { //NOSONAR
+            // service is not listening yet
+            return false;
+        }
+    }
+
+    /**
+     * @return HTTP transport of the cluster or the shared one, if the container does not belong to a cluster
+     */
+    protected HttpTransport getHttpTransport() {
+        MesosCluster cluster = getCluster();
+        return (cluster != null) ? cluster.getHttpTransport() : HttpTransport.getDefault();
+    }
+
+    /**
+     * Enables derived classes to declare containers they are wired to
+     *
+     * @return members of the cluster, which have to be started before this container
+     */
+    @Override
+    public List<ClusterProcess> getDependencies() {
+        return Collections.emptyList();
+    }
+
+    /**
+     * @return hash of the label of a running container or, for a new container, of its configuration
+     */
+    @Override
+    public String getConfigHash() {
+        if (configHash == null && containerId == null && config != null) {
+            configHash = hashOf(config);
+        }
+        return configHash;
+    }
+
+    /**
+     * @param configHash hash read from the label of a running container
+     */
+    public void setConfigHash(String configHash) {
+        this.configHash = configHash;
+    }
+
+    /**
+     * @param config configuration of a container
+     * @return hash, which changes when any container setting changes
+     */
+    public static String hashOf(ContainerConfig config) {
+        return HashUtil.sha1(new ConfigParser().blockToString(config));
+    }
+
     /**
      * @return the ID of the container.
      */
@@ -212,20 +396,18 @@ public abstract class AbstractContainer implements ClusterProcess {
      */
     @Override
     public void remove() {
+        if (containerId == null) {
+            return;
+        }
         try {
-            if (DockerContainersUtil.getContainer(containerId) != null) {
-                DockerClientFactory.build().removeContainerCmd(containerId).withForce(true).withRemoveVolumes(true).exec();
-            }
-        } catch (Exception e) {
-            LOGGER.error("Could not remove container " + dockerCommand().getName(), e);
+            DockerContainersUtil.removeContainer(containerId);
+        } catch (RuntimeException e) {
+            throw new MinimesosException("Could not remove container " + getName() + " (" + containerId + ")", e);
         }
     }
 
     protected Boolean imageExists(String imageName, String registryTag) {
         List<Image> images = DockerClientFactory.build().listImagesCmd().exec();
-        if (images.isEmpty()) {
-            throw new MinimesosException("Failed to find image '" +  imageName + ":" + registryTag + ". No images found");
-        }
         for (Image image : images) {
             if (image.getRepoTags() == null) {
                 continue;
@@ -242,18 +424,30 @@ public abstract class AbstractContainer implements ClusterProcess {
     protected void pullImage(String imageName, String registryTag) {
         LOGGER.debug("Checking if image [" + imageName + ":" + registryTag + "] exists.");
 
-        if (imageExists(imageName, registryTag)) {
-            return;
+        try (Timeline.Span ignored = getTimeline().begin(Timeline.memberOf(this), "image-check")) {
+            if (imageExists(imageName, registryTag)) {
+                return;
+            }
         }
 
-        LOGGER.debug("Image [" + imageName + ":" + registryTag + "] not found. Pulling...");
-        DockerContainersUtil.pullImage(imageName, registryTag, IMAGE_PULL_TIMEOUT_SECS);
+        LOGGER.info("Image [" + imageName + ":" + registryTag + "] not found. Pulling...");
+        try (Timeline.Span ignored = getTimeline().begin(Timeline.memberOf(this), "pull")) {
+            DockerContainersUtil.pullImage(imageName, registryTag, IMAGE_PULL_TIMEOUT_SECS);
+        }
 
         if (!imageExists(imageName, registryTag)) {
             throw new MinimesosException("Pulling of " + imageName + ":" + registryTag + " completed. However the image is not found");
         }
     }
 
+    /**
+     * @return timeline of the cluster or a disabled one, if the container does not belong to a cluster
+     */
+    protected Timeline getTimeline() {
+        Timeline timeline = (cluster != null) ? cluster.getTimeline() : null;
+        return (timeline != null) ? timeline : Timeline.DISABLED;
+    }
+
     @Override
     public void setCluster(MesosCluster cluster) {
         this.cluster = cluster;
@@ -1,10 +1,18 @@
 package com.containersol.minimesos.integrationtest.container;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 /**
  * Utility class to assist container naming convention
  */
 public class ContainerName {
 
+    /**
+     * minimesos-[role]-[cluster ID]-[uuid]
+     */
+    private static final Pattern NAME_PATTERN = Pattern.compile("^minimesos-(\\w+)-(\\w+)-(\\w+)$");
+
     // disable creation on instances
     private ContainerName() {
     }
@@ -51,8 +59,11 @@ public class ContainerName {
      * @return true, if container with this name belongs to the cluster
      */
     public static boolean belongsToCluster(String containerName, String clusterId) {
-        String pattern = getContainerNamePattern(clusterId);
-        return containerName.matches(pattern);
+        if (containerName == null) {
+            return false;
+        }
+        Matcher matcher = NAME_PATTERN.matcher(containerName);
+        return matcher.matches() && matcher.group(2).equals(clusterId);
     }
 
     /**
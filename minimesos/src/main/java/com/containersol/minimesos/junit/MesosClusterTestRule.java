@@ -1,48 +1,128 @@
 package com.containersol.minimesos.junit;
 
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 
 import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.Marathon;
 import com.containersol.minimesos.cluster.MesosCluster;
 import com.containersol.minimesos.cluster.MesosClusterFactory;
 import com.containersol.minimesos.mesos.MesosClusterContainersFactory;
+import com.containersol.minimesos.util.HashUtil;
 
+import org.apache.commons.io.IOUtils;
 import org.junit.rules.TestRule;
 import org.junit.runner.Description;
 import org.junit.runners.model.Statement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * JUnit Rule extension of Mesos Cluster to use in JUnit.
+ * <p>
+ * When reuse is enabled, either with {@value #REUSE_PROPERTY} system property or explicitly, a cluster is started once per JVM for
+ * each distinct configuration and handed to every rule with the same configuration. Between tests the cluster is reset: Marathon
+ * apps and groups are deleted, frameworks other than Marathon are torn down, agents are waited for to free their resources and the
+ * apps and groups of the minimesosFile are installed again.
+ * Started clusters are destroyed by a single shutdown hook.
  */
 public class MesosClusterTestRule implements TestRule {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MesosClusterTestRule.class);
+
+    /**
+     * Set this system property to <code>true</code> to reuse clusters across tests
+     */
+    public static final String REUSE_PROPERTY = "minimesos.cluster.reuse";
+
+    private static final String MARATHON_FRAMEWORK = "marathon";
+
+    /**
+     * Reusable clusters by hash of their configuration
+     */
+    private static final Map<String, MesosCluster> WARM_CLUSTERS = new HashMap<>();
+
+    /**
+     * Clusters, which have to be destroyed when JVM exits
+     */
+    private static final Set<MesosCluster> STARTED_CLUSTERS = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    private static boolean shutdownHookAdded = false;
+
     private MesosClusterFactory factory = new MesosClusterContainersFactory();
 
     private MesosCluster mesosCluster;
 
+    private final boolean reuse;
+
     public static MesosClusterTestRule fromClassPath(String path) {
+        return fromClassPath(path, Boolean.getBoolean(REUSE_PROPERTY));
+    }
+
+    /**
+     * @param path  of minimesosFile on the classpath
+     * @param reuse whether to share the cluster with other rules with the same configuration
+     * @return rule with the cluster
+     */
+    public static MesosClusterTestRule fromClassPath(String path, boolean reuse) {
         try (InputStream is = MesosClusterTestRule.class.getResourceAsStream(path)) {
-            MesosCluster cluster = new MesosClusterContainersFactory().createMesosCluster(is);
-            return new MesosClusterTestRule(cluster);
+            if (is == null) {
+                throw new MinimesosException("Could not find minimesosFile on classpath " + path);
+            }
+            return fromConfig(IOUtils.toString(is, StandardCharsets.UTF_8), reuse);
         } catch (IOException e) {
             throw new MinimesosException("Could not read minimesosFile on classpath " + path, e);
         }
     }
 
     public static MesosClusterTestRule fromFile(String minimesosFilePath) {
-        try {
-            MesosCluster cluster = new MesosClusterContainersFactory().createMesosCluster(new FileInputStream(minimesosFilePath));
-            return new MesosClusterTestRule(cluster);
-        } catch (FileNotFoundException e) {
+        return fromFile(minimesosFilePath, Boolean.getBoolean(REUSE_PROPERTY));
+    }
+
+    /**
+     * @param minimesosFilePath path to minimesosFile
+     * @param reuse             whether to share the cluster with other rules with the same configuration
+     * @return rule with the cluster
+     */
+    public static MesosClusterTestRule fromFile(String minimesosFilePath, boolean reuse) {
+        try (InputStream is = new FileInputStream(minimesosFilePath)) {
+            return fromConfig(IOUtils.toString(is, StandardCharsets.UTF_8), reuse);
+        } catch (IOException e) {
             throw new MinimesosException("Could not read minimesosFile at " + minimesosFilePath, e);
         }
     }
 
-    private MesosClusterTestRule(MesosCluster mesosCluster) {
+    private static MesosClusterTestRule fromConfig(String config, boolean reuse) {
+        if (!reuse) {
+            return new MesosClusterTestRule(createCluster(config), false);
+        }
+        synchronized (WARM_CLUSTERS) {
+            String key = HashUtil.sha1(config);
+            MesosCluster cluster = WARM_CLUSTERS.get(key);
+            // a test might have destroyed the shared cluster
+            if (cluster == null || cluster.isDestroyed()) {
+                cluster = createCluster(config);
+                WARM_CLUSTERS.put(key, cluster);
+            }
+            return new MesosClusterTestRule(cluster, true);
+        }
+    }
+
+    private static MesosCluster createCluster(String config) {
+        return new MesosClusterContainersFactory().createMesosCluster(IOUtils.toInputStream(config, StandardCharsets.UTF_8));
+    }
+
+    MesosClusterTestRule(MesosCluster mesosCluster, boolean reuse) {
         this.mesosCluster = mesosCluster;
+        this.reuse = reuse;
     }
 
     /**
@@ -68,32 +148,89 @@ public class MesosClusterTestRule implements TestRule {
     }
 
     /**
-     * Execute before the test
+     * Execute before the test. Starts the cluster or resets it, if it is reused and already running
      */
     protected void before() {
-        mesosCluster.start();
-        Runtime.getRuntime().addShutdownHook(new Thread() {
-            @Override
-            public void run() {
-                factory.destroyRunningCluster(mesosCluster.getClusterId());
+        if (!reuse) {
+            start();
+            return;
+        }
+        synchronized (mesosCluster) {
+            if (mesosCluster.isRunning()) {
+                reset();
+            } else {
+                start();
             }
-        });
+        }
+    }
+
+    private void start() {
+        addShutdownHook();
+        STARTED_CLUSTERS.add(mesosCluster);
+        try {
+            mesosCluster.start();
+        } catch (RuntimeException e) {
+            if (reuse) {
+                // do not hand out a cluster, which failed to start
+                synchronized (WARM_CLUSTERS) {
+                    WARM_CLUSTERS.values().remove(mesosCluster);
+                }
+            }
+            throw e;
+        }
     }
 
     /**
-     * Execute after the test
+     * Execute after the test. Reused clusters are kept running
      */
     protected void after() {
-        stop();
+        if (!reuse) {
+            stop();
+        }
     }
 
     /**
      * Destroys cluster using docker based factory of cluster members
      */
     public void stop() {
+        STARTED_CLUSTERS.remove(mesosCluster);
         mesosCluster.destroy(factory);
     }
 
+    /**
+     * Brings reused cluster back to the state right after the start. Marathon apps and groups of the minimesosFile are installed again,
+     * once the agents are free of the tasks of the previous test.
+     */
+    private void reset() {
+        LOGGER.debug("Resetting cluster " + mesosCluster.getClusterId() + " for reuse");
+        Marathon marathon = mesosCluster.getMarathon();
+        if (marathon != null) {
+            marathon.killAllGroups();
+            marathon.killAllApps();
+        }
+        mesosCluster.getMaster().teardownFrameworks(Collections.singleton(MARATHON_FRAMEWORK));
+        mesosCluster.getMaster().waitForIdleAgents(mesosCluster.getClusterConfig().getTimeout());
+        if (marathon != null) {
+            marathon.installMarathonApps();
+        }
+    }
+
+    private static synchronized void addShutdownHook() {
+        if (shutdownHookAdded) {
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+            @Override
+            public void run() {
+                MesosClusterFactory factory = new MesosClusterContainersFactory();
+                for (MesosCluster cluster : new ArrayList<>(STARTED_CLUSTERS)) {
+                    factory.destroyRunningCluster(cluster.getClusterId());
+                }
+            }
+        });
+        shutdownHookAdded = true;
+    }
+
     public MesosCluster getMesosCluster() {
         return mesosCluster;
     }
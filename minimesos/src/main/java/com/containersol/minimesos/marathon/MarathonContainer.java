@@ -5,6 +5,7 @@ import com.containersol.minimesos.cluster.ClusterProcess;
 import com.containersol.minimesos.cluster.ClusterUtil;
 import com.containersol.minimesos.cluster.Marathon;
 import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.ReadinessProbe;
 import com.containersol.minimesos.cluster.ZooKeeper;
 import com.containersol.minimesos.config.AppConfig;
 import com.containersol.minimesos.config.GroupConfig;
@@ -14,17 +15,22 @@ import com.containersol.minimesos.docker.DockerClientFactory;
 import com.containersol.minimesos.docker.DockerContainersUtil;
 import com.containersol.minimesos.util.Environment;
 import com.containersol.minimesos.util.CollectionsUtils;
+import com.containersol.minimesos.util.ExponentialBackoff;
 import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.model.ExposedPort;
 import com.github.dockerjava.api.model.Ports;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
 import mesosphere.marathon.client.model.v2.Group;
 import mesosphere.marathon.client.model.v2.Result;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import mesosphere.marathon.client.model.v2.App;
@@ -34,14 +40,17 @@ import com.google.gson.Gson;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import static com.containersol.minimesos.config.MarathonConfig.*;
-import static com.jayway.awaitility.Awaitility.await;
 import static java.lang.String.format;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 
@@ -56,12 +65,18 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
 
     private static final String APPS_ENDPOINT = "/v2/apps";
 
+    private static final String GROUPS_ENDPOINT = "/v2/groups";
+
     private static final String HEADER_ACCEPT = "accept";
 
     private final MarathonConfig config;
 
     private ZooKeeper zooKeeper;
 
+    private mesosphere.marathon.client.Marathon marathonClient;
+
+    private String marathonClientEndpoint;
+
     public MarathonContainer(MarathonConfig config) {
         super(config);
         this.config = config;
@@ -86,6 +101,11 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
         this.zooKeeper = zooKeeper;
     }
 
+    @Override
+    public List<ClusterProcess> getDependencies() {
+        return (zooKeeper != null) ? Collections.singletonList(zooKeeper) : Collections.emptyList();
+    }
+
     @Override
     public URI getServiceUrl() {
         URI serviceUri = null;
@@ -137,6 +157,20 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
         return getServiceUrl().toString();
     }
 
+    /**
+     * Returns the client of the Marathon API. It is created once per endpoint and reused, instead of building a new one for every call
+     *
+     * @return Marathon client
+     */
+    private synchronized mesosphere.marathon.client.Marathon getMarathonClient() {
+        String endpoint = getMarathonEndpoint();
+        if (marathonClient == null || !endpoint.equals(marathonClientEndpoint)) {
+            marathonClient = MarathonClient.getInstance(endpoint);
+            marathonClientEndpoint = endpoint;
+        }
+        return marathonClient;
+    }
+
     /**
      * Deploys a Marathon app by JSON string
      *
@@ -144,7 +178,7 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
      */
     @Override
     public void deployApp(String marathonJson) {
-        mesosphere.marathon.client.Marathon marathon = MarathonClient.getInstance(getMarathonEndpoint());
+        mesosphere.marathon.client.Marathon marathon = getMarathonClient();
         try {
             marathon.createApp(constructApp(marathonJson));
         } catch (MarathonException e) {
@@ -155,7 +189,7 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
 
     @Override
     public Result deleteApp(String appId) {
-        mesosphere.marathon.client.Marathon marathon = MarathonClient.getInstance(getMarathonEndpoint());
+        mesosphere.marathon.client.Marathon marathon = getMarathonClient();
         try {
             Result result = marathon.deleteApp(appId);
             LOGGER.debug(format("Deleted app '%s' at '%s'", appId, getMarathonEndpoint()));
@@ -167,7 +201,7 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
 
     @Override
     public void deployGroup(String groupJson) {
-        mesosphere.marathon.client.Marathon marathon = MarathonClient.getInstance(getMarathonEndpoint());
+        mesosphere.marathon.client.Marathon marathon = getMarathonClient();
         try {
             Group group = constructGroup(groupJson);
             marathon.createGroup(group);
@@ -179,7 +213,7 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
 
     @Override
     public Result deleteGroup(String groupId) {
-        mesosphere.marathon.client.Marathon marathon = MarathonClient.getInstance(getMarathonEndpoint());
+        mesosphere.marathon.client.Marathon marathon = getMarathonClient();
         try {
             Result result = marathon.deleteGroup(groupId);
             LOGGER.debug(format("Deleted app '%s' at '%s'", groupId, getMarathonEndpoint()));
@@ -189,6 +223,24 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
         }
     }
 
+    @Override
+    public void updateGroup(String groupJson) {
+        Group group = constructGroup(groupJson);
+        String groupId = group.getId().startsWith("/") ? group.getId() : "/" + group.getId();
+        HttpPut request = new HttpPut(getMarathonEndpoint() + GROUPS_ENDPOINT + groupId + "?force=true");
+        request.setEntity(new StringEntity(new Gson().toJson(group), ContentType.APPLICATION_JSON));
+        int status;
+        try {
+            status = getHttpTransport().execute(request, response -> response.getStatusLine().getStatusCode());
+        } catch (IOException e) {
+            throw new MinimesosException("Marathon could not update group '" + groupId + "'", e);
+        }
+        if (status >= 300) {
+            throw new MinimesosException("Marathon could not update group '" + groupId + "', status: " + status);
+        }
+        LOGGER.debug(format("Updated group '%s' at '%s'", groupId, getMarathonEndpoint()));
+    }
+
     /**
      * Updates a Marathon app by JSON string
      *
@@ -196,7 +248,7 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
      */
     @Override
     public void updateApp(String marathonJson) {
-        mesosphere.marathon.client.Marathon marathon = MarathonClient.getInstance(getMarathonEndpoint());
+        mesosphere.marathon.client.Marathon marathon = getMarathonClient();
         try {
             App app = constructApp(marathonJson);
             marathon.updateApp(app.getId(), app, true);
@@ -227,21 +279,36 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
         MesosCluster cluster = getCluster();
         // received JSON might contain tokens, which should be replaced before the installation
         List<ClusterProcess> uniqueRoles = ClusterUtil.getDistinctRoleProcesses(cluster.getMemberProcesses());
-        String updatedJson = source;
+        Map<String, String> tokens = new LinkedHashMap<>();
         for (ClusterProcess process : uniqueRoles) {
             URI serviceUri = process.getServiceUrl();
             if (serviceUri != null) {
-                updatedJson = replaceToken(updatedJson, MesosCluster.MINIMESOS_TOKEN_PREFIX + process.getRole().toUpperCase(), serviceUri.toString());
-                updatedJson = replaceToken(updatedJson, MesosCluster.MINIMESOS_TOKEN_PREFIX + process.getRole().toUpperCase() + "_IP", serviceUri.getHost());
-                updatedJson = replaceToken(updatedJson, MesosCluster.MINIMESOS_TOKEN_PREFIX + process.getRole().toUpperCase() + "_PORT", Integer.toString(serviceUri.getPort()));
+                tokens.put(MesosCluster.MINIMESOS_TOKEN_PREFIX + process.getRole().toUpperCase(), serviceUri.toString());
+                tokens.put(MesosCluster.MINIMESOS_TOKEN_PREFIX + process.getRole().toUpperCase() + "_IP", serviceUri.getHost());
+                tokens.put(MesosCluster.MINIMESOS_TOKEN_PREFIX + process.getRole().toUpperCase() + "_PORT", Integer.toString(serviceUri.getPort()));
             }
         }
 
         // replace independent from roles tokens
         String masterContainer = cluster.getMaster().getContainerId();
-        updatedJson = replaceToken(updatedJson, MesosCluster.TOKEN_NETWORK_GATEWAY, DockerContainersUtil.getGatewayIpAddress(masterContainer));
-        updatedJson = replaceToken(updatedJson, TOKEN_HOST_DIR, MesosCluster.getClusterHostDir().getAbsolutePath());
+        tokens.put(MesosCluster.TOKEN_NETWORK_GATEWAY, DockerContainersUtil.getGatewayIpAddress(masterContainer));
+        tokens.put(TOKEN_HOST_DIR, MesosCluster.getClusterHostDir().getAbsolutePath());
 
+        return replaceTokens(source, tokens);
+    }
+
+    /**
+     * Replaces ${TOKEN} in the given string with the value of the token
+     *
+     * @param source string to replace values in
+     * @param tokens values by token name, replaced in iteration order
+     * @return updated string
+     */
+    public static String replaceTokens(String source, Map<String, String> tokens) {
+        String updatedJson = source;
+        for (Map.Entry<String, String> token : tokens.entrySet()) {
+            updatedJson = replaceToken(updatedJson, token.getKey(), token.getValue());
+        }
         return updatedJson;
     }
 
@@ -258,11 +325,11 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
         String marathonEndpoint = getServiceUrl().toString();
         JSONObject appsResponse;
         try {
-            appsResponse = Unirest.get(marathonEndpoint + APPS_ENDPOINT).header(HEADER_ACCEPT, APPLICATION_JSON).asJson().getBody().getObject();
+            appsResponse = getJson(marathonEndpoint + APPS_ENDPOINT);
             if (appsResponse.length() == 0) {
                 return;
             }
-        } catch (UnirestException e) {
+        } catch (IOException e) {
             throw new MinimesosException("Could not retrieve apps from Marathon at " + marathonEndpoint, e);
         }
 
@@ -271,40 +338,83 @@ public class MarathonContainer extends AbstractContainer implements Marathon {
             JSONObject app = apps.getJSONObject(i);
             String appId = app.getString("id");
             try {
-                Unirest.delete(marathonEndpoint + APPS_ENDPOINT + appId).asJson();
-            } catch (UnirestException e) { //NOSONAR
+                delete(marathonEndpoint + APPS_ENDPOINT + appId);
+            } catch (IOException e) { //NOSONAR
                 // failed to delete one app; continue with others
                 LOGGER.error("Could not delete app " + appId + " at " + marathonEndpoint, e);
             }
         }
     }
 
+    /**
+     * Delete all application groups together with their apps
+     */
+    @Override
+    public void killAllGroups() {
+        String marathonEndpoint = getServiceUrl().toString();
+        JSONArray groups;
+        try {
+            groups = getJson(marathonEndpoint + GROUPS_ENDPOINT).optJSONArray("groups");
+        } catch (IOException e) {
+            throw new MinimesosException("Could not retrieve groups from Marathon at " + marathonEndpoint, e);
+        }
+        if (groups == null) {
+            return;
+        }
+
+        for (int i = 0; i < groups.length(); i++) {
+            String groupId = groups.getJSONObject(i).getString("id");
+            try {
+                delete(marathonEndpoint + GROUPS_ENDPOINT + groupId + "?force=true");
+            } catch (IOException e) { //NOSONAR
+                // failed to delete one group; continue with others
+                LOGGER.error("Could not delete group " + groupId + " at " + marathonEndpoint, e);
+            }
+        }
+    }
+
+    private JSONObject getJson(String url) throws IOException {
+        HttpGet request = new HttpGet(url);
+        request.setHeader(HEADER_ACCEPT, APPLICATION_JSON);
+        return getHttpTransport().get(request, body -> new JSONObject(new JSONTokener(new InputStreamReader(body, StandardCharsets.UTF_8))));
+    }
+
+    private void delete(String url) throws IOException {
+        getHttpTransport().execute(new HttpDelete(url), response -> response.getStatusLine().getStatusCode());
+    }
+
     @Override
     protected int getServicePort() {
         return MARATHON_PORT;
     }
 
+    /**
+     * Waits until Marathon has elected a leader. Marathon answers to <code>/ping</code> before, but its <code>/v2</code> API,
+     * which deploys apps and groups, answers with 503 until then.
+     */
     @SuppressWarnings("WeakerAccess")
     public void waitFor() {
-        LOGGER.debug("Waiting for Marathon to be ready at " + getServiceUrl().toString());
-        await("Marathon did not start responding").atMost(getCluster().getClusterConfig().getTimeout(), TimeUnit.SECONDS).pollDelay(1, TimeUnit.SECONDS).until(new MarathonApiIsReady());
+        LOGGER.debug("Waiting for Marathon to elect a leader at " + getServiceUrl().toString());
+        try {
+            if (!new ExponentialBackoff().await(() -> respondsWithOk(getServiceUrl() + "/v2/leader"), getCluster().getClusterConfig().getTimeout(), TimeUnit.SECONDS)) {
+                throw new MinimesosException("Marathon did not elect a leader");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinimesosException("Interrupted while waiting for Marathon", e);
+        }
     }
 
-    public MarathonConfig getConfig() {
-        return config;
+    /**
+     * Marathon is ready, when it answers to <code>/ping</code>
+     */
+    @Override
+    public ReadinessProbe getReadinessProbe() {
+        return () -> getServiceUrl() != null && respondsWithOk(getServiceUrl() + "/ping");
     }
 
-    private class MarathonApiIsReady implements Callable<Boolean> {
-        @Override
-        public Boolean call() throws Exception {
-            try {
-                Unirest.get(getServiceUrl().toString() + APPS_ENDPOINT).header(HEADER_ACCEPT, APPLICATION_JSON).asJson().getBody().getObject();
-            } catch (UnirestException e) { //NOSONAR
-                // meaning API is not ready
-                return false;
-            }
-            return true;
-        }
+    public MarathonConfig getConfig() {
+        return config;
     }
 
     /**
@@ -0,0 +1,411 @@
+package com.containersol.minimesos.mesos;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.AppliedMarathonJson;
+import com.containersol.minimesos.cluster.ClusterProcess;
+import com.containersol.minimesos.cluster.Consul;
+import com.containersol.minimesos.cluster.Filter;
+import com.containersol.minimesos.cluster.Marathon;
+import com.containersol.minimesos.cluster.MesosAgent;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.Registrator;
+import com.containersol.minimesos.config.AppConfig;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.ContainerConfig;
+import com.containersol.minimesos.config.GroupConfig;
+import com.containersol.minimesos.config.MarathonConfig;
+import com.containersol.minimesos.config.MesosAgentConfig;
+import com.containersol.minimesos.integrationtest.container.AbstractContainer;
+import com.containersol.minimesos.util.HashUtil;
+
+import org.apache.commons.io.IOUtils;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Brings a running cluster in line with a changed configuration without restarting it.
+ * <p>
+ * Members are matched with their configuration by the hash stored in the {@value AbstractContainer#LABEL_CONFIG_HASH} label.
+ * Agents, Consul and Registrator are added, removed or replaced. Marathon apps and groups are deployed, updated or deleted compared
+ * to the configuration and the IDs and hashes of the Marathon JSON the cluster was last brought up or reconciled with, so editing a
+ * JSON file in place is applied as well, and apps are deleted by the ID they were deployed with. Changes of ZooKeeper, Mesos master, Marathon and Mesos DNS would require a restart of the cluster, so
+ * they are only reported. Agents can also be scaled to a given number directly.
+ */
+public class ClusterReconciler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterReconciler.class);
+
+    private final MesosCluster cluster;
+
+    private final List<String> changes = new ArrayList<>();
+
+    private final List<ClusterProcess> toRemove = new ArrayList<>();
+
+    private final List<ClusterProcess> toAdd = new ArrayList<>();
+
+    private final Map<String, AppliedMarathonJson> appliedMarathonJson = new LinkedHashMap<>();
+
+    public ClusterReconciler(MesosCluster cluster) {
+        this.cluster = cluster;
+    }
+
+    /**
+     * Applies the desired configuration to the cluster
+     *
+     * @param applied     configuration the cluster was brought up or last reconciled with, or null if it is not known
+     * @param appliedJson IDs and hashes of the Marathon JSON deployed with the applied configuration by location. Apps and groups,
+     *                    which hash is not known, are deployed again
+     * @param desired     configuration to apply
+     * @return description of applied changes and of changes, which require a restart, empty if the cluster is up to date
+     */
+    public List<String> reconcile(ClusterConfig applied, Map<String, AppliedMarathonJson> appliedJson, ClusterConfig desired) {
+        changes.clear();
+        toRemove.clear();
+        toAdd.clear();
+        appliedMarathonJson.clear();
+
+        validate(desired);
+
+        reportControlPlane(desired);
+        planAgents(desired);
+        planConsulAndRegistrator(desired);
+
+        if (!toRemove.isEmpty()) {
+            cluster.removeProcesses(toRemove);
+        }
+        if (!toAdd.isEmpty()) {
+            cluster.addAndStartProcesses(toAdd, desired.getTimeout());
+        }
+        if (toAdd.stream().anyMatch(Filter.mesosAgent()) || toRemove.stream().anyMatch(Filter.mesosAgent())) {
+            cluster.getMaster().waitFor();
+        }
+
+        reconcileMarathon(applied, appliedJson, desired);
+
+        return new ArrayList<>(changes);
+    }
+
+    /**
+     * Adds or removes agents concurrently, so that the cluster runs the given number of them. The newest agents are removed first.
+     * Returns once the master reports the new number of activated agents.
+     *
+     * @param count    number of agents to run
+     * @param template configuration of added agents
+     * @param applied  configuration the cluster was brought up with, which is updated with the new agents, or null if it is not known
+     * @param timeout  in seconds to start the added agents
+     * @return description of applied changes, empty if the cluster already runs the given number of agents
+     */
+    public List<String> scaleAgents(int count, MesosAgentConfig template, ClusterConfig applied, int timeout) {
+        if (count < 1) {
+            throw new MinimesosException("Cluster requires at least 1 Mesos Agent, got " + count);
+        }
+        changes.clear();
+        toRemove.clear();
+        toAdd.clear();
+
+        List<MesosAgent> agents = cluster.getAgents();
+        for (int i = agents.size() - 1; i >= count; i--) {
+            MesosAgent agent = agents.get(i);
+            toRemove.add(agent);
+            changes.add("Removing agent " + agent.getName());
+            if (applied != null) {
+                removeAgentConfig(applied.getAgents(), agent.getConfigHash());
+            }
+        }
+        for (int i = agents.size(); i < count; i++) {
+            MesosAgentContainer agent = new MesosAgentContainer(template);
+            agent.setZooKeeper(cluster.getZooKeeper());
+            toAdd.add(agent);
+            if (applied != null) {
+                applied.getAgents().add(template);
+            }
+        }
+        if (!toAdd.isEmpty()) {
+            changes.add("Adding " + toAdd.size() + " agents with image " + template.getImageName() + ":" + template.getImageTag());
+        }
+
+        if (!toRemove.isEmpty()) {
+            cluster.removeProcesses(toRemove);
+        }
+        if (!toAdd.isEmpty()) {
+            cluster.addAndStartProcesses(toAdd, timeout);
+        }
+        if (!changes.isEmpty()) {
+            cluster.getMaster().waitFor();
+        }
+
+        return new ArrayList<>(changes);
+    }
+
+    /**
+     * Removes configuration of a removed agent, the last one if the configuration of the agent is not known
+     */
+    private static void removeAgentConfig(List<MesosAgentConfig> agentConfigs, String configHash) {
+        for (int i = agentConfigs.size() - 1; i >= 0; i--) {
+            if (AbstractContainer.hashOf(agentConfigs.get(i)).equals(configHash)) {
+                agentConfigs.remove(i);
+                return;
+            }
+        }
+        if (!agentConfigs.isEmpty()) {
+            agentConfigs.remove(agentConfigs.size() - 1);
+        }
+    }
+
+    private static void validate(ClusterConfig desired) {
+        if (desired.getAgents().isEmpty()) {
+            throw new MinimesosException("Cluster requires at least 1 Mesos Agent. Please add one in the minimesosFile.");
+        }
+        if (desired.getRegistrator() != null && desired.getConsul() == null) {
+            throw new MinimesosException("Registrator requires a single Consul. Please add consul in the minimesosFile.");
+        }
+    }
+
+    /**
+     * @return IDs and hashes of the Marathon JSON of the desired configuration by location, as of the last {@link #reconcile}
+     */
+    public Map<String, AppliedMarathonJson> getAppliedMarathonJson() {
+        return new LinkedHashMap<>(appliedMarathonJson);
+    }
+
+    /**
+     * @param config of the cluster
+     * @return IDs and hashes of the Marathon JSON of the apps and groups of the configuration by location
+     */
+    public static Map<String, AppliedMarathonJson> readMarathonJson(ClusterConfig config) {
+        Map<String, AppliedMarathonJson> applied = new LinkedHashMap<>();
+        if (config.getMarathon() != null) {
+            config.getMarathon().getApps().forEach(app -> applied.put(app.getMarathonJson(), toApplied(readJson(app.getMarathonJson()))));
+            config.getMarathon().getGroups().forEach(group -> applied.put(group.getMarathonJson(), toApplied(readJson(group.getMarathonJson()))));
+        }
+        return applied;
+    }
+
+    private static AppliedMarathonJson toApplied(String json) {
+        String id;
+        try {
+            id = new JSONObject(json).optString("id", null);
+        } catch (JSONException e) {
+            // Marathon rejects it anyway
+            id = null;
+        }
+        return new AppliedMarathonJson(id, HashUtil.sha1(json));
+    }
+
+    private void reportControlPlane(ClusterConfig desired) {
+        reportChange(cluster.getZooKeeper(), desired.getZookeeper(), "zookeeper");
+        reportChange(cluster.getMaster(), desired.getMaster(), "master");
+        reportChange(cluster.getMarathon(), desired.getMarathon(), "marathon");
+        reportChange(cluster.getMesosDns(), desired.getMesosdns(), "mesosdns");
+    }
+
+    private void reportChange(ClusterProcess running, ContainerConfig desired, String role) {
+        if (isChanged(running, desired)) {
+            changes.add("Configuration of " + role + " has changed. Run 'minimesos destroy' and 'minimesos up' to apply it");
+        }
+    }
+
+    private void planAgents(ClusterConfig desired) {
+        Map<String, List<MesosAgent>> runningByHash = new HashMap<>();
+        for (MesosAgent agent : cluster.getAgents()) {
+            if (agent.getConfigHash() == null) {
+                LOGGER.warn("Agent " + agent.getName() + " was created without configuration hash and is left as is");
+            } else {
+                runningByHash.computeIfAbsent(agent.getConfigHash(), hash -> new ArrayList<>()).add(agent);
+            }
+        }
+
+        for (MesosAgentConfig agentConfig : desired.getAgents()) {
+            List<MesosAgent> matching = runningByHash.get(AbstractContainer.hashOf(agentConfig));
+            if (matching != null && !matching.isEmpty()) {
+                matching.remove(0);
+            } else {
+                MesosAgentContainer agent = new MesosAgentContainer(agentConfig);
+                agent.setZooKeeper(cluster.getZooKeeper());
+                toAdd.add(agent);
+                changes.add("Adding agent with image " + agentConfig.getImageName() + ":" + agentConfig.getImageTag());
+            }
+        }
+
+        for (List<MesosAgent> unmatched : runningByHash.values()) {
+            for (MesosAgent agent : unmatched) {
+                toRemove.add(agent);
+                changes.add("Removing agent " + agent.getName());
+            }
+        }
+    }
+
+    private void planConsulAndRegistrator(ClusterConfig desired) {
+        Consul consul = cluster.getConsul();
+        Optional<Registrator> runningRegistrator = cluster.getOne(Filter.registrator());
+        Registrator registrator = runningRegistrator.orElse(null);
+
+        boolean replaceConsul = isChanged(consul, desired.getConsul());
+        if (replaceConsul) {
+            if (consul != null) {
+                toRemove.add(consul);
+                changes.add("Removing consul " + consul.getName());
+            }
+            consul = null;
+            if (desired.getConsul() != null) {
+                ConsulContainer newConsul = new ConsulContainer(desired.getConsul());
+                toAdd.add(newConsul);
+                consul = newConsul;
+                changes.add("Adding consul with image " + desired.getConsul().getImageName() + ":" + desired.getConsul().getImageTag());
+            }
+        }
+
+        // registrator is wired to the consul it was started with
+        if (replaceConsul || isChanged(registrator, desired.getRegistrator())) {
+            if (registrator != null) {
+                toRemove.add(registrator);
+                changes.add("Removing registrator " + registrator.getName());
+            }
+            if (desired.getRegistrator() != null) {
+                RegistratorContainer newRegistrator = new RegistratorContainer(desired.getRegistrator());
+                newRegistrator.setConsul(consul);
+                toAdd.add(newRegistrator);
+                changes.add("Adding registrator with image " + desired.getRegistrator().getImageName() + ":" + desired.getRegistrator().getImageTag());
+            }
+        }
+    }
+
+    private static boolean isChanged(ClusterProcess running, ContainerConfig desired) {
+        if (running == null || desired == null) {
+            return (running == null) != (desired == null);
+        }
+        if (running.getConfigHash() == null) {
+            LOGGER.warn(running.getRole() + " " + running.getName() + " was created without configuration hash and is left as is");
+            return false;
+        }
+        return !running.getConfigHash().equals(AbstractContainer.hashOf(desired));
+    }
+
+    private void reconcileMarathon(ClusterConfig applied, Map<String, AppliedMarathonJson> appliedJson, ClusterConfig desired) {
+        Marathon marathon = cluster.getMarathon();
+        if (marathon == null || desired.getMarathon() == null) {
+            return;
+        }
+        MarathonConfig appliedMarathon = (applied != null) ? applied.getMarathon() : null;
+
+        Set<String> appliedApps = new LinkedHashSet<>();
+        Set<String> appliedGroups = new LinkedHashSet<>();
+        if (appliedMarathon != null) {
+            appliedMarathon.getApps().forEach(app -> appliedApps.add(app.getMarathonJson()));
+            appliedMarathon.getGroups().forEach(group -> appliedGroups.add(group.getMarathonJson()));
+        }
+        Set<String> desiredApps = new LinkedHashSet<>();
+        Set<String> desiredGroups = new LinkedHashSet<>();
+        desired.getMarathon().getApps().forEach(app -> desiredApps.add(app.getMarathonJson()));
+        desired.getMarathon().getGroups().forEach(group -> desiredGroups.add(group.getMarathonJson()));
+
+        for (String location : appliedApps) {
+            if (!desiredApps.contains(location)) {
+                String id = getAppliedId(location, appliedJson);
+                if (id != null) {
+                    marathon.deleteApp(id);
+                    changes.add("Deleting app " + id);
+                }
+            }
+        }
+        for (String location : appliedGroups) {
+            if (!desiredGroups.contains(location)) {
+                String id = getAppliedId(location, appliedJson);
+                if (id != null) {
+                    marathon.deleteGroup(id);
+                    changes.add("Deleting group " + id);
+                }
+            }
+        }
+
+        for (AppConfig app : desired.getMarathon().getApps()) {
+            String location = app.getMarathonJson();
+            String json = readJson(location);
+            AppliedMarathonJson desiredApp = toApplied(json);
+            appliedMarathonJson.put(location, desiredApp);
+            if (!appliedApps.contains(location)) {
+                // update creates the app, if it does not exist yet
+                marathon.updateApp(json);
+                changes.add("Deploying app " + location);
+            } else if (isChanged(appliedJson.get(location), desiredApp)) {
+                String appliedId = getAppliedId(appliedJson.get(location));
+                if (appliedId != null && !appliedId.equals(desiredApp.getId())) {
+                    marathon.deleteApp(appliedId);
+                    changes.add("Deleting app " + appliedId);
+                }
+                marathon.updateApp(json);
+                changes.add("Updating app " + location);
+            }
+        }
+        for (GroupConfig group : desired.getMarathon().getGroups()) {
+            String location = group.getMarathonJson();
+            String json = readJson(location);
+            AppliedMarathonJson desiredGroup = toApplied(json);
+            appliedMarathonJson.put(location, desiredGroup);
+            if (!appliedGroups.contains(location)) {
+                marathon.deployGroup(json);
+                changes.add("Deploying group " + location);
+            } else if (isChanged(appliedJson.get(location), desiredGroup)) {
+                String appliedId = getAppliedId(appliedJson.get(location));
+                if (appliedId != null && !appliedId.equals(desiredGroup.getId())) {
+                    marathon.deleteGroup(appliedId);
+                    changes.add("Deleting group " + appliedId);
+                    marathon.deployGroup(json);
+                } else {
+                    marathon.updateGroup(json);
+                }
+                changes.add("Updating group " + location);
+            }
+        }
+    }
+
+    private static boolean isChanged(AppliedMarathonJson applied, AppliedMarathonJson desired) {
+        return applied == null || !applied.getHash().equals(desired.getHash());
+    }
+
+    private static String getAppliedId(AppliedMarathonJson applied) {
+        return (applied != null) ? applied.getId() : null;
+    }
+
+    /**
+     * @param location of the Marathon JSON of an app or group, which was deployed
+     * @return stored ID of the app or group, the ID in the JSON if the ID was not stored, or null if neither is available
+     */
+    private static String getAppliedId(String location, Map<String, AppliedMarathonJson> appliedJson) {
+        String id = getAppliedId(appliedJson.get(location));
+        if (id != null) {
+            return id;
+        }
+        try {
+            return new JSONObject(readJson(location)).optString("id", null);
+        } catch (MinimesosException | JSONException e) {
+            LOGGER.warn("Cannot delete app or group, which was deployed from " + location + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String readJson(String location) {
+        try (InputStream json = MesosCluster.getInputStream(location)) {
+            if (json == null) {
+                throw new MinimesosException("Failed to find content of " + location);
+            }
+            return IOUtils.toString(json, "UTF-8");
+        } catch (IOException e) {
+            throw new MinimesosException("Failed to load JSON from " + location, e);
+        }
+    }
+
+}
@@ -0,0 +1,417 @@
+package com.containersol.minimesos.mesos;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.MesosMaster;
+import com.containersol.minimesos.state.Agent;
+import com.containersol.minimesos.state.Discovery;
+import com.containersol.minimesos.state.Framework;
+import com.containersol.minimesos.state.StateParser;
+import com.containersol.minimesos.state.Task;
+import com.containersol.minimesos.util.HttpTransport;
+import com.containersol.minimesos.util.ParallelUtil;
+import com.containersol.minimesos.util.RecordIoReader;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps agents, frameworks and tasks of the cluster in memory and updates them as the master reports changes.
+ * <p>
+ * The watcher subscribes to the event stream of the master's v1 operator API. Masters older than Mesos 1.1 do not offer it, then the
+ * watcher polls the master instead. Callers can wait for a task to reach a state, which returns as soon as the event arrives.
+ */
+public class ClusterStateWatcher implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterStateWatcher.class);
+
+    /**
+     * Time between polls, if the master does not offer the event stream, and between attempts to subscribe again
+     */
+    static final long POLL_INTERVAL_MS = 1000;
+
+    private static final int PAGE_SIZE = 500;
+
+    private final MesosMaster master;
+
+    private final HttpTransport transport;
+
+    private final Map<String, Task> tasks = new HashMap<>();
+
+    private final Map<String, Agent> agents = new HashMap<>();
+
+    private final Map<String, Framework> frameworks = new HashMap<>();
+
+    private final List<Consumer<Task>> taskListeners = new CopyOnWriteArrayList<>();
+
+    private final Object lock = new Object();
+
+    private volatile boolean running = false;
+
+    private volatile boolean streaming = false;
+
+    private volatile HttpPost subscription;
+
+    private Thread thread;
+
+    public ClusterStateWatcher(MesosMaster master) {
+        this(master, HttpTransport.getDefault());
+    }
+
+    /**
+     * @param master    to watch
+     * @param transport to subscribe to the event stream with
+     */
+    public ClusterStateWatcher(MesosMaster master, HttpTransport transport) {
+        this.master = master;
+        this.transport = transport;
+    }
+
+    /**
+     * Starts watching in a background thread
+     *
+     * @return this watcher
+     */
+    public synchronized ClusterStateWatcher start() {
+        if (!running) {
+            running = true;
+            thread = ParallelUtil.daemonThreadFactory("minimesos-state-watcher").newThread(this::watch);
+            thread.start();
+        }
+        return this;
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        HttpPost request = subscription;
+        if (request != null) {
+            request.abort();
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * @param listener called with every task, which is added or changes its state. Tasks known when the listener is added are not
+     *                 reported
+     */
+    public void addTaskListener(Consumer<Task> listener) {
+        taskListeners.add(listener);
+    }
+
+    /**
+     * @return true if changes arrive as events, false if the master is polled
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public List<Task> getTasks() {
+        synchronized (lock) {
+            return new ArrayList<>(tasks.values());
+        }
+    }
+
+    public List<Agent> getAgents() {
+        synchronized (lock) {
+            return new ArrayList<>(agents.values());
+        }
+    }
+
+    /**
+     * @return name of the framework or null, if the framework is not known
+     */
+    public String getFrameworkName(String frameworkId) {
+        synchronized (lock) {
+            Framework framework = frameworks.get(frameworkId);
+            return (framework != null) ? framework.getName() : null;
+        }
+    }
+
+    /**
+     * Waits until a task matches, e.g. <code>task -&gt; "TASK_RUNNING".equals(task.getState())</code>. The predicate is checked
+     * again on every change of the cluster.
+     *
+     * @param predicate to test tasks with
+     * @param timeout   time to wait
+     * @param unit      of the timeout
+     * @return first matching task or null, if no task matched in time
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Task awaitTask(Predicate<Task> predicate, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (true) {
+                for (Task task : tasks.values()) {
+                    if (predicate.test(task)) {
+                        return task;
+                    }
+                }
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return null;
+                }
+                lock.wait(remaining);
+            }
+        }
+    }
+
+    private void watch() {
+        while (running) {
+            try {
+                if (!subscribe()) {
+                    poll();
+                }
+            } catch (IOException | RuntimeException e) {
+                LOGGER.debug("Lost connection to Mesos master, watching again in " + POLL_INTERVAL_MS + " ms", e);
+            }
+            streaming = false;
+            if (running) {
+                sleep();
+            }
+        }
+    }
+
+    /**
+     * Reads the event stream until it ends or the watcher is closed
+     *
+     * @return false if the master does not offer the event stream
+     */
+    private boolean subscribe() throws IOException {
+        HttpPost request = new HttpPost(master.getServiceUrl() + "/api/v1");
+        request.setHeader("Accept", ContentType.APPLICATION_JSON.getMimeType());
+        request.setEntity(new StringEntity("{\"type\": \"SUBSCRIBE\"}", ContentType.APPLICATION_JSON));
+        subscription = request;
+        try (CloseableHttpResponse response = transport.open(request)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status != HttpStatus.SC_OK) {
+                EntityUtils.consumeQuietly(response.getEntity());
+                if (status >= 400 && status < 500) {
+                    LOGGER.debug("Mesos master does not offer the operator event stream (" + response.getStatusLine() + "), polling it instead");
+                    return false;
+                }
+                throw new IOException("Unexpected response " + response.getStatusLine() + " to subscription");
+            }
+            try (InputStream body = response.getEntity().getContent()) {
+                streaming = true;
+                RecordIoReader reader = new RecordIoReader(body);
+                byte[] record;
+                while (running && (record = reader.read()) != null) {
+                    apply(StateParser.readTree(record));
+                }
+            }
+            return true;
+        } finally {
+            subscription = null;
+            request.releaseConnection();
+        }
+    }
+
+    /**
+     * Polls the master until the watcher is closed
+     */
+    private void poll() {
+        while (running) {
+            Map<String, Task> polledTasks = new HashMap<>();
+            master.forEachTask(PAGE_SIZE, task -> polledTasks.put(task.getId(), task));
+            List<Agent> polledAgents = master.getRegisteredAgents();
+            List<Framework> polledFrameworks = master.getStateSummary().getFrameworks();
+
+            List<Task> changed = new ArrayList<>();
+            synchronized (lock) {
+                for (Task task : polledTasks.values()) {
+                    Task known = tasks.get(task.getId());
+                    if (known == null || !equals(known.getState(), task.getState())) {
+                        changed.add(task);
+                    }
+                }
+                tasks.clear();
+                tasks.putAll(polledTasks);
+                agents.clear();
+                polledAgents.forEach(agent -> agents.put(agent.getId(), agent));
+                frameworks.clear();
+                polledFrameworks.forEach(framework -> frameworks.put(framework.getId(), framework));
+                lock.notifyAll();
+            }
+            changed.forEach(this::notifyListeners);
+            sleep();
+        }
+    }
+
+    /**
+     * Applies an event of the operator API to the model
+     *
+     * @param event decoded record of the event stream
+     */
+    void apply(JsonNode event) throws IOException {
+        String type = event.path("type").asText();
+        List<Task> changed = new ArrayList<>();
+        synchronized (lock) {
+            switch (type) {
+                case "SUBSCRIBED":
+                    JsonNode state = event.path("subscribed").path("get_state");
+                    tasks.clear();
+                    agents.clear();
+                    frameworks.clear();
+                    for (JsonNode node : state.path("get_tasks").path("tasks")) {
+                        Task task = toTask(node);
+                        tasks.put(task.getId(), task);
+                        changed.add(task);
+                    }
+                    for (JsonNode node : state.path("get_agents").path("agents")) {
+                        Agent agent = toAgent(node);
+                        agents.put(agent.getId(), agent);
+                    }
+                    for (JsonNode node : state.path("get_frameworks").path("frameworks")) {
+                        Framework framework = toFramework(node);
+                        frameworks.put(framework.getId(), framework);
+                    }
+                    break;
+                case "TASK_ADDED":
+                    Task added = toTask(event.path("task_added").path("task"));
+                    tasks.put(added.getId(), added);
+                    changed.add(added);
+                    break;
+                case "TASK_UPDATED":
+                    JsonNode status = event.path("task_updated").path("status");
+                    String taskId = value(status.path("task_id"));
+                    Task updated = tasks.get(taskId);
+                    if (updated == null) {
+                        updated = new Task();
+                        updated.setId(taskId);
+                        updated.setFrameworkId(value(event.path("task_updated").path("framework_id")));
+                        updated.setSlaveId(value(status.path("agent_id")));
+                        tasks.put(taskId, updated);
+                    }
+                    updated.setState(text(event.path("task_updated").path("state")));
+                    changed.add(updated);
+                    break;
+                case "AGENT_ADDED":
+                    Agent agent = toAgent(event.path("agent_added").path("agent"));
+                    agents.put(agent.getId(), agent);
+                    break;
+                case "AGENT_REMOVED":
+                    agents.remove(value(event.path("agent_removed").path("agent_id")));
+                    break;
+                case "FRAMEWORK_ADDED":
+                case "FRAMEWORK_UPDATED":
+                    String key = "FRAMEWORK_ADDED".equals(type) ? "framework_added" : "framework_updated";
+                    Framework framework = toFramework(event.path(key).path("framework"));
+                    frameworks.put(framework.getId(), framework);
+                    break;
+                case "FRAMEWORK_REMOVED":
+                    frameworks.remove(value(event.path("framework_removed").path("framework_info").path("id")));
+                    break;
+                default:
+                    // heartbeats and events, which are not modelled
+                    return;
+            }
+            lock.notifyAll();
+        }
+        changed.forEach(this::notifyListeners);
+    }
+
+    private void notifyListeners(Task task) {
+        for (Consumer<Task> listener : taskListeners) {
+            try {
+                listener.accept(task);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Task listener failed", e);
+            }
+        }
+    }
+
+    private static Task toTask(JsonNode node) throws IOException {
+        Task task = new Task();
+        task.setId(value(node.path("task_id")));
+        task.setName(text(node.path("name")));
+        task.setState(text(node.path("state")));
+        task.setFrameworkId(value(node.path("framework_id")));
+        task.setSlaveId(value(node.path("agent_id")));
+        task.setExecutorId(value(node.path("executor_id")));
+        task.setDiscovery(StateParser.convert(node.path("discovery"), Discovery.class));
+        return task;
+    }
+
+    private static Agent toAgent(JsonNode node) {
+        Agent agent = new Agent();
+        agent.setId(value(node.path("agent_info").path("id")));
+        agent.setHostname(text(node.path("agent_info").path("hostname")));
+        agent.setPid(text(node.path("pid")));
+        agent.setActive(node.path("active").asBoolean(false));
+        return agent;
+    }
+
+    private static Framework toFramework(JsonNode node) {
+        Framework framework = new Framework();
+        framework.setId(value(node.path("framework_info").path("id")));
+        framework.setName(text(node.path("framework_info").path("name")));
+        framework.setActive(node.path("active").asBoolean(false));
+        return framework;
+    }
+
+    /**
+     * @return value of an ID message of the operator API, e.g. <code>{"value": "..."}</code>
+     */
+    private static String value(JsonNode id) {
+        return text(id.path("value"));
+    }
+
+    private static String text(JsonNode node) {
+        return (node.isMissingNode() || node.isNull()) ? null : node.asText().intern();
+    }
+
+    private static boolean equals(String a, String b) {
+        return (a == null) ? b == null : a.equals(b);
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    /**
+     * Waits for a task of a cluster, as long as the cluster configuration allows
+     *
+     * @param predicate      to test tasks with
+     * @param timeoutSeconds time to wait
+     * @return matching task
+     * @throws MinimesosException if no task matched in time
+     */
+    Task waitForTask(Predicate<Task> predicate, int timeoutSeconds) {
+        try {
+            Task task = awaitTask(predicate, timeoutSeconds, TimeUnit.SECONDS);
+            if (task == null) {
+                throw new MinimesosException("No matching task found within " + timeoutSeconds + " seconds");
+            }
+            return task;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinimesosException("Interrupted while waiting for a task", e);
+        }
+    }
+
+}
@@ -3,6 +3,7 @@ package com.containersol.minimesos.mesos;
 import com.containersol.minimesos.MinimesosException;
 import com.containersol.minimesos.cluster.Consul;
 import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.ReadinessProbe;
 import com.containersol.minimesos.config.ConsulConfig;
 import com.containersol.minimesos.integrationtest.container.AbstractContainer;
 import com.containersol.minimesos.docker.DockerClientFactory;
@@ -10,10 +11,13 @@ import com.containersol.minimesos.util.Environment;
 import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.model.ExposedPort;
 import com.github.dockerjava.api.model.Ports;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * This is the Consul-in-a-container container. Consul adds service discovery through DNS, and a distributed k/v store.
@@ -41,6 +45,26 @@ public class ConsulContainer extends AbstractContainer implements Consul {
         return "consul";
     }
 
+    /**
+     * Consul is ready, when it has elected a leader
+     */
+    @Override
+    public ReadinessProbe getReadinessProbe() {
+        return () -> {
+            URI serviceUrl = getServiceUrl();
+            if (serviceUrl == null) {
+                return false;
+            }
+            try {
+                String leader = getHttpTransport().get(serviceUrl + "/v1/status/leader", body -> IOUtils.toString(body, StandardCharsets.UTF_8));
+                return StringUtils.isNotBlank(leader) && !"\"\"".equals(leader.trim());
+            } catch (IOException e) { //NOSONAR
+                // Consul is not listening yet
+                return false;
+            }
+        };
+    }
+
     @Override
     protected int getServicePort() {
         return ConsulConfig.CONSUL_HTTP_PORT;
@@ -3,11 +3,18 @@ package com.containersol.minimesos.mesos;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 
 import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.ClusterDescriptor;
 import com.containersol.minimesos.cluster.ClusterProcess;
 import com.containersol.minimesos.cluster.Consul;
 import com.containersol.minimesos.cluster.Filter;
@@ -22,9 +29,13 @@ import com.containersol.minimesos.cluster.ZooKeeper;
 import com.containersol.minimesos.config.ClusterConfig;
 import com.containersol.minimesos.config.ConfigParser;
 import com.containersol.minimesos.config.MesosMasterConfig;
+import com.containersol.minimesos.integrationtest.container.AbstractContainer;
 import com.containersol.minimesos.integrationtest.container.ContainerName;
+import com.containersol.minimesos.docker.ContainerMetadata;
+import com.containersol.minimesos.docker.ContainerMetadataCache;
 import com.containersol.minimesos.docker.DockerContainersUtil;
 import com.containersol.minimesos.marathon.MarathonContainer;
+import com.containersol.minimesos.util.ParallelUtil;
 import com.github.dockerjava.api.model.Container;
 
 import com.github.dockerjava.api.model.ContainerPort;
@@ -72,48 +83,101 @@ public class MesosClusterContainersFactory extends MesosClusterFactory {
         String clusterId = cluster.getClusterId();
         List<ClusterProcess> containers = cluster.getMemberProcesses();
 
-        List<Container> dockerContainers = DockerContainersUtil.getContainers(false).getContainers();
+        List<Container> dockerContainers = findClusterContainers(clusterId);
         dockerContainers.sort(Comparator.comparingLong(Container::getCreated));
+        // addresses of all members are resolved from this list instead of inspecting every container
+        ContainerMetadataCache.prime(dockerContainers);
 
         for (Container container : dockerContainers) {
-            String name = ContainerName.getFromDockerNames(container.getNames());
-            if (ContainerName.belongsToCluster(name, clusterId)) {
-
-                String containerId = container.getId();
-
-                String[] parts = name.split("-");
-                if (parts.length > 3) {
-
-                    String role = parts[1];
-                    String uuid = parts[3];
-
-                    switch (role) {
-                        case "zookeeper":
-                            containers.add(createZooKeeper(cluster, uuid, containerId));
-                            break;
-                        case "agent":
-                            containers.add(createMesosAgent(cluster, uuid, containerId));
-                            break;
-                        case "master":
-                            MesosMaster master = createMesosMaster(cluster, uuid, containerId);
-                            containers.add(master);
-
-                            restoreMapToPorts(cluster, container);
-                            break;
-                        case "marathon":
-                            containers.add(createMarathon(cluster, uuid, containerId));
-                            break;
-                        case "consul":
-                            containers.add(createConsul(cluster, uuid, containerId));
-                            break;
-                        case "registrator":
-                            containers.add(createRegistrator(cluster, uuid, containerId));
-                            break;
-                        case "mesosdns":
-                            containers.add(createMesosDns(cluster, uuid, containerId));
-                    }
+            Map<String, String> labels = (container.getLabels() != null) ? container.getLabels() : Collections.emptyMap();
+            String containerId = container.getId();
+            String role = labels.get(AbstractContainer.LABEL_ROLE);
+            String uuid = labels.get(AbstractContainer.LABEL_UUID);
+
+            if (role == null || uuid == null) {
+                // container created by an older version of minimesos
+                String[] parts = ContainerName.getFromDockerNames(container.getNames()).split("-");
+                if (parts.length <= 3) {
+                    continue;
                 }
+                role = parts[1];
+                uuid = parts[3];
             }
+
+            ClusterProcess process = createProcess(cluster, role, uuid, containerId);
+            if (process != null) {
+                if (process instanceof AbstractContainer) {
+                    ((AbstractContainer) process).setConfigHash(labels.get(AbstractContainer.LABEL_CONFIG_HASH));
+                }
+                if (process instanceof MesosMaster) {
+                    restoreMapToPorts(cluster, container);
+                }
+                containers.add(process);
+            }
+        }
+    }
+
+    @Override
+    public boolean restoreRunningCluster(MesosCluster cluster, ClusterDescriptor descriptor) {
+        cluster.setMapPortsToHost(descriptor.isMapPortsToHost());
+        for (ClusterDescriptor.Member member : descriptor.getMembers()) {
+            ClusterProcess process = createProcess(cluster, member.getRole(), member.getUuid(), member.getContainerId());
+            if (process == null) {
+                LOGGER.debug("Ignoring member with unknown role " + member.getRole());
+                continue;
+            }
+            if (process instanceof AbstractContainer) {
+                ((AbstractContainer) process).setConfigHash(member.getConfigHash());
+            }
+            if (member.getIpAddress() != null) {
+                ContainerMetadataCache.put(member.getContainerId(), new ContainerMetadata(member.getIpAddress(), member.getGateway()));
+            }
+            cluster.getMemberProcesses().add(process);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isRunningCluster(String clusterId, Collection<String> containerIds) {
+        Set<String> running = new HashSet<>();
+        for (Container container : DockerContainersUtil.getContainers(false, Collections.singletonMap(AbstractContainer.LABEL_CLUSTER_ID, clusterId)).getContainers()) {
+            running.add(container.getId());
+        }
+        return !running.isEmpty() && running.equals(new HashSet<>(containerIds));
+    }
+
+    @Override
+    public ClusterDescriptor describeRunningCluster(MesosCluster cluster) {
+        List<ClusterDescriptor.Member> members = new ArrayList<>();
+        for (ClusterProcess process : cluster.getMemberProcesses()) {
+            if (process instanceof AbstractContainer && process.getContainerId() != null) {
+                AbstractContainer container = (AbstractContainer) process;
+                ContainerMetadata metadata = ContainerMetadataCache.get(container.getContainerId());
+                members.add(new ClusterDescriptor.Member(container.getRole(), container.getUuid(), container.getContainerId(),
+                    metadata.getIpAddress(), metadata.getGateway(), container.getConfigHash()));
+            }
+        }
+        return new ClusterDescriptor(cluster.getClusterId(), cluster.isMapPortsToHost(), members);
+    }
+
+    private ClusterProcess createProcess(MesosCluster cluster, String role, String uuid, String containerId) {
+        switch (role) {
+            case "zookeeper":
+                return createZooKeeper(cluster, uuid, containerId);
+            case "agent":
+                return createMesosAgent(cluster, uuid, containerId);
+            case "master":
+                return createMesosMaster(cluster, uuid, containerId);
+            case "marathon":
+                return createMarathon(cluster, uuid, containerId);
+            case "consul":
+                return createConsul(cluster, uuid, containerId);
+            case "registrator":
+                return createRegistrator(cluster, uuid, containerId);
+            case "mesosdns":
+                return createMesosDns(cluster, uuid, containerId);
+            default:
+                return null;
         }
     }
 
@@ -131,7 +195,31 @@ public class MesosClusterContainersFactory extends MesosClusterFactory {
 
     @Override
     public void destroyRunningCluster(String clusterId) {
-        DockerContainersUtil.getContainers(true).filterByName(ContainerName.getContainerNamePattern(clusterId)).kill(true).remove();
+        // members of clusters started by older versions of minimesos were loaded by name and are removed already
+        List<Container> containers = DockerContainersUtil.getContainers(true, Collections.singletonMap(AbstractContainer.LABEL_CLUSTER_ID, clusterId)).getContainers();
+        ParallelUtil.forEach("remove containers", containers, MesosCluster.DEFAULT_PARALLELISM,
+            container -> DockerContainersUtil.removeContainer(container.getId()));
+    }
+
+    /**
+     * Lists running containers labelled with the cluster ID. Containers of clusters started by older versions of minimesos are not
+     * labelled, so all containers are matched by name, if no container carries the label of the cluster.
+     *
+     * @param clusterId ID of the cluster
+     * @return containers of the cluster
+     */
+    private static List<Container> findClusterContainers(String clusterId) {
+        List<Container> containers = new ArrayList<>(DockerContainersUtil.getContainers(false, Collections.singletonMap(AbstractContainer.LABEL_CLUSTER_ID, clusterId)).getContainers());
+
+        if (containers.isEmpty()) {
+            for (Container container : DockerContainersUtil.getContainers(false).getContainers()) {
+                boolean labelled = container.getLabels() != null && container.getLabels().containsKey(AbstractContainer.LABEL_CLUSTER_ID);
+                if (!labelled && ContainerName.belongsToCluster(container.getNames(), clusterId)) {
+                    containers.add(container);
+                }
+            }
+        }
+        return containers;
     }
 
     public MesosCluster createMesosCluster(String path) {
@@ -1,24 +1,28 @@
 package com.containersol.minimesos.mesos;
 
 import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.ClusterProcess;
 import com.containersol.minimesos.cluster.MesosCluster;
 import com.containersol.minimesos.cluster.MesosContainer;
+import com.containersol.minimesos.cluster.MesosDns;
 import com.containersol.minimesos.cluster.ZooKeeper;
 import com.containersol.minimesos.config.MesosContainerConfig;
 import com.containersol.minimesos.config.ZooKeeperConfig;
 import com.containersol.minimesos.integrationtest.container.AbstractContainer;
 import com.containersol.minimesos.state.State;
-import com.fasterxml.jackson.core.JsonParseException;
-import com.fasterxml.jackson.databind.JsonMappingException;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.JsonNode;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import com.mashape.unirest.request.GetRequest;
+import com.containersol.minimesos.state.StateParser;
+import com.containersol.minimesos.util.HttpTransport;
 import org.json.JSONObject;
+import org.json.JSONTokener;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Superclass for Mesos master and agent images.
@@ -68,6 +72,22 @@ public abstract class MesosContainerImpl extends AbstractContainer implements Me
         return zooKeeperContainer;
     }
 
+    /**
+     * Mesos containers connect to ZooKeeper and, if the cluster has one, resolve names with Mesos DNS
+     */
+    @Override
+    public List<ClusterProcess> getDependencies() {
+        List<ClusterProcess> dependencies = new ArrayList<>();
+        if (zooKeeperContainer != null) {
+            dependencies.add(zooKeeperContainer);
+        }
+        MesosDns mesosDns = (getCluster() != null) ? getCluster().getMesosDns() : null;
+        if (mesosDns != null) {
+            dependencies.add(mesosDns);
+        }
+        return dependencies;
+    }
+
     public String getFormattedZKAddress() {
         return zooKeeperContainer.getFormattedZKAddress() + ZooKeeperConfig.DEFAULT_MESOS_ZK_PATH;
     }
@@ -76,12 +96,12 @@ public abstract class MesosContainerImpl extends AbstractContainer implements Me
         return getServiceUrl().toString() + "/state.json";
     }
 
+    /**
+     * Retrieves the state as a JSON tree, which is printed by the 'state' command. Use {@link #getState()} to work with the state
+     */
     @Override
-    public JSONObject getStateInfoJSON() throws UnirestException {
-        String stateUrl = getStateUrl();
-        GetRequest request = Unirest.get(stateUrl);
-        HttpResponse<JsonNode> response = request.asJson();
-        return response.getBody().getObject();
+    public JSONObject getStateInfoJSON() {
+        return getJson("/state.json", body -> new JSONObject(new JSONTokener(new InputStreamReader(body, StandardCharsets.UTF_8))));
     }
 
     public String getLoggingLevel() {
@@ -92,12 +112,46 @@ public abstract class MesosContainerImpl extends AbstractContainer implements Me
         return level;
     }
 
+    /**
+     * Retrieves the state and decodes it while the response is read, without building the whole JSON document in memory
+     */
     @Override
     public State getState() {
+        return getJson("/state.json", State::fromStream);
+    }
+
+    @Override
+    public CompletableFuture<State> getStateAsync() {
+        return getHttpTransport().getAsync(getServiceUrl() + "/state.json", State::fromStream);
+    }
+
+    @Override
+    public Map<String, Double> getMetrics() {
+        return getJson("/metrics/snapshot", body -> {
+            Map<String, Double> metrics = new TreeMap<>();
+            Map<?, ?> snapshot = StateParser.read(body, Map.class);
+            snapshot.forEach((name, value) -> {
+                if (value instanceof Number) {
+                    metrics.put(name.toString(), ((Number) value).doubleValue());
+                }
+            });
+            return metrics;
+        });
+    }
+
+    /**
+     * Requests an endpoint of the container and decodes the response while it is read
+     *
+     * @param pathAndQuery of the endpoint, e.g. <code>/master/tasks?limit=100</code>
+     * @param decoder      of the response body
+     * @param <T>          type of the result
+     * @return decoded response
+     */
+    protected <T> T getJson(String pathAndQuery, HttpTransport.ResponseDecoder<T> decoder) {
         try {
-            return State.fromJSON(getStateInfoJSON().toString());
-        } catch (JsonParseException | JsonMappingException | UnirestException e) {
-            throw new MinimesosException("Could not retrieve state from Mesos container: " + getName(), e);
+            return getHttpTransport().get(getServiceUrl() + pathAndQuery, decoder);
+        } catch (IOException e) {
+            throw new MinimesosException("Could not retrieve " + pathAndQuery + " from Mesos container: " + getName(), e);
         }
     }
 }
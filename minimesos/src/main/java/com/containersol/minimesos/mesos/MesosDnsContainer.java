@@ -1,7 +1,9 @@
 package com.containersol.minimesos.mesos;
 
+import com.containersol.minimesos.cluster.ClusterProcess;
 import com.containersol.minimesos.cluster.MesosCluster;
 import com.containersol.minimesos.cluster.MesosDns;
+import com.containersol.minimesos.cluster.ZooKeeper;
 import com.containersol.minimesos.config.MesosDNSConfig;
 import com.containersol.minimesos.integrationtest.container.AbstractContainer;
 import com.containersol.minimesos.docker.DockerClientFactory;
@@ -9,7 +11,9 @@ import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.model.ExposedPort;
 import com.github.dockerjava.api.model.InternetProtocol;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.containersol.minimesos.util.EnvironmentBuilder.newEnvironment;
@@ -46,6 +50,12 @@ public class MesosDnsContainer extends AbstractContainer implements MesosDns {
         return "mesosdns";
     }
 
+    @Override
+    public List<ClusterProcess> getDependencies() {
+        ZooKeeper zooKeeper = (getCluster() != null) ? getCluster().getZooKeeper() : null;
+        return (zooKeeper != null) ? Collections.singletonList(zooKeeper) : Collections.emptyList();
+    }
+
     @Override
     protected CreateContainerCmd dockerCommand() {
         return DockerClientFactory.build()
@@ -4,34 +4,54 @@ import com.containersol.minimesos.MinimesosException;
 import com.containersol.minimesos.cluster.MesosCluster;
 import com.containersol.minimesos.cluster.MesosDns;
 import com.containersol.minimesos.cluster.MesosMaster;
+import com.containersol.minimesos.cluster.ReadinessProbe;
 import com.containersol.minimesos.config.ClusterConfig;
 import com.containersol.minimesos.config.MesosMasterConfig;
 import com.containersol.minimesos.docker.DockerClientFactory;
+import com.containersol.minimesos.state.Agent;
+import com.containersol.minimesos.state.Framework;
+import com.containersol.minimesos.state.StateParser;
+import com.containersol.minimesos.state.StateSummary;
+import com.containersol.minimesos.state.Task;
 import com.containersol.minimesos.util.Environment;
+import com.containersol.minimesos.util.ExponentialBackoff;
+import com.containersol.minimesos.util.Predicate;
 import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.model.ExposedPort;
 import com.github.dockerjava.api.model.Ports;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.NameValuePair;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.message.BasicNameValuePair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static com.containersol.minimesos.util.EnvironmentBuilder.newEnvironment;
-import static com.jayway.awaitility.Awaitility.await;
 
 /**
  * Mesos Master adds the "server" component for Apache Mesos
  */
 public class MesosMasterContainer extends MesosContainerImpl implements MesosMaster {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MesosMasterContainer.class);
+
+    private ClusterStateWatcher watcher;
+
     public MesosMasterContainer(MesosCluster cluster, String uuid, String containerId) {
         this(cluster, uuid, containerId, new MesosMasterConfig(ClusterConfig.DEFAULT_MESOS_VERSION));
     }
@@ -124,11 +144,130 @@ public class MesosMasterContainer extends MesosContainerImpl implements MesosMas
         return cmd;
     }
 
+    /**
+     * Master is ready, when it answers to <code>/health</code>
+     */
+    @Override
+    public ReadinessProbe getReadinessProbe() {
+        return () -> getServiceUrl() != null && respondsWithOk(getServiceUrl() + "/health");
+    }
+
     @Override
     public void waitFor() {
         new MesosMasterContainer.MesosClusterStateResponse(getCluster()).waitFor();
     }
 
+    @Override
+    public String getVersion() {
+        return getJson("/version", body -> (String) StateParser.read(body, Map.class).get("version"));
+    }
+
+    @Override
+    public List<Agent> getRegisteredAgents() {
+        List<Agent> agents = new ArrayList<>();
+        getJson("/master/slaves", body -> StateParser.forEach(body, "slaves", Agent.class, agents::add));
+        return agents;
+    }
+
+    @Override
+    public List<Framework> getFrameworks() {
+        List<Framework> frameworks = new ArrayList<>();
+        getJson("/master/frameworks", body -> StateParser.forEach(body, "frameworks", Framework.class, frameworks::add));
+        return frameworks;
+    }
+
+    @Override
+    public StateSummary getStateSummary() {
+        return getJson("/state-summary", body -> StateParser.read(body, StateSummary.class));
+    }
+
+    @Override
+    public int forEachTask(int pageSize, Consumer<Task> action) {
+        int offset = 0;
+        while (true) {
+            String page = String.format("/master/tasks?limit=%d&offset=%d&order=asc", pageSize, offset);
+            int count = getJson(page, body -> StateParser.forEach(body, "tasks", Task.class, action));
+            offset += count;
+            if (count < pageSize) {
+                return offset;
+            }
+        }
+    }
+
+    @Override
+    public Task waitForTask(Predicate<Task> predicate, int timeoutSeconds) {
+        return getWatcher().waitForTask(predicate::test, timeoutSeconds);
+    }
+
+    private synchronized ClusterStateWatcher getWatcher() {
+        if (watcher == null) {
+            watcher = new ClusterStateWatcher(this, getHttpTransport()).start();
+        }
+        return watcher;
+    }
+
+    @Override
+    public void remove() {
+        stopWatcher();
+        super.remove();
+    }
+
+    /**
+     * Stops following changes of the cluster, which were followed to wait for tasks
+     */
+    protected synchronized void stopWatcher() {
+        if (watcher != null) {
+            watcher.close();
+            watcher = null;
+        }
+    }
+
+    @Override
+    public void teardownFrameworks(Set<String> keptFrameworks) {
+        String teardownUrl = getServiceUrl() + "/master/teardown";
+        for (Framework framework : getStateSummary().getFrameworks()) {
+            if (keptFrameworks.contains(framework.getName())) {
+                continue;
+            }
+            HttpPost request = new HttpPost(teardownUrl);
+            List<NameValuePair> form = Collections.singletonList(new BasicNameValuePair("frameworkId", framework.getId()));
+            request.setEntity(new UrlEncodedFormEntity(form, StandardCharsets.UTF_8));
+            try {
+                getHttpTransport().execute(request, response -> response.getStatusLine().getStatusCode());
+                LOGGER.debug("Tore down framework " + framework.getName() + " (" + framework.getId() + ")");
+            } catch (IOException e) { //NOSONAR
+                // failed to tear down one framework; continue with others
+                LOGGER.error("Could not tear down framework " + framework.getId() + " at " + teardownUrl, e);
+            }
+        }
+    }
+
+    @Override
+    public void waitForIdleAgents(int timeoutSeconds) {
+        boolean idle;
+        try {
+            idle = new ExponentialBackoff().await(this::areAgentsIdle, timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinimesosException("Interrupted while waiting for Mesos agents to free resources", e);
+        }
+        if (!idle) {
+            throw new MinimesosException("Mesos agents did not free their resources within " + timeoutSeconds + " seconds");
+        }
+    }
+
+    private boolean areAgentsIdle() {
+        try {
+            return getRegisteredAgents().stream().noneMatch(agent -> agent.getUsedResource("cpus") > 0 || agent.getUsedResource("mem") > 0);
+        } catch (MinimesosException e) { //NOSONAR
+            // master is not reachable; check again later
+            return false;
+        }
+    }
+
+    /**
+     * Checks whether all agents of the cluster are registered and active. Only the list of agents is retrieved, not the whole state.
+     */
     public static class MesosClusterStateResponse implements Callable<Boolean> {
 
         private static final Logger LOGGER = LoggerFactory.getLogger(MesosClusterStateResponse.class);
@@ -141,20 +280,15 @@ public class MesosMasterContainer extends MesosContainerImpl implements MesosMas
 
         @Override
         public Boolean call() throws Exception {
-            String stateUrl = mesosCluster.getMaster().getStateUrl();
             try {
-                int activatedAgents = Unirest.get(stateUrl).asJson().getBody().getObject().getInt("activated_slaves");
+                long activatedAgents = mesosCluster.getMaster().getRegisteredAgents().stream().filter(Agent::isActive).count();
                 if (activatedAgents != mesosCluster.getAgents().size()) {
                     LOGGER.debug("Waiting for " + mesosCluster.getAgents().size() + " activated agents - current number of activated agents: " + activatedAgents);
                     return false;
                 }
-            } catch (UnirestException e) { //NOSONAR
-                // in case of error just return false
-                LOGGER.debug("Polling Mesos Master state on host: \"" + stateUrl + "\"...");
-                return false;
-            } catch (Exception e) { //NOSONAR
+            } catch (MinimesosException e) { //NOSONAR
                 // in case of error just return false
-                LOGGER.error("An error occured while polling Mesos master", e);
+                LOGGER.debug("Polling Mesos Master agents: " + e.getMessage());
                 return false;
             }
 
@@ -162,12 +296,27 @@ public class MesosMasterContainer extends MesosContainerImpl implements MesosMas
         }
 
         public void waitFor() {
-            await("Waiting until Mesos master state endpoint is available")
-                    .atMost(mesosCluster.getClusterConfig().getTimeout(), TimeUnit.SECONDS)
-                    .pollInterval(1, TimeUnit.SECONDS)
-                    .until(this);
+            boolean registered;
+            try {
+                registered = new ExponentialBackoff().await(this::isReady, mesosCluster.getClusterConfig().getTimeout(), TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new MinimesosException("Interrupted while waiting for Mesos agents", e);
+            }
+            if (!registered) {
+                throw new MinimesosException("Waiting until Mesos master state endpoint is available timed out after " + mesosCluster.getClusterConfig().getTimeout() + " seconds");
+            }
 
             LOGGER.debug("MesosMaster state discovered successfully");
         }
+
+        private boolean isReady() {
+            try {
+                return call();
+            } catch (Exception e) { //NOSONAR
+                // in case of error just return false
+                return false;
+            }
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.containersol.minimesos.mesos;
 
+import com.containersol.minimesos.cluster.ClusterProcess;
 import com.containersol.minimesos.cluster.Consul;
 import com.containersol.minimesos.cluster.MesosCluster;
 import com.containersol.minimesos.cluster.Registrator;
@@ -10,6 +11,9 @@ import com.containersol.minimesos.docker.DockerClientFactory;
 import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.model.Bind;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Registrator automatically registers and deregisters services for any Docker container by inspecting containers as they come online.
  */
@@ -38,6 +42,11 @@ public class RegistratorContainer extends AbstractContainer implements Registrat
         return "registrator";
     }
 
+    @Override
+    public List<ClusterProcess> getDependencies() {
+        return (consul != null) ? Collections.singletonList(consul) : Collections.emptyList();
+    }
+
     @Override
     protected CreateContainerCmd dockerCommand() {
          return DockerClientFactory.build().createContainerCmd(config.getImageName() + ":" + config.getImageTag())
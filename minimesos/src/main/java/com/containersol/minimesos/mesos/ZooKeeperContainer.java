@@ -2,24 +2,46 @@ package com.containersol.minimesos.mesos;
 
 import com.containersol.minimesos.MinimesosException;
 import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.ReadinessProbe;
 import com.containersol.minimesos.cluster.ZooKeeper;
 import com.containersol.minimesos.config.ZooKeeperConfig;
 import com.containersol.minimesos.integrationtest.container.AbstractContainer;
 import com.containersol.minimesos.docker.DockerClientFactory;
 import com.containersol.minimesos.util.Environment;
+import com.github.dockerjava.api.DockerClient;
 import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.model.ExposedPort;
 import com.github.dockerjava.api.model.Ports;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * ZooKeeper is a centralized service for maintaining configuration information, naming, providing distributed synchronization, and providing group services.
  */
 public class ZooKeeperContainer extends AbstractContainer implements ZooKeeper {
 
+    private static final int COMMAND_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * Directory, where ZooKeeper image stores its data, and its parent
+     */
+    private static final String DATA_PARENT_DIR = "/tmp";
+
+    private static final String DATA_DIR = DATA_PARENT_DIR + "/zookeeper";
+
+    private File initialData = null;
+
     private final ZooKeeperConfig config;
 
     public ZooKeeperContainer(ZooKeeperConfig config) {
@@ -76,6 +98,67 @@ public class ZooKeeperContainer extends AbstractContainer implements ZooKeeper {
         return ZooKeeperConfig.DEFAULT_MESOS_ZK_PATH;
     }
 
+    /**
+     * ZooKeeper is ready, when it answers <code>imok</code> to the <code>ruok</code> command
+     */
+    @Override
+    public ReadinessProbe getReadinessProbe() {
+        return () -> "imok".equals(sendCommand("ruok"));
+    }
+
+    private String sendCommand(String command) {
+        URI serviceUrl = getServiceUrl();
+        if (serviceUrl == null) {
+            return null;
+        }
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(serviceUrl.getHost(), serviceUrl.getPort()), COMMAND_TIMEOUT_MILLIS);
+            socket.setSoTimeout(COMMAND_TIMEOUT_MILLIS);
+            socket.getOutputStream().write(command.getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+            return IOUtils.toString(socket.getInputStream(), StandardCharsets.US_ASCII).trim();
+        } catch (IOException e) { //NOSONAR
+            // ZooKeeper is not listening yet
+            return null;
+        }
+    }
+
+    /**
+     * Container is paused while the data is copied, so the snapshot and transaction logs are consistent
+     */
+    @Override
+    public void saveData(File archive) {
+        DockerClient dockerClient = DockerClientFactory.build();
+        dockerClient.pauseContainerCmd(getContainerId()).exec();
+        try (InputStream tar = dockerClient.copyArchiveFromContainerCmd(getContainerId(), DATA_DIR).exec()) {
+            FileUtils.copyInputStreamToFile(tar, archive);
+        } catch (IOException e) {
+            throw new MinimesosException("Failed to save ZooKeeper data to " + archive.getAbsolutePath(), e);
+        } finally {
+            dockerClient.unpauseContainerCmd(getContainerId()).exec();
+        }
+    }
+
+    @Override
+    public void setInitialData(File archive) {
+        this.initialData = archive;
+    }
+
+    @Override
+    protected void beforeStart() {
+        if (initialData == null) {
+            return;
+        }
+        try (InputStream tar = new FileInputStream(initialData)) {
+            DockerClientFactory.build().copyArchiveToContainerCmd(getContainerId())
+                .withTarInputStream(tar)
+                .withRemotePath(DATA_PARENT_DIR)
+                .exec();
+        } catch (IOException e) {
+            throw new MinimesosException("Failed to restore ZooKeeper data from " + initialData.getAbsolutePath(), e);
+        }
+    }
+
     /**
      * @return ZooKeeper URL based on real IP address
      */
@@ -0,0 +1,91 @@
+package com.containersol.minimesos.state;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+/**
+ * Maps an agent, as it is listed in the state of the master, from JSON string to Java object
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Agent {
+
+    private String id;
+
+    @JsonDeserialize(using = InternedStringDeserializer.class)
+    private String hostname;
+
+    private String pid;
+
+    private boolean active;
+
+    @JsonProperty("used_resources")
+    private Map<String, Object> usedResources = new HashMap<>();
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    public void setHostname(String hostname) {
+        this.hostname = hostname;
+    }
+
+    /**
+     * @return process ID of the agent, e.g. <code>slave(1)@172.17.0.7:5051</code>
+     */
+    public String getPid() {
+        return pid;
+    }
+
+    public void setPid(String pid) {
+        this.pid = pid;
+    }
+
+    /**
+     * @return IP address the agent listens on, taken from its process ID, or null if it is not known
+     */
+    public String getPidHost() {
+        if (pid == null || pid.indexOf('@') < 0) {
+            return null;
+        }
+        String address = pid.substring(pid.indexOf('@') + 1);
+        int colon = address.lastIndexOf(':');
+        return (colon >= 0) ? address.substring(0, colon) : address;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+
+    public Map<String, Object> getUsedResources() {
+        return usedResources;
+    }
+
+    public void setUsedResources(Map<String, Object> usedResources) {
+        this.usedResources = usedResources;
+    }
+
+    /**
+     * @param name of a scalar resource, e.g. <code>cpus</code>
+     * @return amount of the resource used by tasks on the agent
+     */
+    public double getUsedResource(String name) {
+        Object value = usedResources.get(name);
+        return (value instanceof Number) ? ((Number) value).doubleValue() : 0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.containersol.minimesos.state;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+/**
+ * Interns values, which repeat across tasks of a state, like framework and agent IDs or task states, so that every task does not hold
+ * a copy of them
+ */
+class InternedStringDeserializer extends StdScalarDeserializer<String> {
+
+    InternedStringDeserializer() {
+        super(String.class);
+    }
+
+    @Override
+    public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        String value = parser.getValueAsString();
+        return (value != null) ? value.intern() : null;
+    }
+}
@@ -1,15 +1,17 @@
 package com.containersol.minimesos.state;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 /**
  * This class is populated with the results from a GET request to /state.json on a mesos-master.
@@ -17,6 +19,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class State {
 
+    /**
+     * Readers are immutable and thread-safe, so all callers share one with its cached deserializers. Properties, which are not mapped,
+     * are skipped by the parser without building them
+     */
+    private static final ObjectReader READER = StateParser.readerFor(State.class);
+
     private String id;
     private Map<String, String> flags = new HashMap<>();
 
@@ -28,28 +36,68 @@ public class State {
 
     private ArrayList<Framework> frameworks = new ArrayList<>();
 
+    @JsonProperty("slaves")
+    private ArrayList<Agent> agents = new ArrayList<>();
+
+    @JsonIgnore
+    private volatile StateIndex index;
+
     public static State fromJSON(String jsonString) throws JsonParseException, JsonMappingException {
-        ObjectMapper mapper = new ObjectMapper();
         try {
-            return mapper.readValue(jsonString, State.class);
+            return READER.readValue(jsonString);
+        } catch (JsonParseException | JsonMappingException e) {
+            throw e;
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Decodes the state while it is read, e.g. directly from the body of an HTTP response
+     *
+     * @param stream with state JSON, which is not closed
+     * @return decoded state
+     * @throws IOException if the stream cannot be read or does not contain a state
+     */
+    public static State fromStream(InputStream stream) throws IOException {
+        return READER.readValue(stream);
+    }
+
     public ArrayList<Framework> getFrameworks() {
         return frameworks;
     }
 
     public void setFrameworks(ArrayList<Framework> frameworks) {
         this.frameworks = frameworks;
+        this.index = null;
     }
 
     public Framework getFramework(String name) {
-        for (Framework fw : getFrameworks()) {
-            if (fw.getName().equals(name)) return fw;
+        return getIndex().getFrameworkByName(name);
+    }
+
+    /**
+     * @return agents known to the master. Empty in the state of an agent
+     */
+    public ArrayList<Agent> getAgents() {
+        return agents;
+    }
+
+    public void setAgents(ArrayList<Agent> agents) {
+        this.agents = agents;
+        this.index = null;
+    }
+
+    /**
+     * @return index of frameworks, tasks, agents and executors, which is built on first use
+     */
+    public StateIndex getIndex() {
+        StateIndex result = index;
+        if (result == null) {
+            result = new StateIndex(this);
+            index = result;
         }
-        return null;
+        return result;
     }
 
     public Map<String, String> getFlags() {
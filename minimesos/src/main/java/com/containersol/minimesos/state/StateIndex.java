@@ -0,0 +1,121 @@
+package com.containersol.minimesos.state;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Lookups of frameworks, tasks, agents and executors of a {@link State} by their IDs. The index is built once from the state and
+ * does not follow later changes of it.
+ */
+public class StateIndex {
+
+    private final Map<String, Task> tasksById = new HashMap<>();
+
+    private final NavigableMap<String, Task> tasksByIdOrder = new TreeMap<>();
+
+    private final Map<String, Framework> frameworksById = new HashMap<>();
+
+    private final Map<String, Framework> frameworksByName = new HashMap<>();
+
+    private final Map<String, Agent> agentsById = new HashMap<>();
+
+    private final Map<String, Map<String, Executor>> executorsByFrameworkId = new HashMap<>();
+
+    StateIndex(State state) {
+        for (Framework framework : state.getFrameworks()) {
+            frameworksById.putIfAbsent(framework.getId(), framework);
+            frameworksByName.putIfAbsent(framework.getName(), framework);
+            if (framework.getTasks() != null) {
+                for (Task task : framework.getTasks()) {
+                    tasksById.putIfAbsent(task.getId(), task);
+                }
+            }
+            if (framework.getExecutors() != null) {
+                Map<String, Executor> executors = executorsByFrameworkId.computeIfAbsent(framework.getId(), id -> new HashMap<>());
+                for (Executor executor : framework.getExecutors()) {
+                    executors.putIfAbsent(executor.getId(), executor);
+                }
+            }
+        }
+        tasksById.forEach((id, task) -> {
+            if (id != null) {
+                tasksByIdOrder.put(id, task);
+            }
+        });
+        for (Agent agent : state.getAgents()) {
+            agentsById.putIfAbsent(agent.getId(), agent);
+        }
+    }
+
+    /**
+     * @return task with the given ID or null
+     */
+    public Task getTask(String taskId) {
+        return tasksById.get(taskId);
+    }
+
+    /**
+     * @param prefix beginning of task IDs
+     * @return tasks, which IDs start with the prefix, ordered by their IDs
+     */
+    public Map<String, Task> getTasksByPrefix(String prefix) {
+        if (prefix.isEmpty()) {
+            return Collections.unmodifiableMap(tasksByIdOrder);
+        }
+        return Collections.unmodifiableMap(tasksByIdOrder.subMap(prefix, true, prefix + Character.MAX_VALUE, false));
+    }
+
+    /**
+     * Finds a task the way users refer to it: by its ID, by the beginning of its ID or by any part of its ID
+     *
+     * @param taskId ID or part of the ID of a task
+     * @return first matching task or null
+     */
+    public Task findTask(String taskId) {
+        Task task = tasksById.get(taskId);
+        if (task != null) {
+            return task;
+        }
+        Map<String, Task> byPrefix = getTasksByPrefix(taskId);
+        if (!byPrefix.isEmpty()) {
+            return byPrefix.values().iterator().next();
+        }
+        for (Map.Entry<String, Task> entry : tasksByIdOrder.entrySet()) {
+            if (entry.getKey().contains(taskId)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public Framework getFramework(String frameworkId) {
+        return frameworksById.get(frameworkId);
+    }
+
+    public Framework getFrameworkByName(String name) {
+        return frameworksByName.get(name);
+    }
+
+    /**
+     * @return agent with the given ID, as it is listed by the master, or null
+     */
+    public Agent getAgent(String agentId) {
+        return agentsById.get(agentId);
+    }
+
+    /**
+     * @return executor of the framework with the given ID, as it is listed by the agent running it, or null
+     */
+    public Executor getExecutor(String frameworkId, String executorId) {
+        Map<String, Executor> executors = executorsByFrameworkId.get(frameworkId);
+        return (executors != null) ? executors.get(executorId) : null;
+    }
+
+    public int getTaskCount() {
+        return tasksById.size();
+    }
+
+}
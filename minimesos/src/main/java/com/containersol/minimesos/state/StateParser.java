@@ -0,0 +1,99 @@
+package com.containersol.minimesos.state;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Decodes responses of Mesos endpoints while they are read. All callers share one mapper with its cached deserializers.
+ */
+public final class StateParser {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .configure(JsonParser.Feature.AUTO_CLOSE_SOURCE, false);
+
+    private StateParser() {
+        // do not allow creation of instances
+    }
+
+    /**
+     * @param stream with JSON, which is not closed
+     * @param type   to decode the JSON into
+     * @param <T>    type of the result
+     * @return decoded object
+     * @throws IOException if the stream cannot be read or does not match the type
+     */
+    public static <T> T read(InputStream stream, Class<T> type) throws IOException {
+        return readerFor(type).readValue(stream);
+    }
+
+    /**
+     * @param json small document, e.g. an event of the Mesos operator API
+     * @return tree of the document
+     * @throws IOException if the document is not JSON
+     */
+    public static JsonNode readTree(byte[] json) throws IOException {
+        return MAPPER.readTree(json);
+    }
+
+    /**
+     * @param node part of a tree
+     * @param type to decode the part into
+     * @param <T>  type of the result
+     * @return decoded object or null, if the node is missing
+     * @throws IOException if the node does not match the type
+     */
+    public static <T> T convert(JsonNode node, Class<T> type) throws IOException {
+        if (node == null || node.isMissingNode() || node.isNull()) {
+            return null;
+        }
+        return MAPPER.treeToValue(node, type);
+    }
+
+    static ObjectReader readerFor(Class<?> type) {
+        return MAPPER.readerFor(type);
+    }
+
+    /**
+     * Decodes the elements of a top level array one by one, without building the array or other properties of the document
+     *
+     * @param stream with JSON object, which is not closed
+     * @param field  name of the array property, e.g. <code>tasks</code>
+     * @param type   of the elements
+     * @param action to call for every element
+     * @param <T>    type of the elements
+     * @return number of elements
+     * @throws IOException if the stream cannot be read or does not contain a JSON object
+     */
+    public static <T> int forEach(InputStream stream, String field, Class<T> type, Consumer<T> action) throws IOException {
+        ObjectReader reader = readerFor(type);
+        int count = 0;
+        try (JsonParser parser = MAPPER.getFactory().createParser(stream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected JSON object with '" + field + "' array");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (!field.equals(name) || value != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    action.accept(reader.readValue(parser));
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.containersol.minimesos.state;
+
+import java.util.ArrayList;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Maps <code>/state-summary</code> of a Mesos master: frameworks and agents without their tasks
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class StateSummary {
+
+    private String hostname;
+
+    private ArrayList<Framework> frameworks = new ArrayList<>();
+
+    @JsonProperty("slaves")
+    private ArrayList<Agent> agents = new ArrayList<>();
+
+    public String getHostname() {
+        return hostname;
+    }
+
+    public void setHostname(String hostname) {
+        this.hostname = hostname;
+    }
+
+    public ArrayList<Framework> getFrameworks() {
+        return frameworks;
+    }
+
+    public void setFrameworks(ArrayList<Framework> frameworks) {
+        this.frameworks = frameworks;
+    }
+
+    public ArrayList<Agent> getAgents() {
+        return agents;
+    }
+
+    public void setAgents(ArrayList<Agent> agents) {
+        this.agents = agents;
+    }
+}
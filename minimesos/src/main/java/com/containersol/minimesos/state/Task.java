@@ -1,7 +1,13 @@
 package com.containersol.minimesos.state;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Maps Mesos task properties from JSON string to Java object
@@ -9,17 +15,26 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Task {
 
+    /**
+     * States of tasks, which do not run anymore. The master keeps reporting them until they are evicted
+     */
+    private static final Set<String> TERMINAL_STATES = new HashSet<>(Arrays.asList(
+        "TASK_FINISHED", "TASK_FAILED", "TASK_KILLED", "TASK_ERROR", "TASK_LOST", "TASK_DROPPED", "TASK_GONE", "TASK_GONE_BY_OPERATOR"));
+
     private String id;
     private String name;
+    @JsonDeserialize(using = InternedStringDeserializer.class)
     private String state;
 
     @JsonProperty("framework_id")
+    @JsonDeserialize(using = InternedStringDeserializer.class)
     private String frameworkId;
 
     @JsonProperty("executor_id")
     private String executorId;
 
     @JsonProperty("slave_id")
+    @JsonDeserialize(using = InternedStringDeserializer.class)
     private String slaveId;
 
     private Discovery discovery;
@@ -79,4 +94,12 @@ public class Task {
     public void setDiscovery(Discovery discovery) {
         this.discovery = discovery;
     }
+
+    /**
+     * @return true, if the task does not run anymore
+     */
+    @JsonIgnore
+    public boolean isTerminal() {
+        return TERMINAL_STATES.contains(state);
+    }
 }
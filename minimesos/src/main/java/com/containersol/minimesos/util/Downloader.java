@@ -1,27 +1,34 @@
 package com.containersol.minimesos.util;
 
 import com.containersol.minimesos.MinimesosException;
-import com.mashape.unirest.http.HttpResponse;
-import com.mashape.unirest.http.Unirest;
-import com.mashape.unirest.http.exceptions.UnirestException;
-import org.apache.http.HttpStatus;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.HttpResponseException;
 
-import java.net.URI;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 public class Downloader {
 
+    private final HttpTransport transport;
+
+    public Downloader() {
+        this(HttpTransport.getDefault());
+    }
+
+    /**
+     * @param transport to fetch files with, usually the one of the cluster the files are fetched from
+     */
+    public Downloader(HttpTransport transport) {
+        this.transport = transport;
+    }
+
     public String getFileContentAsString(String url) throws MinimesosException {
-        HttpResponse<String> response = null;
         try {
-            response = Unirest.get(url)
-                .header("content-type", "*/*")
-                .asString();
-        } catch (UnirestException e) {
+            return transport.get(url, body -> IOUtils.toString(body, StandardCharsets.UTF_8));
+        } catch (HttpResponseException e) {
+            throw new MinimesosException(String.format("Cannot fetch file '%s': '%s'", url, e.getStatusCode()));
+        } catch (IOException e) {
             throw new MinimesosException(String.format("Cannot fetch file '%s': '%s'", url, e.getMessage()));
         }
-        if (response.getStatus() != HttpStatus.SC_OK) {
-            throw new MinimesosException(String.format("Cannot fetch file '%s': '%s'", url, response.getStatus()));
-        }
-        return response.getBody();
     }
 }
@@ -0,0 +1,64 @@
+package com.containersol.minimesos.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Polls a condition with exponentially growing, jittered delays. Short initial delays let fast conditions complete almost
+ * immediately, while the cap keeps slow ones from being polled too often.
+ */
+public class ExponentialBackoff {
+
+    public static final long DEFAULT_INITIAL_DELAY_MILLIS = 5;
+
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 1000;
+
+    private final long initialDelayMillis;
+
+    private final long maxDelayMillis;
+
+    public ExponentialBackoff() {
+        this(DEFAULT_INITIAL_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    /**
+     * @param initialDelayMillis delay before the second check
+     * @param maxDelayMillis     upper limit of the delay between checks
+     */
+    public ExponentialBackoff(long initialDelayMillis, long maxDelayMillis) {
+        if (initialDelayMillis < 1 || maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("Invalid delays " + initialDelayMillis + " and " + maxDelayMillis + " ms");
+        }
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Checks the condition until it is true or the timeout expires. The condition is checked at least once.
+     *
+     * @param condition to check
+     * @param timeout   maximum time to wait
+     * @param unit      unit of the timeout
+     * @return true if the condition became true in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean await(BooleanSupplier condition, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        long delay = initialDelayMillis;
+        while (true) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return false;
+            }
+            // half of the delay is fixed and half is random, so concurrent pollers spread out
+            long jittered = delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+            Thread.sleep(Math.min(Math.max(1, jittered), remaining));
+            delay = Math.min(maxDelayMillis, delay * 2);
+        }
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.containersol.minimesos.util;
+
+import com.containersol.minimesos.MinimesosException;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility for hashing configuration
+ */
+public class HashUtil {
+
+    private HashUtil() {
+
+    }
+
+    /**
+     * @param value string to hash
+     * @return SHA-1 hash of the UTF-8 encoded string as 40 hex digits
+     */
+    public static String sha1(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(value.getBytes(StandardCharsets.UTF_8));
+            return String.format("%040x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new MinimesosException("SHA-1 is not supported", e);
+        }
+    }
+
+}
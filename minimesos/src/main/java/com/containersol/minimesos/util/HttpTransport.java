@@ -0,0 +1,354 @@
+package com.containersol.minimesos.util;
+
+import com.containersol.minimesos.MinimesosException;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HTTP client for the endpoints of a cluster, i.e. Mesos master and agents, Marathon and Consul. Connections are kept alive and
+ * pooled per endpoint, responses are requested compressed with gzip and the count and duration of requests are recorded per method
+ * and path. Timeouts and the size of the pools can be overridden with system properties.
+ * <p>
+ * Every cluster owns one transport, which is closed when the cluster is destroyed. Code without a cluster uses {@link #getDefault()}.
+ */
+public class HttpTransport implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpTransport.class);
+
+    /**
+     * Milliseconds to wait for a connection to an endpoint
+     */
+    public static final String CONNECT_TIMEOUT_PROPERTY = "minimesos.http.connectTimeout";
+
+    /**
+     * Milliseconds to wait for data of a response. Streams opened with {@link #open(HttpRequestBase)} do not time out
+     */
+    public static final String READ_TIMEOUT_PROPERTY = "minimesos.http.readTimeout";
+
+    /**
+     * Maximum number of concurrent connections to one endpoint
+     */
+    public static final String MAX_CONNECTIONS_PROPERTY = "minimesos.http.maxConnectionsPerEndpoint";
+
+    public static final int DEFAULT_CONNECT_TIMEOUT_MS = 5000;
+
+    public static final int DEFAULT_READ_TIMEOUT_MS = 30000;
+
+    /**
+     * Enough for concurrent queries of the master next to its event stream
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS = 8;
+
+    /**
+     * Connections to all endpoints together, enough for a connection to each agent of large clusters
+     */
+    private static final int MAX_TOTAL_CONNECTIONS = 256;
+
+    /**
+     * Pooled connections idle for longer are checked before they are reused, as the endpoint may have closed them
+     */
+    private static final int VALIDATE_AFTER_INACTIVITY_MS = 1000;
+
+    private static final long MAX_IDLE_SECS = 30;
+
+    private static volatile HttpTransport defaultTransport;
+
+    private final CloseableHttpClient client;
+
+    private final RequestConfig requestConfig;
+
+    private final ExecutorService executor;
+
+    private final Map<String, RequestMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a transport with the timeouts and pool size of the system properties
+     */
+    public HttpTransport() {
+        this(Integer.getInteger(CONNECT_TIMEOUT_PROPERTY, DEFAULT_CONNECT_TIMEOUT_MS),
+            Integer.getInteger(READ_TIMEOUT_PROPERTY, DEFAULT_READ_TIMEOUT_MS),
+            Integer.getInteger(MAX_CONNECTIONS_PROPERTY, DEFAULT_MAX_CONNECTIONS));
+    }
+
+    /**
+     * @param connectTimeoutMs milliseconds to wait for a connection, also from the pool
+     * @param readTimeoutMs    milliseconds to wait for data of a response
+     * @param maxConnections   maximum number of concurrent connections to one endpoint
+     */
+    public HttpTransport(int connectTimeoutMs, int readTimeoutMs, int maxConnections) {
+        PoolingHttpClientConnectionManager pool = new PoolingHttpClientConnectionManager();
+        pool.setDefaultMaxPerRoute(maxConnections);
+        pool.setMaxTotal(Math.max(maxConnections, MAX_TOTAL_CONNECTIONS));
+        pool.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MS);
+
+        requestConfig = RequestConfig.custom()
+            .setConnectTimeout(connectTimeoutMs)
+            .setConnectionRequestTimeout(connectTimeoutMs)
+            .setSocketTimeout(readTimeoutMs)
+            .build();
+
+        // content compression is enabled by default: gzip and deflate are accepted and responses are decompressed transparently
+        client = HttpClients.custom()
+            .setConnectionManager(pool)
+            .setDefaultRequestConfig(requestConfig)
+            .evictExpiredConnections()
+            .evictIdleConnections(MAX_IDLE_SECS, TimeUnit.SECONDS)
+            .build();
+
+        executor = Executors.newCachedThreadPool(ParallelUtil.daemonThreadFactory("minimesos-http"));
+    }
+
+    /**
+     * @return transport shared by code, which does not belong to a cluster. It is never closed
+     */
+    public static HttpTransport getDefault() {
+        HttpTransport transport = defaultTransport;
+        if (transport == null) {
+            synchronized (HttpTransport.class) {
+                transport = defaultTransport;
+                if (transport == null) {
+                    transport = new HttpTransport();
+                    defaultTransport = transport;
+                }
+            }
+        }
+        return transport;
+    }
+
+    /**
+     * Requests the URL and decodes the response while it is read
+     *
+     * @param url     to request
+     * @param decoder of the response body
+     * @param <T>     type of the result
+     * @return decoded response
+     * @throws HttpResponseException if the response status is not 200
+     * @throws IOException           if the endpoint cannot be reached or the response cannot be read
+     */
+    public <T> T get(String url, ResponseDecoder<T> decoder) throws IOException {
+        return get(new HttpGet(url), decoder);
+    }
+
+    /**
+     * Same as {@link #get(String, ResponseDecoder)} for requests with additional headers
+     */
+    public <T> T get(HttpGet request, ResponseDecoder<T> decoder) throws IOException {
+        return execute(request, response -> {
+            int status = response.getStatusLine().getStatusCode();
+            if (status != HttpStatus.SC_OK || response.getEntity() == null) {
+                throw new HttpResponseException(status, "Unexpected response " + response.getStatusLine() + " from " + request.getURI());
+            }
+            try (InputStream body = response.getEntity().getContent()) {
+                return decoder.decode(body);
+            }
+        });
+    }
+
+    /**
+     * Requests the URL without blocking the caller. Requests to the same endpoint share its pool of connections. Cancelling the future
+     * aborts the request, so a blocked read of the response returns at once instead of waiting for the read timeout
+     *
+     * @param url     to request
+     * @param decoder of the response body
+     * @param <T>     type of the result
+     * @return future of the decoded response, which completes exceptionally with a {@link MinimesosException} if the request fails
+     */
+    public <T> CompletableFuture<T> getAsync(String url, ResponseDecoder<T> decoder) {
+        return getAsync(new HttpGet(url), decoder);
+    }
+
+    /**
+     * Same as {@link #getAsync(String, ResponseDecoder)} for requests with additional headers
+     */
+    public <T> CompletableFuture<T> getAsync(HttpGet request, ResponseDecoder<T> decoder) {
+        CompletableFuture<T> future = new CompletableFuture<T>() {
+            @Override
+            public boolean cancel(boolean mayInterruptIfRunning) {
+                request.abort();
+                return super.cancel(mayInterruptIfRunning);
+            }
+        };
+        executor.execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(get(request, decoder));
+            } catch (IOException e) {
+                future.completeExceptionally(new MinimesosException("Could not retrieve " + request.getURI(), e));
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Sends the request and hands the response to the handler. The response is released afterwards, so its connection is returned
+     * to the pool.
+     *
+     * @param request to send
+     * @param handler of the response
+     * @param <T>     type of the result
+     * @return result of the handler
+     * @throws IOException if the endpoint cannot be reached or the handler fails to read the response
+     */
+    public <T> T execute(HttpUriRequest request, ResponseHandler<T> handler) throws IOException {
+        String key = metricsKey(request);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = client.execute(request, handler);
+            failed = false;
+            return result;
+        } finally {
+            record(key, start, failed);
+        }
+    }
+
+    /**
+     * Sends the request for a long running stream, which is not subject to the read timeout and not compressed, so events are read as
+     * soon as they arrive. The caller must close the response. The duration until the response headers are received is recorded.
+     *
+     * @param request to send
+     * @return response with the open stream
+     * @throws IOException if the endpoint cannot be reached
+     */
+    public CloseableHttpResponse open(HttpRequestBase request) throws IOException {
+        request.setConfig(RequestConfig.copy(requestConfig).setSocketTimeout(0).setContentCompressionEnabled(false).build());
+        String key = metricsKey(request);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            CloseableHttpResponse response = client.execute(request);
+            failed = false;
+            return response;
+        } finally {
+            record(key, start, failed);
+        }
+    }
+
+    /**
+     * @return snapshot of the metrics by method and path of the requests, e.g. <code>GET /master/slaves</code>
+     */
+    public Map<String, RequestMetrics> getMetrics() {
+        Map<String, RequestMetrics> snapshot = new TreeMap<>();
+        metrics.forEach((key, value) -> snapshot.put(key, value.copy()));
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        try {
+            client.close();
+        } catch (IOException e) {
+            LOGGER.debug("Failed to close HTTP connections", e);
+        }
+    }
+
+    private static String metricsKey(HttpUriRequest request) {
+        return request.getMethod() + " " + request.getURI().getPath();
+    }
+
+    private void record(String key, long start, boolean failed) {
+        long nanos = System.nanoTime() - start;
+        metrics.computeIfAbsent(key, k -> new RequestMetrics()).add(nanos, failed);
+        if (LOGGER.isTraceEnabled()) {
+            LOGGER.trace(String.format("%s %s in %d ms", key, failed ? "failed" : "completed", TimeUnit.NANOSECONDS.toMillis(nanos)));
+        }
+    }
+
+    /**
+     * Decodes the body of a response
+     *
+     * @param <T> type of the result
+     */
+    @FunctionalInterface
+    public interface ResponseDecoder<T> {
+        T decode(InputStream body) throws IOException;
+    }
+
+    /**
+     * Count and duration of the requests to one path
+     */
+    public static class RequestMetrics {
+
+        private long count;
+
+        private long failures;
+
+        private long totalNanos;
+
+        private long maxNanos;
+
+        synchronized void add(long nanos, boolean failed) {
+            count++;
+            if (failed) {
+                failures++;
+            }
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        synchronized RequestMetrics copy() {
+            RequestMetrics copy = new RequestMetrics();
+            copy.count = count;
+            copy.failures = failures;
+            copy.totalNanos = totalNanos;
+            copy.maxNanos = maxNanos;
+            return copy;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return number of requests, which could not be sent or whose response could not be handled
+         */
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getTotalMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos);
+        }
+
+        public double getMeanMillis() {
+            return (count > 0) ? totalNanos / 1e6 / count : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests, %d failed, mean %.1f ms, max %d ms", count, failures, getMeanMillis(), getMaxMillis());
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.containersol.minimesos.util;
+
+/**
+ * Last samples of one metric, kept in fixed size arrays of primitives. When the series is full, the oldest sample is overwritten,
+ * so sampling for a long time neither grows memory nor creates garbage.
+ */
+public class MetricSeries {
+
+    private final long[] timestamps;
+
+    private final double[] values;
+
+    /**
+     * Index the next sample is written to
+     */
+    private int next = 0;
+
+    private int size = 0;
+
+    /**
+     * @param capacity number of samples kept
+     */
+    public MetricSeries(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2 to calculate rates, but is " + capacity);
+        }
+        this.timestamps = new long[capacity];
+        this.values = new double[capacity];
+    }
+
+    /**
+     * @param timestampMs time of the sample in milliseconds
+     * @param value       of the metric
+     */
+    public synchronized void add(long timestampMs, double value) {
+        timestamps[next] = timestampMs;
+        values[next] = value;
+        next = (next + 1) % values.length;
+        if (size < values.length) {
+            size++;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return values.length;
+    }
+
+    /**
+     * @param age 0 for the latest sample, 1 for the one before and so on
+     * @return value of the sample or NaN, if there are not that many samples
+     */
+    public synchronized double getValue(int age) {
+        return (age < size) ? values[index(age)] : Double.NaN;
+    }
+
+    /**
+     * @param age 0 for the latest sample, 1 for the one before and so on
+     * @return time of the sample in milliseconds or -1, if there are not that many samples
+     */
+    public synchronized long getTimestamp(int age) {
+        return (age < size) ? timestamps[index(age)] : -1;
+    }
+
+    public double getLatest() {
+        return getValue(0);
+    }
+
+    /**
+     * @return change per second between the last two samples or NaN, if there are less than two samples. Meaningful for counters
+     */
+    public synchronized double getRate() {
+        if (size < 2) {
+            return Double.NaN;
+        }
+        long elapsedMs = timestamps[index(0)] - timestamps[index(1)];
+        if (elapsedMs <= 0) {
+            return Double.NaN;
+        }
+        return (values[index(0)] - values[index(1)]) * 1000 / elapsedMs;
+    }
+
+    private int index(int age) {
+        return (next - 1 - age + values.length * 2) % values.length;
+    }
+
+}
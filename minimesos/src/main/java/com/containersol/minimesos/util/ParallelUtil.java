@@ -0,0 +1,198 @@
+package com.containersol.minimesos.util;
+
+import com.containersol.minimesos.MinimesosException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Utility for running actions concurrently with bounded parallelism
+ */
+public class ParallelUtil {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelUtil.class);
+
+    private ParallelUtil() {
+        // do not allow creation of instances
+    }
+
+    /**
+     * Applies the action to every item using at most <code>parallelism</code> threads. A failing item does not stop the others.
+     *
+     * @param description what is done to the items, used in the error message
+     * @param items       to process
+     * @param parallelism maximum number of items processed at the same time
+     * @param action      to apply
+     * @param <T>         type of the items
+     * @throws MinimesosException after all items are processed, if any of them failed. All failures are attached as suppressed exceptions
+     */
+    public static <T> void forEach(String description, Collection<T> items, int parallelism, Consumer<T> action) {
+        if (items.isEmpty()) {
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, items.size())), daemonThreadFactory("minimesos-worker"));
+        List<Throwable> failures = new ArrayList<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>(items.size());
+            for (T item : items) {
+                futures.add(executor.submit(() -> action.accept(item)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinimesosException("Interrupted while waiting to " + description, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (!failures.isEmpty()) {
+            String msg = String.format("Failed to %s for %d of %d items. First failure: %s", description, failures.size(), items.size(), failures.get(0).getMessage());
+            MinimesosException exception = new MinimesosException(msg, failures.get(0));
+            failures.stream().skip(1).forEach(exception::addSuppressed);
+            throw exception;
+        }
+    }
+
+    /**
+     * Queries all items concurrently and returns the first result, which matches. Queries, which are still running then, are
+     * interrupted and their results are dropped. A failing query is treated as not matching.
+     *
+     * @param description what is queried, used in the error message
+     * @param items       to query
+     * @param parallelism maximum number of queries running at the same time
+     * @param timeoutMs   time to wait for a match
+     * @param query       to run for every item
+     * @param match       to test the results with
+     * @param <T>         type of the items
+     * @param <R>         type of the results
+     * @return first matching result or null, if no result matches
+     * @throws MinimesosException if there is no match and some queries are still running after the timeout
+     */
+    public static <T, R> R findFirst(String description, Collection<T> items, int parallelism, long timeoutMs, Function<T, R> query, Predicate<R> match) {
+        if (items.isEmpty()) {
+            return null;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(parallelism, items.size())), daemonThreadFactory("minimesos-query"));
+        CompletionService<R> completionService = new ExecutorCompletionService<>(executor);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (T item : items) {
+                completionService.submit(() -> query.apply(item));
+            }
+            for (int i = 0; i < items.size(); i++) {
+                Future<R> future = completionService.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    throw new MinimesosException(String.format("Failed to %s within %d ms", description, timeoutMs));
+                }
+                try {
+                    R result = future.get();
+                    if (result != null && match.test(result)) {
+                        return result;
+                    }
+                } catch (ExecutionException e) {
+                    LOGGER.debug("Failed to " + description, e.getCause());
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinimesosException("Interrupted while waiting to " + description, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts the queries of all items at once and returns the first result, which matches. Queries still running then are cancelled,
+     * so queries, which abort their request on cancellation, e.g. {@link HttpTransport#getAsync(String, HttpTransport.ResponseDecoder)},
+     * do not keep their threads and connections busy.
+     *
+     * @param description what is queried, used in the error message
+     * @param items       to query
+     * @param timeoutMs   time to wait for the matching result
+     * @param query       starting the query of an item
+     * @param match       to test results with
+     * @param <T>         type of the items
+     * @param <R>         type of the results
+     * @return first matching result or null, if no result matches
+     * @throws MinimesosException if no result matches within the timeout
+     */
+    public static <T, R> R findFirstAsync(String description, Collection<T> items, long timeoutMs, Function<T, CompletableFuture<R>> query, Predicate<R> match) {
+        if (items.isEmpty()) {
+            return null;
+        }
+
+        BlockingQueue<CompletableFuture<R>> completed = new LinkedBlockingQueue<>();
+        List<CompletableFuture<R>> futures = new ArrayList<>(items.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        try {
+            for (T item : items) {
+                CompletableFuture<R> future = query.apply(item);
+                futures.add(future);
+                future.whenComplete((result, error) -> completed.add(future));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                CompletableFuture<R> future = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (future == null) {
+                    throw new MinimesosException(String.format("Failed to %s within %d ms", description, timeoutMs));
+                }
+                try {
+                    R result = future.get();
+                    if (result != null && match.test(result)) {
+                        return result;
+                    }
+                } catch (ExecutionException e) {
+                    LOGGER.debug("Failed to " + description, e.getCause());
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MinimesosException("Interrupted while waiting to " + description, e);
+        } finally {
+            for (CompletableFuture<R> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * @param prefix of the thread names
+     * @return factory of daemon threads, which do not prevent JVM from exiting
+     */
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+}
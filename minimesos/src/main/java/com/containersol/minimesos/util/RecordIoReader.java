@@ -0,0 +1,66 @@
+package com.containersol.minimesos.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads RecordIO framed streams, as they are sent by the Mesos HTTP APIs: every record is its length in bytes as decimal digits, a
+ * new line and the record itself
+ */
+public class RecordIoReader {
+
+    /**
+     * Longest record accepted, protects from reading garbage as a length
+     */
+    private static final long MAX_RECORD_LENGTH = 256L * 1024 * 1024;
+
+    private final InputStream stream;
+
+    public RecordIoReader(InputStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * Blocks until the next record is read
+     *
+     * @return bytes of the record or null, if the stream ended between records
+     * @throws IOException if the stream cannot be read, ends within a record or is not RecordIO framed
+     */
+    public byte[] read() throws IOException {
+        long length = 0;
+        int digits = 0;
+        int b;
+        while ((b = stream.read()) != '\n') {
+            if (b == -1) {
+                if (digits == 0) {
+                    return null;
+                }
+                throw new EOFException("Stream ended within the length of a record");
+            }
+            if (b < '0' || b > '9') {
+                throw new IOException("Unexpected character '" + (char) b + "' in the length of a record");
+            }
+            length = length * 10 + (b - '0');
+            digits++;
+            if (length > MAX_RECORD_LENGTH) {
+                throw new IOException("Record is longer than " + MAX_RECORD_LENGTH + " bytes");
+            }
+        }
+        if (digits == 0) {
+            throw new IOException("Record without length");
+        }
+
+        byte[] record = new byte[(int) length];
+        int offset = 0;
+        while (offset < record.length) {
+            int read = stream.read(record, offset, record.length - offset);
+            if (read == -1) {
+                throw new EOFException("Stream ended within a record");
+            }
+            offset += read;
+        }
+        return record;
+    }
+
+}
@@ -444,4 +444,33 @@ public class ConfigParserTest {
         assertEquals("[514-514]", agent.resources.ports["logstash"].value)
     }
 
+    @Test
+    public void testBlockToString_ignoresAppsAndGroups() {
+        String config = """
+                minimesos {
+                    marathon {
+                        app {
+                            marathonJson = "https://example.com/app.json"
+                        }
+                    }
+                }
+        """
+
+        MarathonConfig withApps = parser.parse(config).marathon
+        MarathonConfig withoutApps = new MarathonConfig()
+
+        assertEquals(parser.blockToString(withoutApps), parser.blockToString(withApps))
+        assertFalse(parser.blockToString(withApps).contains("app.json"))
+    }
+
+    @Test
+    public void testBlockToString_changesWithSettings() {
+        MesosAgentConfig agent = new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION)
+        MesosAgentConfig changed = new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION)
+        changed.imageTag = "custom"
+
+        assertEquals(parser.blockToString(agent), parser.blockToString(new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION)))
+        assertNotEquals(parser.blockToString(agent), parser.blockToString(changed))
+    }
+
 }
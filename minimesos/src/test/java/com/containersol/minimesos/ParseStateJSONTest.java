@@ -6,6 +6,10 @@ import com.fasterxml.jackson.core.JsonParseException;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -310,4 +314,13 @@ public class ParseStateJSONTest {
         assertEquals("29deeca9-0f28-4df7-af1d-14ae790044f6", framework.getTasks().get(0).getExecutorId());
         assertEquals("20150907-122934-3858764204-5050-23-0000", framework.getTasks().get(0).getFrameworkId());
     }
+
+    @Test
+    public void exampleStateJSONIsParsedFromStream() throws IOException {
+        State parsedState = State.fromStream(new ByteArrayInputStream(EXAMPLE_STATE_JSON.getBytes(StandardCharsets.UTF_8)));
+        assertEquals("20150907-122934-3858764204-5050-23", parsedState.getId());
+        assertEquals(3, parsedState.getActivatedAgents());
+        assertEquals("false", parsedState.getFlags().get("authenticate"));
+        assertEquals(3, parsedState.getFramework("elasticsearch").getTasks().size());
+    }
 }
@@ -0,0 +1,49 @@
+package com.containersol.minimesos.cluster;
+
+import java.util.Collections;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClusterDescriptorTest {
+
+    @Test
+    public void testJsonRoundTrip() {
+        // Given
+        ClusterDescriptor.Member member = new ClusterDescriptor.Member("master", "abc", "container1", "172.17.0.2", "172.17.0.1", null);
+        ClusterDescriptor descriptor = new ClusterDescriptor("cluster1", true, Collections.singletonList(member));
+
+        // When
+        ClusterDescriptor restored = ClusterDescriptor.fromJson(new JSONObject(descriptor.toJson().toString()));
+
+        // Then
+        assertEquals("cluster1", restored.getClusterId());
+        assertTrue(restored.isMapPortsToHost());
+        assertEquals(1, restored.getMembers().size());
+        ClusterDescriptor.Member restoredMember = restored.getMembers().get(0);
+        assertEquals("master", restoredMember.getRole());
+        assertEquals("abc", restoredMember.getUuid());
+        assertEquals("container1", restoredMember.getContainerId());
+        assertEquals("172.17.0.2", restoredMember.getIpAddress());
+        assertEquals("172.17.0.1", restoredMember.getGateway());
+        assertNull(restoredMember.getConfigHash());
+    }
+
+    @Test
+    public void testOtherVersionIsIgnored() {
+        // Given
+        JSONObject json = new ClusterDescriptor("cluster1", false, Collections.emptyList()).toJson();
+        json.put("version", ClusterDescriptor.VERSION + 1);
+
+        // When
+        ClusterDescriptor restored = ClusterDescriptor.fromJson(json);
+
+        // Then
+        assertNull(restored);
+    }
+
+}
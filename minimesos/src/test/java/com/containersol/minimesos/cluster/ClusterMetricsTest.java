@@ -0,0 +1,89 @@
+package com.containersol.minimesos.cluster;
+
+import com.containersol.minimesos.MinimesosException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClusterMetricsTest {
+
+    private MesosMaster master;
+
+    private MesosAgent agent;
+
+    private MesosAgent unreachableAgent;
+
+    private ClusterMetrics metrics;
+
+    @Before
+    public void before() {
+        master = mock(MesosMaster.class);
+        when(master.getRole()).thenReturn("master");
+        when(master.getContainerId()).thenReturn("master-container");
+
+        agent = mock(MesosAgent.class);
+        when(agent.getRole()).thenReturn("agent");
+        when(agent.getContainerId()).thenReturn("agent-container");
+
+        unreachableAgent = mock(MesosAgent.class);
+        when(unreachableAgent.getRole()).thenReturn("agent");
+        when(unreachableAgent.getContainerId()).thenReturn("gone-container");
+        when(unreachableAgent.getMetrics()).thenThrow(new MinimesosException("Connection refused"));
+
+        MesosCluster cluster = mock(MesosCluster.class);
+        when(cluster.getMaster()).thenReturn(master);
+        when(cluster.getAgents()).thenReturn(Arrays.asList(agent, unreachableAgent));
+
+        metrics = new ClusterMetrics(cluster, 10);
+    }
+
+    @Test
+    public void testSample() throws InterruptedException {
+        when(master.getMetrics()).thenReturn(metric("master/tasks_failed", 1), metric("master/tasks_failed", 3));
+        when(agent.getMetrics()).thenReturn(metric("slave/cpus_used", 0.5));
+
+        metrics.sample();
+        Thread.sleep(10);
+        metrics.sample();
+
+        assertEquals(2, metrics.getMembers().size());
+        assertTrue(metrics.getMembers().get(0).isMaster());
+        assertEquals(3.0, metrics.getMaster().getLatest("master/tasks_failed"), 0);
+        assertTrue(metrics.getMaster().getRate("master/tasks_failed") > 0);
+        assertEquals(0.5, metrics.getMembers().get(1).getLatest("slave/cpus_used"), 0);
+        assertTrue(Double.isNaN(metrics.getMaster().getLatest("master/unknown")));
+    }
+
+    @Test
+    public void testToPrometheus() {
+        when(master.getMetrics()).thenReturn(metric("master/cpus_total", 4));
+        when(agent.getMetrics()).thenReturn(metric("slave/cpus_used", 0.5));
+
+        metrics.sample();
+        String exposition = metrics.toPrometheus();
+
+        assertTrue(exposition.contains("# TYPE mesos_master_cpus_total untyped\n"));
+        assertTrue(exposition.contains("mesos_master_cpus_total{role=\"master\",container=\"master-container\"} 4 "));
+        assertTrue(exposition.contains("mesos_slave_cpus_used{role=\"agent\",container=\"agent-container\"} 0.5 "));
+    }
+
+    @Test
+    public void testToPrometheusName() {
+        assertEquals("mesos_allocator_mesos_allocation_runs", ClusterMetrics.toPrometheusName("allocator/mesos/allocation_runs"));
+    }
+
+    private static Map<String, Double> metric(String name, double value) {
+        Map<String, Double> metrics = new HashMap<>();
+        metrics.put(name, value);
+        return metrics;
+    }
+
+}
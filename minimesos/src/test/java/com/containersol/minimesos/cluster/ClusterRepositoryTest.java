@@ -0,0 +1,224 @@
+package com.containersol.minimesos.cluster;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.MarathonConfig;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ClusterRepositoryTest {
+
+    private static final String CLUSTER_ID = "123456";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ClusterRepository repository;
+
+    private RecordingFactory factory;
+
+    @Before
+    public void before() {
+        System.setProperty(MesosCluster.MINIMESOS_HOST_DIR_PROPERTY, folder.getRoot().getAbsolutePath());
+        repository = new ClusterRepository();
+        factory = new RecordingFactory();
+
+        MesosCluster cluster = mock(MesosCluster.class);
+        when(cluster.getClusterId()).thenReturn(CLUSTER_ID);
+        repository.saveClusterFile(cluster);
+    }
+
+    @After
+    public void after() {
+        ClusterRepository.setRetainCluster(false);
+        System.clearProperty(MesosCluster.MINIMESOS_HOST_DIR_PROPERTY);
+    }
+
+    @Test
+    public void testLoadCluster_restoresRunningDescriptor() {
+        saveDescriptor("stored");
+        factory.running = Collections.singletonList("stored");
+
+        MesosCluster cluster = repository.loadCluster(factory);
+
+        assertEquals("stored", cluster.getMemberProcesses().get(0).getContainerId());
+        assertEquals(Collections.singletonList("restore"), factory.calls);
+    }
+
+    @Test
+    public void testLoadCluster_discoversMembersOfStaleDescriptor() {
+        saveDescriptor("stored");
+        factory.running = Collections.singletonList("replaced");
+
+        MesosCluster cluster = repository.loadCluster(factory);
+
+        assertEquals("replaced", cluster.getMemberProcesses().get(0).getContainerId());
+        assertEquals(Collections.singletonList("load"), factory.calls);
+        assertEquals("replaced", repository.readClusterDescriptor().getMembers().get(0).getContainerId());
+    }
+
+    @Test
+    public void testLoadCluster_keepsClusterWhenDescriptorCannotBeSaved() {
+        factory.running = Collections.singletonList("running");
+        factory.describeFailure = new MinimesosException("Could not inspect container");
+
+        MesosCluster cluster = repository.loadCluster(factory);
+
+        assertNotNull(cluster);
+        assertTrue(repository.getMinimesosFile().exists());
+        assertNull(repository.readClusterDescriptor());
+    }
+
+    @Test
+    public void testLoadCluster_forgetsClusterWithoutContainers() {
+        factory.running = Collections.emptyList();
+
+        assertNull(repository.loadCluster(factory));
+        assertFalse(repository.getMinimesosFile().exists());
+    }
+
+    @Test
+    public void testLoadCluster_reusesRetainedCluster() {
+        ClusterRepository.setRetainCluster(true);
+        saveDescriptor("stored");
+        factory.running = Collections.singletonList("stored");
+
+        MesosCluster cluster = repository.loadCluster(factory);
+        repository.saveClusterDescriptor(cluster, factory);
+
+        assertSame(cluster, repository.loadCluster(factory));
+        assertEquals(Collections.singletonList("restore"), factory.calls);
+    }
+
+    @Test
+    public void testLoadCluster_reloadsRetainedClusterChangedByAnotherProcess() {
+        ClusterRepository.setRetainCluster(true);
+        saveDescriptor("stored");
+        factory.running = Collections.singletonList("stored");
+        MesosCluster retained = repository.loadCluster(factory);
+
+        // e.g. 'up --reconcile' run without the daemon added an agent
+        saveDescriptor("stored", "added");
+        factory.running = Arrays.asList("stored", "added");
+        MesosCluster cluster = repository.loadCluster(factory);
+
+        assertNotSame(retained, cluster);
+        assertEquals(2, cluster.getMemberProcesses().size());
+
+        // e.g. 'up --reconcile' deployed another Marathon app
+        ClusterConfig applied = new ClusterConfig();
+        applied.setMarathon(new MarathonConfig());
+        repository.saveAppliedConfig(applied);
+
+        assertNotSame(cluster, repository.loadCluster(factory));
+        assertEquals(Arrays.asList("restore", "restore", "restore"), factory.calls);
+    }
+
+    @Test
+    public void testAppliedMarathonJson_storesIdsAndReadsHashesOfEarlierVersions() throws IOException {
+        Map<String, AppliedMarathonJson> applied = new HashMap<>();
+        applied.put("app.json", new AppliedMarathonJson("/app", "hash"));
+        repository.saveAppliedMarathonJson(applied);
+
+        AppliedMarathonJson loaded = repository.loadAppliedMarathonJson().get("app.json");
+        assertEquals("/app", loaded.getId());
+        assertEquals("hash", loaded.getHash());
+
+        FileUtils.writeStringToFile(new File(repository.getMinimesosDir(), ClusterRepository.APPLIED_MARATHON_FILE), "{\"app.json\": \"hash\"}", "UTF-8");
+
+        loaded = repository.loadAppliedMarathonJson().get("app.json");
+        assertNull(loaded.getId());
+        assertEquals("hash", loaded.getHash());
+    }
+
+    private void saveDescriptor(String... containerIds) {
+        List<ClusterDescriptor.Member> members = new ArrayList<>();
+        for (String containerId : containerIds) {
+            members.add(new ClusterDescriptor.Member("agent", "uuid", containerId, "172.17.0.2", "172.17.0.1", null));
+        }
+        MesosCluster cluster = mock(MesosCluster.class);
+        when(cluster.getClusterId()).thenReturn(CLUSTER_ID);
+        repository.saveClusterDescriptor(cluster, new RecordingFactory() {
+            @Override
+            public ClusterDescriptor describeRunningCluster(MesosCluster cluster) {
+                return new ClusterDescriptor(CLUSTER_ID, false, members);
+            }
+        });
+    }
+
+    private static ClusterProcess process(String containerId) {
+        ClusterProcess process = mock(ClusterProcess.class);
+        when(process.getContainerId()).thenReturn(containerId);
+        return process;
+    }
+
+    /**
+     * Factory of a cluster, which runs the given containers
+     */
+    private static class RecordingFactory extends MesosClusterFactory {
+
+        private final List<String> calls = new ArrayList<>();
+
+        private List<String> running = Collections.emptyList();
+
+        private RuntimeException describeFailure;
+
+        @Override
+        public void loadRunningCluster(MesosCluster cluster) {
+            calls.add("load");
+            running.forEach(containerId -> cluster.getMemberProcesses().add(process(containerId)));
+        }
+
+        @Override
+        public void destroyRunningCluster(String clusterId) {
+            calls.add("destroy");
+        }
+
+        @Override
+        public boolean restoreRunningCluster(MesosCluster cluster, ClusterDescriptor descriptor) {
+            calls.add("restore");
+            descriptor.getMembers().forEach(member -> cluster.getMemberProcesses().add(process(member.getContainerId())));
+            return true;
+        }
+
+        @Override
+        public boolean isRunningCluster(String clusterId, Collection<String> containerIds) {
+            return !running.isEmpty() && running.equals(new ArrayList<>(containerIds));
+        }
+
+        @Override
+        public ClusterDescriptor describeRunningCluster(MesosCluster cluster) {
+            if (describeFailure != null) {
+                throw describeFailure;
+            }
+            List<ClusterDescriptor.Member> members = new ArrayList<>();
+            cluster.getMemberProcesses().forEach(process -> members.add(new ClusterDescriptor.Member("agent", "uuid", process.getContainerId(), null, null, null)));
+            return new ClusterDescriptor(cluster.getClusterId(), false, members);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.containersol.minimesos.cluster;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.config.ClusterConfig;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MesosClusterTest {
+
+    @Test
+    public void testDestroy_reportsFailedRemovalAfterCleanup() {
+        ClusterProcess removed = process("removed");
+        ClusterProcess failing = process("failing");
+        doThrow(new MinimesosException("Could not remove container failing")).when(failing).remove();
+        MesosClusterFactory factory = mock(MesosClusterFactory.class);
+        MesosCluster cluster = new MesosCluster(new ClusterConfig(), new ArrayList<>(Arrays.asList(removed, failing)));
+
+        try {
+            cluster.destroy(factory);
+            fail("Failed removal is expected to be reported");
+        } catch (MinimesosException e) {
+            assertTrue(e.getMessage().contains("1 of 2"));
+        }
+
+        verify(removed).remove();
+        verify(factory).destroyRunningCluster(cluster.getClusterId());
+        assertEquals(0, cluster.getMemberProcesses().size());
+    }
+
+    @Test
+    public void testTimeline_recordsOnlyWhenProfiling() {
+        MesosCluster cluster = new MesosCluster(new ClusterConfig(), new ArrayList<>());
+        cluster.getTimeline().begin(Timeline.CLUSTER, "members-start").close();
+
+        assertSame(Timeline.DISABLED, cluster.getTimeline());
+
+        cluster.enableProfiling();
+        cluster.getTimeline().begin(Timeline.CLUSTER, "members-start").close();
+
+        assertEquals(1, cluster.getTimeline().getSpans().size());
+    }
+
+    private static ClusterProcess process(String containerId) {
+        ClusterProcess process = mock(ClusterProcess.class);
+        when(process.getContainerId()).thenReturn(containerId);
+        return process;
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.containersol.minimesos.cluster;
+
+import com.containersol.minimesos.MinimesosException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class StartupOrchestratorTest {
+
+    private final List<ClusterProcess> started = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testDependenciesStartFirst() {
+        ClusterProcess zooKeeper = process("zookeeper");
+        ClusterProcess master = process("master", zooKeeper);
+        ClusterProcess agent = process("agent", zooKeeper, master);
+
+        new StartupOrchestrator(4).start(Arrays.asList(agent, master, zooKeeper), 10);
+
+        assertTrue(started.indexOf(zooKeeper) < started.indexOf(master));
+        assertTrue(started.indexOf(master) < started.indexOf(agent));
+    }
+
+    @Test
+    public void testIndependentProcessesStartConcurrently() {
+        CountDownLatch latch = new CountDownLatch(2);
+        ClusterProcess consul = process("consul");
+        ClusterProcess zooKeeper = process("zookeeper");
+        awaitEachOther(consul, latch);
+        awaitEachOther(zooKeeper, latch);
+
+        new StartupOrchestrator(2).start(Arrays.asList(consul, zooKeeper), 10);
+
+        assertTrue(started.containsAll(Arrays.asList(consul, zooKeeper)));
+    }
+
+    @Test
+    public void testDependentsWaitForReadiness() {
+        AtomicBoolean ready = new AtomicBoolean();
+        ClusterProcess zooKeeper = process("zookeeper");
+        ClusterProcess master = process("master", zooKeeper);
+        when(zooKeeper.getReadinessProbe()).thenReturn(() -> ready.getAndSet(true));
+
+        new StartupOrchestrator(2).start(Arrays.asList(zooKeeper, master), 10);
+
+        assertTrue(ready.get());
+        assertTrue(started.indexOf(zooKeeper) < started.indexOf(master));
+    }
+
+    @Test(expected = MinimesosException.class)
+    public void testFailureStopsDependents() {
+        ClusterProcess zooKeeper = process("zookeeper");
+        ClusterProcess master = process("master", zooKeeper);
+        doThrow(new MinimesosException("failed")).when(zooKeeper).start(anyInt());
+
+        try {
+            new StartupOrchestrator(2).start(Arrays.asList(zooKeeper, master), 10);
+        } finally {
+            verify(master, never()).start(anyInt());
+        }
+    }
+
+    @Test(expected = MinimesosException.class)
+    public void testCyclicDependencies() {
+        ClusterProcess first = process("first");
+        ClusterProcess second = process("second", first);
+        when(first.getDependencies()).thenReturn(Collections.singletonList(second));
+
+        new StartupOrchestrator(2).start(Arrays.asList(first, second), 10);
+    }
+
+    @Test(expected = MinimesosException.class)
+    public void testClusterWideDeadline() {
+        ClusterProcess slow = process("slow");
+        doAnswer(invocation -> {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(5));
+            return null;
+        }).when(slow).start(anyInt());
+
+        new StartupOrchestrator(2).start(Collections.singletonList(slow), 1);
+    }
+
+    private ClusterProcess process(String role, ClusterProcess... dependencies) {
+        ClusterProcess process = mock(ClusterProcess.class);
+        when(process.getRole()).thenReturn(role);
+        when(process.getDependencies()).thenReturn(Arrays.asList(dependencies));
+        doAnswer(invocation -> started.add(process)).when(process).start(anyInt());
+        return process;
+    }
+
+    private void awaitEachOther(ClusterProcess process, CountDownLatch latch) {
+        doAnswer(invocation -> {
+            latch.countDown();
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new MinimesosException("Processes were not started concurrently");
+            }
+            return started.add(process);
+        }).when(process).start(anyInt());
+    }
+
+}
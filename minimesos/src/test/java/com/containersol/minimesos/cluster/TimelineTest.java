@@ -0,0 +1,40 @@
+package com.containersol.minimesos.cluster;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimelineTest {
+
+    @Test
+    public void testChromeTrace() {
+        Timeline timeline = new Timeline();
+        try (Timeline.Span ignored = timeline.begin("zookeeper-1", "pull")) {
+            try (Timeline.Span ignoredToo = timeline.begin("master-2", "create")) {
+                // nothing to do
+            }
+        }
+
+        JSONArray events = timeline.toChromeTrace().getJSONArray("traceEvents");
+
+        // one row name and one phase for each member
+        assertEquals(4, events.length());
+        JSONObject create = events.getJSONObject(1);
+        assertEquals("create", create.getString("name"));
+        assertEquals("X", create.getString("ph"));
+        JSONObject pull = events.getJSONObject(3);
+        assertEquals("pull", pull.getString("name"));
+        assertTrue(pull.getLong("dur") >= create.getLong("dur"));
+    }
+
+    @Test
+    public void testDisabledTimeline() {
+        Timeline.DISABLED.begin("zookeeper-1", "pull").close();
+
+        assertTrue(Timeline.DISABLED.getSpans().isEmpty());
+    }
+
+}
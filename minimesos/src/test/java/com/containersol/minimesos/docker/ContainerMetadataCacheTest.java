@@ -0,0 +1,109 @@
+package com.containersol.minimesos.docker;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.dockerjava.api.model.Container;
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import com.github.dockerjava.api.model.EventType;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+public class ContainerMetadataCacheTest {
+
+    private static final String CONTAINER_ID = "4fa6e0f0c678";
+
+    private final AtomicInteger inspections = new AtomicInteger();
+
+    @After
+    public void after() {
+        ContainerMetadataCache.invalidate(CONTAINER_ID);
+    }
+
+    private ContainerMetadata inspect(String containerId) {
+        inspections.incrementAndGet();
+        return new ContainerMetadata("172.17.0.2", "172.17.0.1");
+    }
+
+    @Test
+    public void testCachedMetadataIsNotInspectedAgain() {
+        ContainerMetadataCache.get(CONTAINER_ID, this::inspect, true);
+        ContainerMetadata metadata = ContainerMetadataCache.get(CONTAINER_ID, this::inspect, true);
+
+        assertEquals("172.17.0.2", metadata.getIpAddress());
+        assertEquals("172.17.0.1", metadata.getGateway());
+        assertEquals(1, inspections.get());
+    }
+
+    @Test
+    public void testConcurrentLookupsShareInspection() throws Exception {
+        CountDownLatch inspecting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<ContainerMetadata> first = CompletableFuture.supplyAsync(() -> ContainerMetadataCache.get(CONTAINER_ID, id -> {
+            inspecting.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return inspect(id);
+        }, false));
+        inspecting.await(5, TimeUnit.SECONDS);
+
+        // release the inspection once this thread waits for it
+        CompletableFuture.runAsync(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        ContainerMetadata second = ContainerMetadataCache.get(CONTAINER_ID, this::inspect, false);
+
+        assertEquals("172.17.0.2", first.get(5, TimeUnit.SECONDS).getIpAddress());
+        assertEquals("172.17.0.2", second.getIpAddress());
+        assertEquals(1, inspections.get());
+    }
+
+    @Test
+    public void testDieEventInvalidates() {
+        ContainerMetadataCache.put(CONTAINER_ID, new ContainerMetadata("10.0.0.1", "10.0.0.254"));
+
+        DockerEvents.onEvent(new Event().withAction("die").withEventActor(new EventActor().withId(CONTAINER_ID)));
+
+        assertEquals("172.17.0.2", ContainerMetadataCache.get(CONTAINER_ID, this::inspect, true).getIpAddress());
+        assertEquals(1, inspections.get());
+    }
+
+    @Test
+    public void testPrimedMetadataIsNotInspected() throws IOException {
+        Container container = new ObjectMapper().readValue("{\"Id\": \"" + CONTAINER_ID + "\", \"NetworkSettings\": {\"Networks\": "
+            + "{\"bridge\": {\"IPAddress\": \"172.17.0.3\", \"Gateway\": \"172.17.0.1\"}}}}", Container.class);
+
+        ContainerMetadataCache.prime(Collections.singletonList(container));
+
+        assertEquals("172.17.0.3", ContainerMetadataCache.get(CONTAINER_ID, this::inspect, false).getIpAddress());
+        assertEquals(0, inspections.get());
+    }
+
+    @Test
+    public void testNetworkEventInvalidates() {
+        ContainerMetadataCache.put(CONTAINER_ID, new ContainerMetadata("10.0.0.1", "10.0.0.254"));
+
+        DockerEvents.onEvent(new Event().withType(EventType.NETWORK).withAction("disconnect")
+            .withEventActor(new EventActor().withId("networkid").withAttributes(Collections.singletonMap("container", CONTAINER_ID))));
+
+        assertEquals("172.17.0.2", ContainerMetadataCache.get(CONTAINER_ID, this::inspect, true).getIpAddress());
+    }
+
+}
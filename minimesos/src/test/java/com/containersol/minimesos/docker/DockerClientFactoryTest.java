@@ -0,0 +1,26 @@
+package com.containersol.minimesos.docker;
+
+import com.github.dockerjava.core.RemoteApiVersion;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DockerClientFactoryTest {
+
+    @Test
+    public void testNegotiate_usesDaemonVersionIfSupported() {
+        assertEquals(RemoteApiVersion.VERSION_1_22, DockerClientFactory.negotiate("1.22"));
+    }
+
+    @Test
+    public void testNegotiate_capsNewerDaemonVersion() {
+        assertEquals(DockerClientFactory.MAX_API_VERSION, DockerClientFactory.negotiate("1.41"));
+    }
+
+    @Test
+    public void testNegotiate_fallsBackOnUnknownVersion() {
+        assertEquals(DockerClientFactory.FALLBACK_API_VERSION, DockerClientFactory.negotiate(null));
+        assertEquals(DockerClientFactory.FALLBACK_API_VERSION, DockerClientFactory.negotiate("garbage"));
+    }
+
+}
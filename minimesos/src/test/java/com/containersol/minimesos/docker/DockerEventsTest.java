@@ -0,0 +1,50 @@
+package com.containersol.minimesos.docker;
+
+import com.github.dockerjava.api.model.Event;
+import com.github.dockerjava.api.model.EventActor;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class DockerEventsTest {
+
+    private static final String CONTAINER_ID = "4fa6e0f0c678";
+
+    @After
+    public void after() {
+        DockerEvents.forget(CONTAINER_ID);
+    }
+
+    @Test
+    public void testStartEventCompletesWait() {
+        CompletableFuture<String> started = DockerEvents.register(CONTAINER_ID);
+
+        DockerEvents.onEvent(new Event("start", CONTAINER_ID, "mesos-agent", 0L));
+
+        assertEquals(DockerEvents.STATUS_START, started.getNow(null));
+    }
+
+    @Test
+    public void testDieEventWithActorCompletesWait() {
+        CompletableFuture<String> started = DockerEvents.register(CONTAINER_ID);
+
+        DockerEvents.onEvent(new Event().withAction("die").withEventActor(new EventActor().withId(CONTAINER_ID)));
+
+        assertEquals(DockerEvents.STATUS_DIE, started.getNow(null));
+    }
+
+    @Test
+    public void testOtherEventsAreIgnored() {
+        CompletableFuture<String> started = DockerEvents.register(CONTAINER_ID);
+
+        DockerEvents.onEvent(new Event("create", CONTAINER_ID, "mesos-agent", 0L));
+        DockerEvents.onEvent(new Event("start", "another", "mesos-agent", 0L));
+
+        assertFalse(started.isDone());
+    }
+
+}
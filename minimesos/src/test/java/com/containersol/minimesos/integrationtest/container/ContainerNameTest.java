@@ -40,6 +40,14 @@ public class ContainerNameTest {
         assertFalse(ContainerName.belongsToCluster(containerName, "XXXXXX"));
     }
 
+    @Test
+    public void testOtherNamesDoNotBelongToCluster() throws Exception {
+        assertFalse(ContainerName.belongsToCluster("minimesos-agent-" + clusterId, clusterId));
+        assertFalse(ContainerName.belongsToCluster("minimesos-agent-" + clusterId + "-1-2", clusterId));
+        assertFalse(ContainerName.belongsToCluster("other-agent-" + clusterId + "-1", clusterId));
+        assertFalse(ContainerName.belongsToCluster((String) null, clusterId));
+    }
+
     @Test
     public void testWrongRole() throws Exception {
         MesosAgentContainer agent = new MesosAgentContainer(cluster, "UUID", "CONTAINERID");
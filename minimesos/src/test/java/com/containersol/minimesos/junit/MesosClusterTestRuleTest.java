@@ -0,0 +1,94 @@
+package com.containersol.minimesos.junit;
+
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.MesosMaster;
+import com.containersol.minimesos.config.AppConfig;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.MarathonConfig;
+import com.containersol.minimesos.marathon.MarathonContainer;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class MesosClusterTestRuleTest {
+
+    private static final String APP_JSON = "{\"id\": \"/weave-scope\"}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<String> calls = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void testReuse_reinstallsConfiguredApps() throws IOException {
+        File appFile = folder.newFile("app.json");
+        FileUtils.writeStringToFile(appFile, APP_JSON, StandardCharsets.UTF_8);
+        AppConfig app = new AppConfig();
+        app.setMarathonJson(appFile.getAbsolutePath());
+        MarathonConfig marathonConfig = new MarathonConfig();
+        marathonConfig.getApps().add(app);
+
+        MesosMaster master = mock(MesosMaster.class);
+        doAnswer(invocation -> calls.add("teardown")).when(master).teardownFrameworks(anySetOf(String.class));
+        doAnswer(invocation -> calls.add("wait for idle agents")).when(master).waitForIdleAgents(anyInt());
+
+        MesosCluster cluster = mock(MesosCluster.class);
+        when(cluster.isRunning()).thenReturn(true);
+        when(cluster.getMaster()).thenReturn(master);
+        when(cluster.getMarathon()).thenReturn(new RecordingMarathon(marathonConfig));
+        when(cluster.getClusterConfig()).thenReturn(new ClusterConfig());
+
+        new MesosClusterTestRule(cluster, true).before();
+
+        assertEquals(Arrays.asList("kill groups", "kill apps", "teardown", "wait for idle agents", "deploy " + APP_JSON), calls);
+        verify(cluster, never()).start();
+    }
+
+    /**
+     * Marathon, which records calls instead of talking to a container
+     */
+    private class RecordingMarathon extends MarathonContainer {
+
+        RecordingMarathon(MarathonConfig config) {
+            super(config);
+        }
+
+        @Override
+        public void waitFor() {
+            // nothing to wait for
+        }
+
+        @Override
+        public void killAllGroups() {
+            calls.add("kill groups");
+        }
+
+        @Override
+        public void killAllApps() {
+            calls.add("kill apps");
+        }
+
+        @Override
+        public void deployApp(String marathonJson) {
+            calls.add("deploy " + marathonJson);
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.containersol.minimesos.mesos;
+
+import com.containersol.minimesos.cluster.AppliedMarathonJson;
+import com.containersol.minimesos.cluster.ClusterProcess;
+import com.containersol.minimesos.cluster.Marathon;
+import com.containersol.minimesos.cluster.MesosAgent;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.MesosMaster;
+import com.containersol.minimesos.config.AppConfig;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.GroupConfig;
+import com.containersol.minimesos.config.MarathonConfig;
+import com.containersol.minimesos.config.MesosAgentConfig;
+import com.containersol.minimesos.config.MesosMasterConfig;
+import com.containersol.minimesos.integrationtest.container.AbstractContainer;
+import com.containersol.minimesos.util.HashUtil;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ClusterReconcilerTest {
+
+    private static final String APP_JSON = "{\"id\": \"/weave-scope\", \"instances\": 1}";
+
+    private static final String GROUP_JSON = "{\"id\": \"/group\", \"apps\": []}";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MesosCluster cluster;
+
+    private Marathon marathon;
+
+    private MesosMaster master;
+
+    private MesosAgentConfig agentConfig;
+
+    private File appFile;
+
+    private File groupFile;
+
+    @Before
+    public void before() throws IOException {
+        appFile = folder.newFile("app.json");
+        FileUtils.writeStringToFile(appFile, APP_JSON, StandardCharsets.UTF_8);
+        groupFile = folder.newFile("group.json");
+        FileUtils.writeStringToFile(groupFile, GROUP_JSON, StandardCharsets.UTF_8);
+
+        agentConfig = new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION);
+        MesosAgent agent = mock(MesosAgent.class);
+        when(agent.getConfigHash()).thenReturn(AbstractContainer.hashOf(agentConfig));
+        when(agent.getName()).thenReturn("agent");
+
+        master = mock(MesosMaster.class);
+        when(master.getConfigHash()).thenReturn(AbstractContainer.hashOf(new MesosMasterConfig(ClusterConfig.DEFAULT_MESOS_VERSION)));
+        marathon = mock(Marathon.class);
+        when(marathon.getConfigHash()).thenReturn(AbstractContainer.hashOf(new MarathonConfig()));
+
+        cluster = mock(MesosCluster.class);
+        when(cluster.getMaster()).thenReturn(master);
+        when(cluster.getMarathon()).thenReturn(marathon);
+        when(cluster.getAgents()).thenReturn(new ArrayList<>(Collections.singletonList(agent)));
+        when(cluster.getOne(any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    public void testReconcile_upToDate() {
+        ClusterConfig config = config();
+
+        List<String> changes = new ClusterReconciler(cluster).reconcile(config(), ClusterReconciler.readMarathonJson(config), config);
+
+        assertEquals(Collections.emptyList(), changes);
+        verify(marathon, never()).updateApp(anyString());
+        verify(marathon, never()).updateGroup(anyString());
+        verify(cluster, never()).addAndStartProcesses(anyListOf(ClusterProcess.class), anyInt());
+    }
+
+    @Test
+    public void testReconcile_redeploysEditedJson() throws IOException {
+        ClusterConfig applied = config();
+        Map<String, AppliedMarathonJson> appliedJson = ClusterReconciler.readMarathonJson(applied);
+        String editedApp = "{\"id\": \"/weave-scope\", \"instances\": 2}";
+        String editedGroup = "{\"id\": \"/group\", \"apps\": [{\"id\": \"app\"}]}";
+        FileUtils.writeStringToFile(appFile, editedApp, StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(groupFile, editedGroup, StandardCharsets.UTF_8);
+
+        ClusterReconciler reconciler = new ClusterReconciler(cluster);
+        List<String> changes = reconciler.reconcile(applied, appliedJson, config());
+
+        assertEquals(2, changes.size());
+        verify(marathon).updateApp(editedApp);
+        verify(marathon).updateGroup(editedGroup);
+        verify(marathon, never()).deployGroup(anyString());
+        assertEquals(HashUtil.sha1(editedApp), reconciler.getAppliedMarathonJson().get(appFile.getAbsolutePath()).getHash());
+    }
+
+    @Test
+    public void testReconcile_deploysNewAndDeletesRemovedApps() {
+        ClusterConfig applied = config();
+        ClusterConfig desired = config();
+        desired.getMarathon().getApps().clear();
+        desired.getMarathon().getGroups().clear();
+        applied.getMarathon().getGroups().clear();
+
+        ClusterReconciler reconciler = new ClusterReconciler(cluster);
+        reconciler.reconcile(applied, ClusterReconciler.readMarathonJson(applied), desired);
+
+        verify(marathon).deleteApp("/weave-scope");
+
+        reconciler.reconcile(desired, reconciler.getAppliedMarathonJson(), config());
+
+        verify(marathon).updateApp(APP_JSON);
+        verify(marathon).deployGroup(GROUP_JSON);
+    }
+
+    @Test
+    public void testReconcile_deletesRemovedAppsByStoredId() throws IOException {
+        ClusterConfig applied = config();
+        Map<String, AppliedMarathonJson> appliedJson = ClusterReconciler.readMarathonJson(applied);
+        ClusterConfig desired = config();
+        desired.getMarathon().getApps().clear();
+        desired.getMarathon().getGroups().clear();
+        // edited before it was dropped from the configuration
+        FileUtils.writeStringToFile(appFile, "{\"id\": \"/other\"}", StandardCharsets.UTF_8);
+        // deleted before it was dropped from the configuration
+        FileUtils.forceDelete(groupFile);
+
+        new ClusterReconciler(cluster).reconcile(applied, appliedJson, desired);
+
+        verify(marathon).deleteApp("/weave-scope");
+        verify(marathon, never()).deleteApp("/other");
+        verify(marathon).deleteGroup("/group");
+    }
+
+    @Test
+    public void testReconcile_deletesAppWhenIdChanges() throws IOException {
+        ClusterConfig applied = config();
+        Map<String, AppliedMarathonJson> appliedJson = ClusterReconciler.readMarathonJson(applied);
+        String renamedApp = "{\"id\": \"/renamed\", \"instances\": 1}";
+        String renamedGroup = "{\"id\": \"/renamed-group\", \"apps\": []}";
+        FileUtils.writeStringToFile(appFile, renamedApp, StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(groupFile, renamedGroup, StandardCharsets.UTF_8);
+
+        ClusterReconciler reconciler = new ClusterReconciler(cluster);
+        reconciler.reconcile(applied, appliedJson, config());
+
+        verify(marathon).deleteApp("/weave-scope");
+        verify(marathon).updateApp(renamedApp);
+        verify(marathon).deleteGroup("/group");
+        verify(marathon).deployGroup(renamedGroup);
+        verify(marathon, never()).updateGroup(anyString());
+        assertEquals("/renamed", reconciler.getAppliedMarathonJson().get(appFile.getAbsolutePath()).getId());
+    }
+
+    @Test
+    public void testReconcile_reportsControlPlaneChange() {
+        ClusterConfig config = config();
+        ClusterConfig desired = config();
+        desired.getMaster().setImageTag("changed");
+
+        List<String> changes = new ClusterReconciler(cluster).reconcile(config, ClusterReconciler.readMarathonJson(config), desired);
+
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0).startsWith("Configuration of master has changed"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testReconcile_addsMissingAgent() {
+        ClusterConfig config = config();
+        ClusterConfig desired = config();
+        desired.getAgents().add(new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION));
+
+        List<String> changes = new ClusterReconciler(cluster).reconcile(config, ClusterReconciler.readMarathonJson(config), desired);
+
+        ArgumentCaptor<List> added = ArgumentCaptor.forClass(List.class);
+        verify(cluster).addAndStartProcesses(added.capture(), anyInt());
+        assertEquals(1, added.getValue().size());
+        assertTrue(added.getValue().get(0) instanceof MesosAgentContainer);
+        assertEquals(1, changes.size());
+        verify(master).waitFor();
+    }
+
+    private ClusterConfig config() {
+        ClusterConfig config = new ClusterConfig();
+        config.setMaster(new MesosMasterConfig(ClusterConfig.DEFAULT_MESOS_VERSION));
+        config.getAgents().add(agentConfig);
+        MarathonConfig marathonConfig = new MarathonConfig();
+        AppConfig app = new AppConfig();
+        app.setMarathonJson(appFile.getAbsolutePath());
+        marathonConfig.getApps().add(app);
+        GroupConfig group = new GroupConfig();
+        group.setMarathonJson(groupFile.getAbsolutePath());
+        marathonConfig.getGroups().add(group);
+        config.setMarathon(marathonConfig);
+        return config;
+    }
+
+}
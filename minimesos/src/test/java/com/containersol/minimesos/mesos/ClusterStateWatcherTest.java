@@ -0,0 +1,106 @@
+package com.containersol.minimesos.mesos;
+
+import com.containersol.minimesos.cluster.MesosMaster;
+import com.containersol.minimesos.state.StateParser;
+import com.containersol.minimesos.state.Task;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class ClusterStateWatcherTest {
+
+    private static final String SUBSCRIBED = "{\"type\": \"SUBSCRIBED\", \"subscribed\": {\"get_state\": {"
+        + "\"get_tasks\": {\"tasks\": [{\"task_id\": {\"value\": \"web.1\"}, \"framework_id\": {\"value\": \"fw-1\"}, "
+        + "\"agent_id\": {\"value\": \"agent-1\"}, \"name\": \"web\", \"state\": \"TASK_STAGING\", "
+        + "\"discovery\": {\"ports\": {\"ports\": [{\"number\": 31000}]}}}]}, "
+        + "\"get_agents\": {\"agents\": [{\"agent_info\": {\"id\": {\"value\": \"agent-1\"}, \"hostname\": \"host-1\"}, \"active\": true}]}, "
+        + "\"get_frameworks\": {\"frameworks\": [{\"framework_info\": {\"id\": {\"value\": \"fw-1\"}, \"name\": \"marathon\"}, \"active\": true}]}"
+        + "}}}";
+
+    private static final String TASK_RUNNING = "{\"type\": \"TASK_UPDATED\", \"task_updated\": {\"framework_id\": {\"value\": \"fw-1\"}, "
+        + "\"state\": \"TASK_RUNNING\", \"status\": {\"task_id\": {\"value\": \"web.1\"}, \"state\": \"TASK_RUNNING\"}}}";
+
+    private ClusterStateWatcher watcher;
+
+    private List<Task> reported = new ArrayList<>();
+
+    @Before
+    public void before() {
+        watcher = new ClusterStateWatcher(mock(MesosMaster.class));
+        watcher.addTaskListener(reported::add);
+    }
+
+    @Test
+    public void testApply_subscribed() throws IOException {
+        apply(SUBSCRIBED);
+
+        assertEquals(1, watcher.getTasks().size());
+        Task task = watcher.getTasks().get(0);
+        assertEquals("web", task.getName());
+        assertEquals("agent-1", task.getSlaveId());
+        assertEquals(31000, task.getDiscovery().getPorts().getPorts().get(0).getNumber());
+        assertEquals("marathon", watcher.getFrameworkName("fw-1"));
+        assertEquals("host-1", watcher.getAgents().get(0).getHostname());
+        assertEquals(1, reported.size());
+    }
+
+    @Test
+    public void testApply_taskUpdated() throws IOException {
+        apply(SUBSCRIBED);
+        apply(TASK_RUNNING);
+
+        assertEquals("TASK_RUNNING", watcher.getTasks().get(0).getState());
+        assertEquals(2, reported.size());
+    }
+
+    @Test
+    public void testApply_removals() throws IOException {
+        apply(SUBSCRIBED);
+        apply("{\"type\": \"AGENT_REMOVED\", \"agent_removed\": {\"agent_id\": {\"value\": \"agent-1\"}}}");
+        apply("{\"type\": \"FRAMEWORK_REMOVED\", \"framework_removed\": {\"framework_info\": {\"id\": {\"value\": \"fw-1\"}}}}");
+        apply("{\"type\": \"HEARTBEAT\"}");
+
+        assertEquals(0, watcher.getAgents().size());
+        assertNull(watcher.getFrameworkName("fw-1"));
+    }
+
+    @Test
+    public void testAwaitTask_wakesUpOnEvent() throws Exception {
+        apply(SUBSCRIBED);
+        Thread updater = new Thread(() -> {
+            try {
+                Thread.sleep(100);
+                apply(TASK_RUNNING);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        updater.start();
+
+        Task task = watcher.awaitTask(t -> "TASK_RUNNING".equals(t.getState()), 5, TimeUnit.SECONDS);
+
+        assertEquals("web.1", task.getId());
+        updater.join();
+    }
+
+    @Test
+    public void testAwaitTask_timeout() throws Exception {
+        apply(SUBSCRIBED);
+
+        assertNull(watcher.awaitTask(t -> "TASK_FAILED".equals(t.getState()), 50, TimeUnit.MILLISECONDS));
+    }
+
+    private void apply(String event) throws IOException {
+        watcher.apply(StateParser.readTree(event.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.containersol.minimesos.state;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class StateIndexTest {
+
+    private static final String STATE_JSON = "{" +
+        "\"id\": \"master\"," +
+        "\"slaves\": [{\"id\": \"S0\", \"hostname\": \"agent0\", \"pid\": \"slave(1)@172.17.0.7:5051\", \"active\": true}]," +
+        "\"frameworks\": [{" +
+        "  \"id\": \"F0\", \"name\": \"marathon\"," +
+        "  \"tasks\": [" +
+        "    {\"id\": \"web.1\", \"name\": \"web\", \"state\": \"TASK_RUNNING\", \"framework_id\": \"F0\", \"slave_id\": \"S0\"}," +
+        "    {\"id\": \"web.2\", \"name\": \"web\", \"state\": \"TASK_RUNNING\", \"framework_id\": \"F0\", \"slave_id\": \"S0\"}," +
+        "    {\"id\": \"worker.1\", \"name\": \"worker\", \"state\": \"TASK_STAGING\", \"framework_id\": \"F0\", \"slave_id\": \"S0\"}" +
+        "  ]," +
+        "  \"executors\": [{\"id\": \"web.1\", \"directory\": \"/sandbox/web.1\"}]" +
+        "}]" +
+        "}";
+
+    private State state;
+
+    @Before
+    public void before() throws Exception {
+        state = State.fromJSON(STATE_JSON);
+    }
+
+    @Test
+    public void testFindTask() {
+        StateIndex index = state.getIndex();
+
+        assertEquals("web.2", index.findTask("web.2").getId());
+        assertEquals("web.1", index.findTask("web").getId());
+        assertEquals("worker.1", index.findTask("ker").getId());
+        assertNull(index.findTask("db"));
+        assertEquals(2, index.getTasksByPrefix("web.").size());
+    }
+
+    @Test
+    public void testLookups() {
+        StateIndex index = state.getIndex();
+
+        assertEquals("marathon", index.getFramework("F0").getName());
+        assertSame(index.getFramework("F0"), state.getFramework("marathon"));
+        assertEquals("172.17.0.7", index.getAgent("S0").getPidHost());
+        assertEquals("/sandbox/web.1", index.getExecutor("F0", "web.1").getDirectory());
+        assertNull(index.getExecutor("F1", "web.1"));
+    }
+
+    @Test
+    public void testRepeatedValuesAreShared() {
+        Framework framework = state.getFramework("marathon");
+
+        assertSame(framework.getTasks().get(0).getSlaveId(), framework.getTasks().get(1).getSlaveId());
+        assertSame(framework.getTasks().get(0).getState(), framework.getTasks().get(1).getState());
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.containersol.minimesos.state;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class StateParserTest {
+
+    @Test
+    public void testForEach_decodesOnlyTheArray() throws IOException {
+        String json = "{\"before\": {\"tasks\": [{\"id\": \"nested\"}]}, " +
+            "\"tasks\": [{\"id\": \"a\", \"state\": \"TASK_RUNNING\"}, {\"id\": \"b\", \"statuses\": [{\"state\": \"TASK_STAGING\"}]}], " +
+            "\"after\": [1, 2]}";
+        List<String> ids = new ArrayList<>();
+
+        int count = StateParser.forEach(stream(json), "tasks", Task.class, task -> ids.add(task.getId()));
+
+        assertEquals(2, count);
+        assertEquals("a", ids.get(0));
+        assertEquals("b", ids.get(1));
+    }
+
+    @Test
+    public void testForEach_missingArray() throws IOException {
+        assertEquals(0, StateParser.forEach(stream("{\"slaves\": []}"), "tasks", Task.class, task -> { }));
+    }
+
+    @Test
+    public void testRead_stateSummary() throws IOException {
+        String json = "{\"hostname\": \"master\", " +
+            "\"slaves\": [{\"id\": \"S0\", \"active\": true, \"used_resources\": {\"cpus\": 0.5, \"mem\": 128, \"ports\": \"[31000-31000]\"}}], " +
+            "\"frameworks\": [{\"id\": \"F0\", \"name\": \"marathon\", \"TASK_RUNNING\": 1}]}";
+
+        StateSummary summary = StateParser.read(stream(json), StateSummary.class);
+
+        assertEquals("master", summary.getHostname());
+        assertEquals("marathon", summary.getFrameworks().get(0).getName());
+        assertEquals(0.5, summary.getAgents().get(0).getUsedResource("cpus"), 0.001);
+        assertEquals(0, summary.getAgents().get(0).getUsedResource("ports"), 0.001);
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.containersol.minimesos.util;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ExponentialBackoffTest {
+
+    @Test
+    public void testAwait_conditionBecomesTrue() throws InterruptedException {
+        AtomicInteger checks = new AtomicInteger();
+
+        boolean result = new ExponentialBackoff(1, 10).await(() -> checks.incrementAndGet() == 3, 5, TimeUnit.SECONDS);
+
+        assertTrue(result);
+        assertEquals(3, checks.get());
+    }
+
+    @Test
+    public void testAwait_timeout() throws InterruptedException {
+        long start = System.nanoTime();
+
+        boolean result = new ExponentialBackoff(1, 10).await(() -> false, 100, TimeUnit.MILLISECONDS);
+
+        assertFalse(result);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidDelays() {
+        new ExponentialBackoff(10, 1);
+    }
+
+}
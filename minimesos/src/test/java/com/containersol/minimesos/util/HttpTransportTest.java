@@ -0,0 +1,176 @@
+package com.containersol.minimesos.util;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.HttpResponseException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HttpTransportTest {
+
+    private HttpServer server;
+
+    private HttpTransport transport;
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger slowRequests = new AtomicInteger();
+
+    @Before
+    public void before() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool(ParallelUtil.daemonThreadFactory("http-test")));
+        server.createContext("/text", exchange -> respond(exchange, 200, "hello".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/gzip", exchange -> {
+            String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+                respond(exchange, 406, new byte[0]);
+                return;
+            }
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write("compressed".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            respond(exchange, 200, compressed.toByteArray());
+        });
+        server.createContext("/missing", exchange -> respond(exchange, 404, "not found".getBytes(StandardCharsets.UTF_8)));
+        server.createContext("/slow", exchange -> {
+            slowRequests.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "late".getBytes(StandardCharsets.UTF_8));
+        });
+        server.start();
+
+        transport = new HttpTransport(1000, 300, 4);
+    }
+
+    @After
+    public void after() {
+        transport.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testGet_reusesConnection() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            assertEquals("hello", transport.get(url("/text"), HttpTransportTest::read));
+        }
+
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    public void testGet_decompressesGzip() throws IOException {
+        assertEquals("compressed", transport.get(url("/gzip"), HttpTransportTest::read));
+    }
+
+    @Test
+    public void testGet_unexpectedStatus() throws IOException {
+        try {
+            transport.get(url("/missing"), HttpTransportTest::read);
+            fail("Response with status 404 is expected to fail");
+        } catch (HttpResponseException e) {
+            assertEquals(404, e.getStatusCode());
+        }
+    }
+
+    @Test
+    public void testGet_readTimeout() throws IOException {
+        try {
+            transport.get(url("/slow"), HttpTransportTest::read);
+            fail("Slow response is expected to time out");
+        } catch (SocketTimeoutException e) {
+            assertEquals(1, transport.getMetrics().get("GET /slow").getFailures());
+        }
+    }
+
+    @Test
+    public void testGetAsync() {
+        CompletableFuture<String> first = transport.getAsync(url("/text"), HttpTransportTest::read);
+        CompletableFuture<String> second = transport.getAsync(url("/gzip"), HttpTransportTest::read);
+
+        assertEquals("hello compressed", first.thenCombine(second, (a, b) -> a + " " + b).join());
+    }
+
+    @Test
+    public void testGetAsync_cancelAbortsRequest() {
+        HttpTransport patient = new HttpTransport(1000, 5000, 4);
+        try {
+            CompletableFuture<String> slow = patient.getAsync(url("/slow"), HttpTransportTest::read);
+            await().atMost(500, MILLISECONDS).until(() -> slowRequests.get() == 1);
+
+            slow.cancel(true);
+
+            // the aborted request fails before the response arrives after one second
+            await().atMost(500, MILLISECONDS).until(() -> patient.getMetrics().containsKey("GET /slow"));
+            assertEquals(1, patient.getMetrics().get("GET /slow").getFailures());
+        } finally {
+            patient.close();
+        }
+    }
+
+    @Test
+    public void testMetrics() throws IOException {
+        transport.get(url("/text"), HttpTransportTest::read);
+        transport.get(url("/text?query=ignored"), HttpTransportTest::read);
+        try {
+            transport.get(url("/missing"), HttpTransportTest::read);
+        } catch (HttpResponseException e) { //NOSONAR
+            // counted as failure
+        }
+
+        Map<String, HttpTransport.RequestMetrics> metrics = transport.getMetrics();
+        assertEquals(2, metrics.size());
+        assertEquals(2, metrics.get("GET /text").getCount());
+        assertEquals(0, metrics.get("GET /text").getFailures());
+        assertEquals(1, metrics.get("GET /missing").getFailures());
+        assertTrue(metrics.get("GET /text").getMaxMillis() <= metrics.get("GET /text").getTotalMillis());
+    }
+
+    private String url(String pathAndQuery) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + pathAndQuery;
+    }
+
+    private void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        IOUtils.toByteArray(exchange.getRequestBody());
+        exchange.sendResponseHeaders(status, body.length > 0 ? body.length : -1);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static String read(InputStream body) throws IOException {
+        return IOUtils.toString(body, StandardCharsets.UTF_8);
+    }
+
+}
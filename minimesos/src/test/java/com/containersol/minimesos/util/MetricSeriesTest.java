@@ -0,0 +1,41 @@
+package com.containersol.minimesos.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricSeriesTest {
+
+    @Test
+    public void testAdd_overwritesOldestSample() {
+        MetricSeries series = new MetricSeries(3);
+        for (int i = 1; i <= 5; i++) {
+            series.add(i * 1000L, i);
+        }
+
+        assertEquals(3, series.size());
+        assertEquals(5.0, series.getLatest(), 0);
+        assertEquals(4.0, series.getValue(1), 0);
+        assertEquals(3.0, series.getValue(2), 0);
+        assertTrue(Double.isNaN(series.getValue(3)));
+        assertEquals(3000L, series.getTimestamp(2));
+    }
+
+    @Test
+    public void testGetRate() {
+        MetricSeries series = new MetricSeries(2);
+        assertTrue(Double.isNaN(series.getRate()));
+
+        series.add(1000, 10);
+        series.add(3000, 30);
+
+        assertEquals(10.0, series.getRate(), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooSmall() {
+        new MetricSeries(1);
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.containersol.minimesos.util;
+
+import com.containersol.minimesos.MinimesosException;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelUtilTest {
+
+    @Test
+    public void testForEach_processesAllItems() {
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        ParallelUtil.forEach("process", Arrays.asList(1, 2, 3, 4), 2, processed::add);
+
+        assertEquals(4, processed.size());
+        assertTrue(processed.containsAll(Arrays.asList(1, 2, 3, 4)));
+    }
+
+    @Test
+    public void testForEach_failureDoesNotStopOthers() {
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        try {
+            ParallelUtil.forEach("process", Arrays.asList(1, 2, 3, 4), 2, item -> {
+                if (item % 2 == 0) {
+                    throw new MinimesosException("failed " + item);
+                }
+                processed.add(item);
+            });
+            fail("Failures are expected to be reported");
+        } catch (MinimesosException e) {
+            assertTrue(e.getMessage().startsWith("Failed to process for 2 of 4 items"));
+            assertEquals(1, e.getSuppressed().length);
+        }
+
+        assertTrue(processed.containsAll(Arrays.asList(1, 3)));
+    }
+
+    @Test
+    public void testFindFirst_doesNotWaitForSlowQueries() {
+        long start = System.currentTimeMillis();
+
+        Integer found = ParallelUtil.findFirst("query", Arrays.asList(1, 2, 3), 3, 5000, item -> {
+            if (item != 2) {
+                sleep(3000);
+            }
+            return item;
+        }, item -> item == 2);
+
+        assertEquals(Integer.valueOf(2), found);
+        assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    public void testFindFirst_failedQueryDoesNotMatch() {
+        Integer found = ParallelUtil.findFirst("query", Arrays.asList(1, 2), 2, 5000, item -> {
+            if (item == 1) {
+                throw new MinimesosException("failed " + item);
+            }
+            return item;
+        }, item -> item == 1);
+
+        assertNull(found);
+    }
+
+    @Test
+    public void testFindFirst_timesOut() {
+        try {
+            ParallelUtil.findFirst("query", Arrays.asList(1, 2), 2, 100, item -> {
+                sleep(3000);
+                return item;
+            }, item -> true);
+            fail("Slow queries are expected to time out");
+        } catch (MinimesosException e) {
+            assertEquals("Failed to query within 100 ms", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testFindFirstAsync_cancelsUnfinishedQueries() {
+        List<CompletableFuture<Integer>> queries = new ArrayList<>();
+
+        Integer found = ParallelUtil.findFirstAsync("query", Arrays.asList(1, 2, 3), 5000, item -> {
+            CompletableFuture<Integer> query = (item == 2) ? CompletableFuture.completedFuture(item) : new CompletableFuture<>();
+            queries.add(query);
+            return query;
+        }, item -> item == 2);
+
+        assertEquals(Integer.valueOf(2), found);
+        assertTrue(queries.get(0).isCancelled());
+        assertFalse(queries.get(1).isCancelled());
+        assertTrue(queries.get(2).isCancelled());
+    }
+
+    @Test
+    public void testFindFirstAsync_timesOut() {
+        CompletableFuture<Integer> query = new CompletableFuture<>();
+        try {
+            ParallelUtil.findFirstAsync("query", Collections.singletonList(1), 100, item -> query, item -> true);
+            fail("Unfinished query is expected to time out");
+        } catch (MinimesosException e) {
+            assertEquals("Failed to query within 100 ms", e.getMessage());
+            assertTrue(query.isCancelled());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.containersol.minimesos.util;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RecordIoReaderTest {
+
+    @Test
+    public void testRead() throws IOException {
+        RecordIoReader reader = reader("5\nhello11\n{\"a\": true}");
+
+        assertEquals("hello", new String(reader.read(), StandardCharsets.UTF_8));
+        assertEquals("{\"a\": true}", new String(reader.read(), StandardCharsets.UTF_8));
+        assertNull(reader.read());
+    }
+
+    @Test
+    public void testRead_emptyRecord() throws IOException {
+        RecordIoReader reader = reader("0\n");
+
+        assertEquals(0, reader.read().length);
+        assertNull(reader.read());
+    }
+
+    @Test(expected = EOFException.class)
+    public void testRead_truncatedRecord() throws IOException {
+        reader("10\nhello").read();
+    }
+
+    @Test(expected = IOException.class)
+    public void testRead_invalidLength() throws IOException {
+        reader("{\"type\": \"HEARTBEAT\"}").read();
+    }
+
+    private static RecordIoReader reader(String stream) {
+        return new RecordIoReader(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
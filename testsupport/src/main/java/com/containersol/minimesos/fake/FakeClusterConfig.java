@@ -0,0 +1,162 @@
+package com.containersol.minimesos.fake;
+
+/**
+ * Size and behaviour of a {@link FakeControlPlane}
+ */
+public class FakeClusterConfig {
+
+    private int agents = 3;
+
+    private int frameworks = 2;
+
+    private int tasks = 10;
+
+    private int completedTasks = 0;
+
+    private int apps = 5;
+
+    private int groups = 2;
+
+    private long latencyMs = 0;
+
+    private double errorRate = 0;
+
+    private long seed = 42;
+
+    private String mesosVersion = "1.0.0";
+
+    /**
+     * @param agents number of agents registered with the master
+     * @return this configuration
+     */
+    public FakeClusterConfig withAgents(int agents) {
+        this.agents = agents;
+        return this;
+    }
+
+    /**
+     * @param frameworks number of frameworks, the first one is called "marathon"
+     * @return this configuration
+     */
+    public FakeClusterConfig withFrameworks(int frameworks) {
+        this.frameworks = frameworks;
+        return this;
+    }
+
+    /**
+     * @param tasks number of running tasks, spread over frameworks and agents
+     * @return this configuration
+     */
+    public FakeClusterConfig withTasks(int tasks) {
+        this.tasks = tasks;
+        return this;
+    }
+
+    /**
+     * @param completedTasks number of finished and killed tasks, which the master still reports in <code>/master/tasks</code>. Half
+     *                       of them belong to a framework, which has completed
+     * @return this configuration
+     */
+    public FakeClusterConfig withCompletedTasks(int completedTasks) {
+        this.completedTasks = completedTasks;
+        return this;
+    }
+
+    /**
+     * @param apps number of apps deployed to Marathon
+     * @return this configuration
+     */
+    public FakeClusterConfig withApps(int apps) {
+        this.apps = apps;
+        return this;
+    }
+
+    /**
+     * @param groups number of groups deployed to Marathon
+     * @return this configuration
+     */
+    public FakeClusterConfig withGroups(int groups) {
+        this.groups = groups;
+        return this;
+    }
+
+    /**
+     * @param latencyMs time every request waits before it is answered
+     * @return this configuration
+     */
+    public FakeClusterConfig withLatency(long latencyMs) {
+        this.latencyMs = latencyMs;
+        return this;
+    }
+
+    /**
+     * @param errorRate share of requests between 0 and 1, which are answered with <code>503 Service Unavailable</code>
+     * @return this configuration
+     */
+    public FakeClusterConfig withErrorRate(double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Error rate must be between 0 and 1, but is " + errorRate);
+        }
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * @param seed of the random numbers injecting errors, so failing requests are the same in every run
+     * @return this configuration
+     */
+    public FakeClusterConfig withSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * @param mesosVersion reported by <code>/version</code>
+     * @return this configuration
+     */
+    public FakeClusterConfig withMesosVersion(String mesosVersion) {
+        this.mesosVersion = mesosVersion;
+        return this;
+    }
+
+    public int getAgents() {
+        return agents;
+    }
+
+    public int getFrameworks() {
+        return frameworks;
+    }
+
+    public int getTasks() {
+        return tasks;
+    }
+
+    public int getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public int getApps() {
+        return apps;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public String getMesosVersion() {
+        return mesosVersion;
+    }
+
+}
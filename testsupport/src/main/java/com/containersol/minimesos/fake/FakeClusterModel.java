@@ -0,0 +1,435 @@
+package com.containersol.minimesos.fake;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Synthetic agents, frameworks, tasks, Marathon apps and groups of a fake cluster, written in the JSON formats of Mesos and Marathon.
+ * Methods are synchronized, so the cluster can change while it is read.
+ */
+class FakeClusterModel {
+
+    static final double AGENT_CPUS = 4;
+
+    static final double AGENT_MEM = 4096;
+
+    static final double TASK_CPUS = 0.1;
+
+    static final double TASK_MEM = 32;
+
+    static final int TASK_PORT = 31000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String version;
+
+    private final List<Agent> agents = new ArrayList<>();
+
+    private final Map<String, Framework> frameworks = new LinkedHashMap<>();
+
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+
+    /**
+     * Tasks, which are not running anymore, but still listed by the master
+     */
+    private final List<Task> completedTasks = new ArrayList<>();
+
+    private final Map<String, JsonNode> apps = new TreeMap<>();
+
+    private final Map<String, JsonNode> groups = new TreeMap<>();
+
+    FakeClusterModel(FakeClusterConfig config, int port) {
+        this.version = config.getMesosVersion();
+        for (int i = 0; i < config.getAgents(); i++) {
+            agents.add(new Agent(String.format("fake-agent-S%d", i), agentAddress(i), port));
+        }
+        for (int i = 0; i < config.getFrameworks(); i++) {
+            String name = (i == 0) ? "marathon" : "framework" + i;
+            frameworks.put("fake-framework-" + i, new Framework("fake-framework-" + i, name));
+        }
+        List<String> frameworkIds = new ArrayList<>(frameworks.keySet());
+        for (int i = 0; i < config.getTasks() && !agents.isEmpty() && !frameworkIds.isEmpty(); i++) {
+            String name = "app" + (i % Math.max(1, config.getApps()));
+            Task task = new Task(String.format("%s.%08d-fake", name, i), name, frameworkIds.get(i % frameworkIds.size()),
+                agents.get(i / frameworkIds.size() % agents.size()).id);
+            tasks.put(task.id, task);
+        }
+        for (int i = 0; i < config.getCompletedTasks() && !agents.isEmpty() && !frameworkIds.isEmpty(); i++) {
+            // every other completed task belongs to a framework, which is not registered anymore
+            String frameworkId = (i % 2 == 0) ? frameworkIds.get(0) : "fake-framework-completed";
+            String state = (i % 4 < 2) ? "TASK_FINISHED" : "TASK_KILLED";
+            completedTasks.add(new Task(String.format("completed.%08d-fake", i), "completed", frameworkId, agents.get(0).id, state));
+        }
+        for (int i = 0; i < config.getApps(); i++) {
+            ObjectNode app = MAPPER.createObjectNode().put("id", "/app" + i).put("cmd", "sleep 3600").put("cpus", TASK_CPUS).put("mem", TASK_MEM).put("instances", 1);
+            apps.put(app.get("id").asText(), app);
+        }
+        for (int i = 0; i < config.getGroups(); i++) {
+            ObjectNode group = MAPPER.createObjectNode().put("id", "/group" + i);
+            group.putArray("apps");
+            group.putArray("groups");
+            groups.put(group.get("id").asText(), group);
+        }
+    }
+
+    /**
+     * @param index of the agent
+     * @return loopback address of the agent, so every agent has its own address like in a real cluster
+     */
+    static String agentAddress(int index) {
+        return String.format("127.2.%d.%d", index / 250, index % 250 + 1);
+    }
+
+    List<Agent> getAgents() {
+        return agents;
+    }
+
+    synchronized Agent findAgentByAddress(String address) {
+        for (Agent agent : agents) {
+            if (agent.address.equals(address)) {
+                return agent;
+            }
+        }
+        return null;
+    }
+
+    synchronized int getTaskCount() {
+        return tasks.size();
+    }
+
+    synchronized int getAppCount() {
+        return apps.size();
+    }
+
+    synchronized int getGroupCount() {
+        return groups.size();
+    }
+
+    synchronized void writeVersion(JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("version", version);
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes <code>/state.json</code> of the master
+     */
+    synchronized void writeMasterState(JsonGenerator json, boolean withTasks) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", "fake-master");
+        json.writeStringField("version", version);
+        json.writeStringField("hostname", "master.fake");
+        json.writeNumberField("activated_slaves", agents.size());
+        json.writeArrayFieldStart("frameworks");
+        for (Framework framework : frameworks.values()) {
+            writeFramework(json, framework, withTasks);
+        }
+        json.writeEndArray();
+        writeAgents(json);
+        json.writeEndObject();
+    }
+
+    synchronized void writeAgentList(JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        writeAgents(json);
+        json.writeEndObject();
+    }
+
+    synchronized void writeFrameworkList(JsonGenerator json) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart("frameworks");
+        for (Framework framework : frameworks.values()) {
+            writeFramework(json, framework, true);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes a page of <code>/master/tasks</code>, which lists running tasks followed by completed ones
+     */
+    synchronized void writeTaskPage(JsonGenerator json, int limit, int offset) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart("tasks");
+        int index = 0;
+        List<Task> listed = new ArrayList<>(tasks.values());
+        listed.addAll(completedTasks);
+        for (Task task : listed) {
+            if (index >= offset + limit) {
+                break;
+            }
+            if (index >= offset) {
+                writeTask(json, task);
+            }
+            index++;
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    /**
+     * Writes <code>/state.json</code> of an agent, with an executor for every task running on it
+     */
+    synchronized void writeAgentState(JsonGenerator json, Agent agent) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", agent.id);
+        json.writeStringField("version", version);
+        json.writeStringField("hostname", agent.address);
+        json.writeArrayFieldStart("frameworks");
+        for (Framework framework : frameworks.values()) {
+            json.writeStartObject();
+            json.writeStringField("id", framework.id);
+            json.writeStringField("name", framework.name);
+            json.writeArrayFieldStart("executors");
+            for (Task task : tasks.values()) {
+                if (task.agentId.equals(agent.id) && task.frameworkId.equals(framework.id)) {
+                    json.writeStartObject();
+                    json.writeStringField("id", task.id);
+                    json.writeStringField("directory", getSandbox(task));
+                    json.writeArrayFieldStart("tasks");
+                    writeTask(json, task);
+                    json.writeEndArray();
+                    json.writeEndObject();
+                }
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    synchronized Map<String, Double> getMasterMetrics() {
+        Map<String, Double> metrics = new TreeMap<>();
+        metrics.put("master/cpus_total", agents.size() * AGENT_CPUS);
+        metrics.put("master/cpus_used", tasks.size() * TASK_CPUS);
+        metrics.put("master/mem_total", agents.size() * AGENT_MEM);
+        metrics.put("master/mem_used", tasks.size() * TASK_MEM);
+        metrics.put("master/slaves_active", (double) agents.size());
+        metrics.put("master/frameworks_active", (double) frameworks.size());
+        metrics.put("master/tasks_running", (double) tasks.size());
+        metrics.put("master/outstanding_offers", 0.0);
+        metrics.put("master/event_queue_messages", 0.0);
+        metrics.put("master/event_queue_dispatches", 0.0);
+        return metrics;
+    }
+
+    synchronized Map<String, Double> getAgentMetrics(Agent agent) {
+        long running = tasks.values().stream().filter(task -> task.agentId.equals(agent.id)).count();
+        Map<String, Double> metrics = new TreeMap<>();
+        metrics.put("slave/cpus_total", AGENT_CPUS);
+        metrics.put("slave/cpus_used", running * TASK_CPUS);
+        metrics.put("slave/mem_total", AGENT_MEM);
+        metrics.put("slave/mem_used", running * TASK_MEM);
+        metrics.put("slave/tasks_running", (double) running);
+        return metrics;
+    }
+
+    /**
+     * @param path of a file in a sandbox, as requested from <code>/files/download</code>
+     * @return content of the file or null, if the file is not in the sandbox of a task on the agent
+     */
+    synchronized String readSandboxFile(Agent agent, String path) {
+        for (Task task : tasks.values()) {
+            String sandbox = getSandbox(task);
+            if (task.agentId.equals(agent.id) && path.startsWith(sandbox + "/")) {
+                String file = path.substring(sandbox.length() + 1);
+                return String.format("%s of task %s on agent %s%n", file, task.id, agent.id);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes a framework with all its tasks, like <code>/master/teardown</code>
+     *
+     * @return false if the framework is not known
+     */
+    synchronized boolean teardown(String frameworkId) {
+        if (frameworks.remove(frameworkId) == null) {
+            return false;
+        }
+        tasks.values().removeIf(task -> task.frameworkId.equals(frameworkId));
+        return true;
+    }
+
+    synchronized Collection<JsonNode> getApps() {
+        return new ArrayList<>(apps.values());
+    }
+
+    synchronized JsonNode getApp(String id) {
+        return apps.get(id);
+    }
+
+    synchronized void putApp(JsonNode app) {
+        apps.put(normalizeId(app.path("id").asText()), app);
+    }
+
+    synchronized boolean deleteApp(String id) {
+        return apps.remove(normalizeId(id)) != null;
+    }
+
+    synchronized Collection<JsonNode> getGroups() {
+        return new ArrayList<>(groups.values());
+    }
+
+    synchronized void putGroup(JsonNode group) {
+        groups.put(normalizeId(group.path("id").asText()), group);
+    }
+
+    synchronized boolean deleteGroup(String id) {
+        return groups.remove(normalizeId(id)) != null;
+    }
+
+    static String normalizeId(String id) {
+        return id.startsWith("/") ? id : "/" + id;
+    }
+
+    private void writeAgents(JsonGenerator json) throws IOException {
+        Map<String, Integer> running = new LinkedHashMap<>();
+        for (Task task : tasks.values()) {
+            running.merge(task.agentId, 1, Integer::sum);
+        }
+        json.writeArrayFieldStart("slaves");
+        for (Agent agent : agents) {
+            int count = running.getOrDefault(agent.id, 0);
+            json.writeStartObject();
+            json.writeStringField("id", agent.id);
+            json.writeStringField("hostname", agent.address);
+            json.writeStringField("pid", agent.getPid());
+            json.writeBooleanField("active", true);
+            json.writeObjectFieldStart("resources");
+            json.writeNumberField("cpus", AGENT_CPUS);
+            json.writeNumberField("mem", AGENT_MEM);
+            json.writeStringField("ports", "[31000-32000]");
+            json.writeEndObject();
+            json.writeObjectFieldStart("used_resources");
+            json.writeNumberField("cpus", count * TASK_CPUS);
+            json.writeNumberField("mem", count * TASK_MEM);
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+    }
+
+    private void writeFramework(JsonGenerator json, Framework framework, boolean withTasks) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", framework.id);
+        json.writeStringField("name", framework.name);
+        json.writeBooleanField("active", true);
+        json.writeStringField("hostname", framework.name + ".fake");
+        json.writeStringField("role", "*");
+        if (withTasks) {
+            json.writeArrayFieldStart("tasks");
+            for (Task task : tasks.values()) {
+                if (task.frameworkId.equals(framework.id)) {
+                    writeTask(json, task);
+                }
+            }
+            json.writeEndArray();
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeTask(JsonGenerator json, Task task) throws IOException {
+        json.writeStartObject();
+        json.writeStringField("id", task.id);
+        json.writeStringField("name", task.name);
+        json.writeStringField("framework_id", task.frameworkId);
+        json.writeStringField("executor_id", "");
+        json.writeStringField("slave_id", task.agentId);
+        json.writeStringField("state", task.state);
+        json.writeObjectFieldStart("resources");
+        json.writeNumberField("cpus", TASK_CPUS);
+        json.writeNumberField("mem", TASK_MEM);
+        json.writeStringField("ports", "[" + TASK_PORT + "-" + TASK_PORT + "]");
+        json.writeEndObject();
+        json.writeObjectFieldStart("discovery");
+        json.writeStringField("visibility", "FRAMEWORK");
+        json.writeStringField("name", task.name);
+        json.writeObjectFieldStart("ports");
+        json.writeArrayFieldStart("ports");
+        json.writeStartObject();
+        json.writeNumberField("number", TASK_PORT);
+        json.writeStringField("protocol", "tcp");
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    private static String getSandbox(Task task) {
+        return String.format("/var/lib/mesos/slaves/%s/frameworks/%s/executors/%s/runs/latest", task.agentId, task.frameworkId, task.id);
+    }
+
+    static class Agent {
+
+        final String id;
+
+        final String address;
+
+        final int port;
+
+        Agent(String id, String address, int port) {
+            this.id = id;
+            this.address = address;
+            this.port = port;
+        }
+
+        String getPid() {
+            return "slave(1)@" + address + ":" + port;
+        }
+
+    }
+
+    private static class Framework {
+
+        final String id;
+
+        final String name;
+
+        Framework(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+    }
+
+    private static class Task {
+
+        final String id;
+
+        final String name;
+
+        final String frameworkId;
+
+        final String agentId;
+
+        final String state;
+
+        Task(String id, String name, String frameworkId, String agentId) {
+            this(id, name, frameworkId, agentId, "TASK_RUNNING");
+        }
+
+        Task(String id, String name, String frameworkId, String agentId, String state) {
+            this.id = id;
+            this.name = name;
+            this.frameworkId = frameworkId;
+            this.agentId = agentId;
+            this.state = state;
+        }
+
+    }
+
+}
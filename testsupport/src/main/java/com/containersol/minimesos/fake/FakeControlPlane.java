@@ -0,0 +1,419 @@
+package com.containersol.minimesos.fake;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.util.ParallelUtil;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process stand-in for the HTTP APIs of a Mesos master, its agents and Marathon. It serves synthetic <code>state.json</code>,
+ * task pages, metrics and sandbox files of a cluster of any size, and Marathon apps and groups, which can be deployed and deleted.
+ * <p>
+ * All members listen on the same port. Every member has its own loopback address, e.g. <code>127.2.0.1</code> for the first agent,
+ * so members are told apart by the address a request is sent to, like in a real cluster. Linux routes all of
+ * <code>127.0.0.0/8</code> to the loopback interface; other systems need aliases of the loopback interface for these addresses.
+ * <p>
+ * Every request can be delayed and fail at random with <code>503 Service Unavailable</code>, to see how callers cope with slow or
+ * unreliable clusters. Use {@link FakeMesosClusterFactory} to load the fake cluster as a {@link com.containersol.minimesos.cluster.MesosCluster}.
+ */
+public class FakeControlPlane implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FakeControlPlane.class);
+
+    public static final String MASTER_ADDRESS = "127.1.0.1";
+
+    public static final String MARATHON_ADDRESS = "127.1.0.2";
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String APPS = "/v2/apps";
+
+    private static final String GROUPS = "/v2/groups";
+
+    private final String clusterId;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final FakeClusterModel model;
+
+    private final Random random;
+
+    private final Map<String, LongAdder> requestCounts = new ConcurrentHashMap<>();
+
+    private volatile long latencyMs;
+
+    private volatile double errorRate;
+
+    /**
+     * Creates the cluster and starts to serve it
+     *
+     * @param config size and behaviour of the cluster
+     */
+    public FakeControlPlane(FakeClusterConfig config) {
+        this.clusterId = "fake" + Integer.toUnsignedString(new Random().nextInt());
+        this.latencyMs = config.getLatencyMs();
+        this.errorRate = config.getErrorRate();
+        this.random = new Random(config.getSeed());
+        try {
+            server = HttpServer.create(new InetSocketAddress(0), 0);
+        } catch (IOException e) {
+            throw new MinimesosException("Could not start fake control plane", e);
+        }
+        model = new FakeClusterModel(config, server.getAddress().getPort());
+        executor = Executors.newCachedThreadPool(ParallelUtil.daemonThreadFactory("fake-control-plane"));
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        LOGGER.debug("Fake control plane of cluster " + clusterId + " listens on port " + getPort());
+    }
+
+    public String getClusterId() {
+        return clusterId;
+    }
+
+    /**
+     * @return port all members listen on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return addresses of the agents in the order they are registered with the master
+     */
+    public List<String> getAgentAddresses() {
+        List<String> addresses = new ArrayList<>();
+        model.getAgents().forEach(agent -> addresses.add(agent.address));
+        return addresses;
+    }
+
+    /**
+     * @param latencyMs time every following request waits before it is answered
+     */
+    public void setLatency(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    /**
+     * @param errorRate share of following requests between 0 and 1, which are answered with <code>503 Service Unavailable</code>
+     */
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * @param path of an endpoint without query, e.g. <code>/master/tasks</code>
+     * @return number of requests to the endpoint of any member
+     */
+    public long getRequestCount(String path) {
+        LongAdder count = requestCounts.get(path);
+        return (count != null) ? count.sum() : 0;
+    }
+
+    /**
+     * @return number of requests to all endpoints
+     */
+    public long getRequestCount() {
+        return requestCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    public int getTaskCount() {
+        return model.getTaskCount();
+    }
+
+    public int getAppCount() {
+        return model.getAppCount();
+    }
+
+    public int getGroupCount() {
+        return model.getGroupCount();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            InetAddress remote = exchange.getRemoteAddress().getAddress();
+            if (!remote.isLoopbackAddress()) {
+                sendText(exchange, 403, "Only loopback clients are served");
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            requestCounts.computeIfAbsent(path, p -> new LongAdder()).increment();
+
+            if (latencyMs > 0) {
+                Thread.sleep(latencyMs);
+            }
+            if (errorRate > 0 && nextRandom() < errorRate) {
+                sendText(exchange, 503, "Injected failure");
+                return;
+            }
+
+            String address = exchange.getLocalAddress().getAddress().getHostAddress();
+            if (MASTER_ADDRESS.equals(address)) {
+                handleMaster(exchange, path);
+            } else if (MARATHON_ADDRESS.equals(address)) {
+                handleMarathon(exchange, path);
+            } else {
+                FakeClusterModel.Agent agent = model.findAgentByAddress(address);
+                if (agent != null) {
+                    handleAgent(exchange, path, agent);
+                } else {
+                    sendText(exchange, 404, "No cluster member at " + address);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Fake control plane failed to answer " + exchange.getRequestURI(), e);
+            throw e;
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private synchronized double nextRandom() {
+        return random.nextDouble();
+    }
+
+    private void handleMaster(HttpExchange exchange, String path) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        switch (path) {
+            case "/health":
+                sendText(exchange, 200, "");
+                break;
+            case "/version":
+                sendJson(exchange, 200, model::writeVersion);
+                break;
+            case "/state":
+            case "/state.json":
+            case "/master/state":
+            case "/master/state.json":
+                sendJson(exchange, 200, json -> model.writeMasterState(json, true));
+                break;
+            case "/state-summary":
+                sendJson(exchange, 200, json -> model.writeMasterState(json, false));
+                break;
+            case "/master/slaves":
+                sendJson(exchange, 200, model::writeAgentList);
+                break;
+            case "/master/frameworks":
+                sendJson(exchange, 200, model::writeFrameworkList);
+                break;
+            case "/master/tasks":
+            case "/master/tasks.json":
+                int limit = Integer.parseInt(query.getOrDefault("limit", "100"));
+                int offset = Integer.parseInt(query.getOrDefault("offset", "0"));
+                sendJson(exchange, 200, json -> model.writeTaskPage(json, limit, offset));
+                break;
+            case "/metrics/snapshot":
+                sendObject(exchange, 200, model.getMasterMetrics());
+                break;
+            case "/master/teardown":
+                String frameworkId = parseQuery(readBody(exchange)).get("frameworkId");
+                if (frameworkId != null && model.teardown(frameworkId)) {
+                    sendText(exchange, 200, "");
+                } else {
+                    sendText(exchange, 400, "No framework found with specified ID");
+                }
+                break;
+            case "/api/v1":
+                // like Mesos 1.0, which does not offer the event stream of the operator API
+                sendText(exchange, 400, "Failed to validate master::Call: Expecting 'type' to be present");
+                break;
+            default:
+                sendText(exchange, 404, "");
+        }
+    }
+
+    private void handleAgent(HttpExchange exchange, String path, FakeClusterModel.Agent agent) throws IOException {
+        switch (path) {
+            case "/health":
+                sendText(exchange, 200, "");
+                break;
+            case "/state":
+            case "/state.json":
+            case "/slave(1)/state":
+            case "/slave(1)/state.json":
+                sendJson(exchange, 200, json -> model.writeAgentState(json, agent));
+                break;
+            case "/metrics/snapshot":
+                sendObject(exchange, 200, model.getAgentMetrics(agent));
+                break;
+            case "/files/download":
+                String file = parseQuery(exchange.getRequestURI().getRawQuery()).get("path");
+                String content = (file != null) ? model.readSandboxFile(agent, file) : null;
+                if (content != null) {
+                    sendText(exchange, 200, content);
+                } else {
+                    sendText(exchange, 404, "");
+                }
+                break;
+            default:
+                sendText(exchange, 404, "");
+        }
+    }
+
+    private void handleMarathon(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if ("/ping".equals(path)) {
+            sendText(exchange, 200, "pong");
+        } else if ("/v2/leader".equals(path)) {
+            sendObject(exchange, 200, MAPPER.createObjectNode().put("leader", exchange.getLocalAddress().getHostString() + ":" + exchange.getLocalAddress().getPort()));
+        } else if ("/v2/info".equals(path)) {
+            sendObject(exchange, 200, MAPPER.createObjectNode().put("name", "marathon").put("version", "1.3.5"));
+        } else if ("/v2/deployments".equals(path)) {
+            sendObject(exchange, 200, Collections.emptyList());
+        } else if (path.equals(APPS) || path.startsWith(APPS + "/")) {
+            handleApps(exchange, method, path.substring(APPS.length()));
+        } else if (path.equals(GROUPS) || path.startsWith(GROUPS + "/")) {
+            handleGroups(exchange, method, path.substring(GROUPS.length()));
+        } else {
+            sendText(exchange, 404, "");
+        }
+    }
+
+    private void handleApps(HttpExchange exchange, String method, String appId) throws IOException {
+        if ("GET".equals(method) && appId.isEmpty()) {
+            sendObject(exchange, 200, Collections.singletonMap("apps", model.getApps()));
+        } else if ("GET".equals(method)) {
+            JsonNode app = model.getApp(FakeClusterModel.normalizeId(appId));
+            if (app != null) {
+                sendObject(exchange, 200, Collections.singletonMap("app", app));
+            } else {
+                sendMarathonError(exchange, "App '" + appId + "' does not exist");
+            }
+        } else if ("POST".equals(method) || "PUT".equals(method)) {
+            JsonNode app = MAPPER.readTree(readBody(exchange));
+            if (!appId.isEmpty()) {
+                ((ObjectNode) app).put("id", FakeClusterModel.normalizeId(appId));
+            }
+            model.putApp(app);
+            if ("POST".equals(method)) {
+                sendObject(exchange, 201, app);
+            } else {
+                sendObject(exchange, 200, deployment());
+            }
+        } else if ("DELETE".equals(method) && model.deleteApp(appId)) {
+            sendObject(exchange, 200, deployment());
+        } else {
+            sendMarathonError(exchange, "App '" + appId + "' does not exist");
+        }
+    }
+
+    private void handleGroups(HttpExchange exchange, String method, String groupId) throws IOException {
+        if ("GET".equals(method)) {
+            ObjectNode root = MAPPER.createObjectNode().put("id", "/");
+            root.putArray("apps");
+            root.putArray("groups").addAll(model.getGroups());
+            sendObject(exchange, 200, root);
+        } else if ("POST".equals(method) || "PUT".equals(method)) {
+            model.putGroup(MAPPER.readTree(readBody(exchange)));
+            sendObject(exchange, 201, deployment());
+        } else if ("DELETE".equals(method) && model.deleteGroup(groupId)) {
+            sendObject(exchange, 200, deployment());
+        } else {
+            sendMarathonError(exchange, "Group '" + groupId + "' does not exist");
+        }
+    }
+
+    private static Map<String, String> deployment() {
+        Map<String, String> result = new HashMap<>();
+        result.put("deploymentId", UUID.randomUUID().toString());
+        result.put("version", "2016-11-07T12:00:00.000Z");
+        return result;
+    }
+
+    private static void sendMarathonError(HttpExchange exchange, String message) throws IOException {
+        sendObject(exchange, 404, Collections.singletonMap("message", message));
+    }
+
+    private static void sendObject(HttpExchange exchange, int status, Object body) throws IOException {
+        sendJson(exchange, status, json -> MAPPER.writeValue(json, body));
+    }
+
+    /**
+     * Streams JSON to the client while it is written, so large states are not held in memory
+     */
+    private static void sendJson(HttpExchange exchange, int status, JsonWriter writer) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, 0);
+        try (OutputStream body = exchange.getResponseBody(); JsonGenerator json = JSON.createGenerator(body)) {
+            writer.write(json);
+        }
+    }
+
+    private static void sendText(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, (bytes.length > 0) ? bytes.length : -1);
+        if (bytes.length > 0) {
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(bytes);
+            }
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return IOUtils.toString(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"), URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+            }
+        }
+        return parameters;
+    }
+
+    @FunctionalInterface
+    private interface JsonWriter {
+        void write(JsonGenerator json) throws IOException;
+    }
+
+}
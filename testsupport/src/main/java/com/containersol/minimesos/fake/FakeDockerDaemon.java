@@ -0,0 +1,726 @@
+package com.containersol.minimesos.fake;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.docker.DockerClientFactory;
+import com.containersol.minimesos.util.ParallelUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process stand-in for the Docker Engine API, enough of it to create, start, list, inspect, kill and remove containers, read their
+ * logs, list and pull images and follow events. Containers do not run anything; a started container is running until it is killed or
+ * removed and gets an address of the default bridge network.
+ * <p>
+ * Every call is counted and can be delayed by a configurable latency per {@link Call}, so the Docker traffic of cluster lifecycle
+ * operations can be measured without a Docker daemon. The daemon listens on a TCP port of the loopback interface and closes the
+ * connection after every call. {@link #useAsDockerHost()} points the shared client of {@link DockerClientFactory} at it.
+ */
+public class FakeDockerDaemon implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FakeDockerDaemon.class);
+
+    public static final String API_VERSION = "1.24";
+
+    public static final String GATEWAY = "172.17.0.1";
+
+    /**
+     * Calls of the Engine API the daemon answers
+     */
+    public enum Call {
+        VERSION, LIST_IMAGES, PULL, CREATE, START, INSPECT, LIST, KILL, REMOVE, LOGS, EVENTS
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Pattern VERSION_PREFIX = Pattern.compile("^/v[0-9.]+(/.*)$");
+
+    private static final Pattern CONTAINER_PATH = Pattern.compile("^/containers/([^/]+)(/[a-z]+)?$");
+
+    private static final ObjectNode END_OF_STREAM = MAPPER.createObjectNode();
+
+    /**
+     * Number of past events replayed to streams with <code>since</code>, as many as Docker keeps
+     */
+    private static final int EVENT_HISTORY = 256;
+
+    private final HttpServer server;
+
+    private final ExecutorService executor;
+
+    private final Map<Call, LongAdder> callCounts = new EnumMap<>(Call.class);
+
+    private final Map<Call, Long> latencies = new ConcurrentHashMap<>();
+
+    private final Map<String, FakeContainer> containers = new LinkedHashMap<>();
+
+    private final Set<String> images = ConcurrentHashMap.newKeySet();
+
+    private final List<BlockingQueue<ObjectNode>> subscribers = new ArrayList<>();
+
+    // guarded by the lock of the subscribers
+    private final Deque<ObjectNode> history = new ArrayDeque<>();
+
+    private final AtomicInteger answering = new AtomicInteger();
+
+    private final Map<String, String> replacedProperties = new HashMap<>();
+
+    private int assignedAddresses = 0;
+
+    /**
+     * Starts to serve the API without any images or containers
+     */
+    public FakeDockerDaemon() {
+        for (Call call : Call.values()) {
+            callCounts.put(call, new LongAdder());
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new MinimesosException("Could not start fake Docker daemon", e);
+        }
+        executor = Executors.newCachedThreadPool(ParallelUtil.daemonThreadFactory("fake-docker"));
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        LOGGER.debug("Fake Docker daemon listens at " + getDockerHost());
+    }
+
+    /**
+     * @return address of the daemon in the format of <code>DOCKER_HOST</code>
+     */
+    public String getDockerHost() {
+        return "tcp://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    /**
+     * Points the shared Docker client of minimesos at this daemon, until the daemon is closed
+     */
+    public void useAsDockerHost() {
+        replaceProperty(DockerClientFactory.DOCKER_HOST_PROPERTY, getDockerHost());
+        replaceProperty(DockerClientFactory.API_VERSION_PROPERTY, API_VERSION);
+        DockerClientFactory.reset();
+    }
+
+    private void replaceProperty(String name, String value) {
+        replacedProperties.putIfAbsent(name, System.getProperty(name));
+        System.setProperty(name, value);
+    }
+
+    /**
+     * @param call      call to delay
+     * @param latencyMs time following calls wait before they are answered
+     */
+    public void setLatency(Call call, long latencyMs) {
+        latencies.put(call, latencyMs);
+    }
+
+    /**
+     * Marks an image as present, so it is listed and containers can be created from it without a pull
+     *
+     * @param name image name, e.g. <code>containersol/mesos-master</code>
+     * @param tag  image tag
+     */
+    public void addImage(String name, String tag) {
+        images.add(name + ":" + tag);
+    }
+
+    /**
+     * @param call call of the API
+     * @return number of calls answered since start or the last reset
+     */
+    public long getCallCount(Call call) {
+        return callCounts.get(call).sum();
+    }
+
+    /**
+     * @return number of all calls answered since start or the last reset
+     */
+    public long getCallCount() {
+        return callCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * @return number of answered calls by call, including calls never made
+     */
+    public Map<Call, Long> getCallCounts() {
+        Map<Call, Long> counts = new EnumMap<>(Call.class);
+        callCounts.forEach((call, count) -> counts.put(call, count.sum()));
+        return counts;
+    }
+
+    public void resetCallCounts() {
+        callCounts.values().forEach(LongAdder::reset);
+    }
+
+    /**
+     * @return number of open event streams
+     */
+    public int getEventStreamCount() {
+        synchronized (subscribers) {
+            return subscribers.size();
+        }
+    }
+
+    /**
+     * @return whether open event streams are the only calls being answered, so counts do not change until the next call
+     */
+    public boolean isIdle() {
+        synchronized (subscribers) {
+            return answering.get() == subscribers.size();
+        }
+    }
+
+    /**
+     * @return number of containers, which are not removed
+     */
+    public int getContainerCount() {
+        synchronized (containers) {
+            return containers.size();
+        }
+    }
+
+    /**
+     * Stops serving, ends event streams and restores the Docker host minimesos used before {@link #useAsDockerHost()}
+     */
+    @Override
+    public void close() {
+        synchronized (subscribers) {
+            subscribers.forEach(subscriber -> subscriber.add(END_OF_STREAM));
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        if (!replacedProperties.isEmpty()) {
+            replacedProperties.forEach((name, value) -> {
+                if (value != null) {
+                    System.setProperty(name, value);
+                } else {
+                    System.clearProperty(name);
+                }
+            });
+            replacedProperties.clear();
+            DockerClientFactory.reset();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        answering.incrementAndGet();
+        try {
+            // kept-alive connections of the HTTP server in the JDK go stale in the connection pool of docker-java
+            exchange.getResponseHeaders().set("Connection", "close");
+            String path = exchange.getRequestURI().getPath();
+            Matcher versioned = VERSION_PREFIX.matcher(path);
+            if (versioned.matches()) {
+                path = versioned.group(1);
+            }
+            String method = exchange.getRequestMethod();
+            Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+            if ("/version".equals(path)) {
+                count(Call.VERSION);
+                sendObject(exchange, 200, MAPPER.createObjectNode().put("Version", "1.12.6").put("ApiVersion", API_VERSION));
+            } else if ("/images/json".equals(path) && "GET".equals(method)) {
+                count(Call.LIST_IMAGES);
+                listImages(exchange);
+            } else if ("/images/create".equals(path) && "POST".equals(method)) {
+                count(Call.PULL);
+                pull(exchange, query);
+            } else if ("/containers/create".equals(path) && "POST".equals(method)) {
+                count(Call.CREATE);
+                create(exchange, query.get("name"));
+            } else if ("/containers/json".equals(path) && "GET".equals(method)) {
+                count(Call.LIST);
+                list(exchange, isTrue(query.get("all")), query.get("filters"));
+            } else if ("/events".equals(path) && "GET".equals(method)) {
+                count(Call.EVENTS);
+                streamEvents(exchange, query.get("since"), query.get("filters"));
+            } else {
+                Matcher matcher = CONTAINER_PATH.matcher(path);
+                if (!matcher.matches() || !handleContainer(exchange, method, matcher.group(1), matcher.group(2), query)) {
+                    sendMessage(exchange, 500, "Not emulated by the fake Docker daemon: " + method + " " + path);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Fake Docker daemon failed to answer " + exchange.getRequestURI(), e);
+            throw e;
+        } finally {
+            exchange.close();
+            answering.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return false, if the call is not emulated
+     */
+    private boolean handleContainer(HttpExchange exchange, String method, String id, String action, Map<String, String> query) throws IOException, InterruptedException {
+        if (action == null && "DELETE".equals(method)) {
+            count(Call.REMOVE);
+            remove(exchange, id, isTrue(query.get("force")));
+        } else if ("/json".equals(action) && "GET".equals(method)) {
+            count(Call.INSPECT);
+            inspect(exchange, id);
+        } else if ("/start".equals(action) && "POST".equals(method)) {
+            count(Call.START);
+            start(exchange, id);
+        } else if ("/kill".equals(action) && "POST".equals(method)) {
+            count(Call.KILL);
+            kill(exchange, id);
+        } else if ("/logs".equals(action) && "GET".equals(method)) {
+            count(Call.LOGS);
+            logs(exchange, id, isTrue(query.get("stdout")), isTrue(query.get("stderr")));
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    private void count(Call call) throws InterruptedException {
+        callCounts.get(call).increment();
+        long latencyMs = latencies.getOrDefault(call, 0L);
+        if (latencyMs > 0) {
+            Thread.sleep(latencyMs);
+        }
+    }
+
+    private void listImages(HttpExchange exchange) throws IOException {
+        ArrayNode list = MAPPER.createArrayNode();
+        for (String image : images) {
+            ObjectNode node = list.addObject();
+            node.put("Id", "sha256:" + Integer.toHexString(image.hashCode()));
+            node.putArray("RepoTags").add(image);
+            node.put("Created", 0);
+            node.put("Size", 0);
+        }
+        sendObject(exchange, 200, list);
+    }
+
+    private void pull(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String image = query.get("fromImage");
+        if (image == null) {
+            sendMessage(exchange, 500, "fromImage is required");
+            return;
+        }
+        String tag = query.get("tag");
+        String reference = (tag != null && !tag.isEmpty()) ? image + ":" + tag : (image.contains(":") ? image : image + ":latest");
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            writeLine(body, MAPPER.createObjectNode().put("status", "Pulling from " + image).put("id", tag));
+            ObjectNode downloading = MAPPER.createObjectNode().put("status", "Downloading").put("id", "fakelayer");
+            downloading.putObject("progressDetail").put("current", 1024).put("total", 1024);
+            writeLine(body, downloading);
+            writeLine(body, MAPPER.createObjectNode().put("status", "Download complete").put("id", "fakelayer"));
+            images.add(reference);
+            writeLine(body, MAPPER.createObjectNode().put("status", "Status: Downloaded newer image for " + reference));
+        }
+    }
+
+    private void create(HttpExchange exchange, String name) throws IOException {
+        JsonNode request = MAPPER.readTree(readBody(exchange));
+        String image = request.path("Image").asText();
+        if (!images.contains(image.contains(":") ? image : image + ":latest")) {
+            sendMessage(exchange, 404, "No such image: " + image);
+            return;
+        }
+
+        FakeContainer container = new FakeContainer();
+        container.id = newId();
+        container.name = (name != null) ? name : "fake_" + container.id.substring(0, 12);
+        container.image = image;
+        container.created = System.currentTimeMillis() / 1000;
+        container.labels = request.path("Labels").isObject() ? (ObjectNode) request.get("Labels") : MAPPER.createObjectNode();
+        container.env = request.path("Env").isArray() ? (ArrayNode) request.get("Env") : MAPPER.createArrayNode();
+
+        synchronized (containers) {
+            for (FakeContainer existing : containers.values()) {
+                if (existing.name.equals(container.name)) {
+                    sendMessage(exchange, 409, "Conflict. The name \"/" + container.name + "\" is already in use by container " + existing.id);
+                    return;
+                }
+            }
+            containers.put(container.id, container);
+        }
+        publish(container, "create");
+
+        ObjectNode response = MAPPER.createObjectNode().put("Id", container.id);
+        response.putNull("Warnings");
+        sendObject(exchange, 201, response);
+    }
+
+    private void start(HttpExchange exchange, String id) throws IOException {
+        FakeContainer container;
+        synchronized (containers) {
+            container = find(id);
+            if (container == null) {
+                sendMessage(exchange, 404, "No such container: " + id);
+                return;
+            }
+            if (container.running) {
+                sendStatus(exchange, 304);
+                return;
+            }
+            container.running = true;
+            container.status = "running";
+            if (container.ipAddress == null) {
+                container.ipAddress = nextAddress();
+            }
+        }
+        publish(container, "start");
+        sendStatus(exchange, 204);
+    }
+
+    private void kill(HttpExchange exchange, String id) throws IOException {
+        FakeContainer container;
+        synchronized (containers) {
+            container = find(id);
+            if (container == null) {
+                sendMessage(exchange, 404, "No such container: " + id);
+                return;
+            }
+            if (!container.running) {
+                sendMessage(exchange, 409, "Container " + id + " is not running");
+                return;
+            }
+            stop(container);
+        }
+        publish(container, "kill");
+        publish(container, "die");
+        sendStatus(exchange, 204);
+    }
+
+    private void remove(HttpExchange exchange, String id, boolean force) throws IOException {
+        FakeContainer container;
+        boolean wasRunning;
+        synchronized (containers) {
+            container = find(id);
+            if (container == null) {
+                sendMessage(exchange, 404, "No such container: " + id);
+                return;
+            }
+            wasRunning = container.running;
+            if (wasRunning && !force) {
+                sendMessage(exchange, 409, "You cannot remove a running container " + id + ". Stop the container before attempting removal or use -f");
+                return;
+            }
+            stop(container);
+            containers.remove(container.id);
+        }
+        if (wasRunning) {
+            publish(container, "kill");
+            publish(container, "die");
+        }
+        publish(container, "destroy");
+        sendStatus(exchange, 204);
+    }
+
+    private static void stop(FakeContainer container) {
+        container.running = false;
+        container.status = "exited";
+    }
+
+    private void inspect(HttpExchange exchange, String id) throws IOException {
+        ObjectNode response = MAPPER.createObjectNode();
+        synchronized (containers) {
+            FakeContainer container = find(id);
+            if (container == null) {
+                sendMessage(exchange, 404, "No such container: " + id);
+                return;
+            }
+            response.put("Id", container.id);
+            response.put("Name", "/" + container.name);
+            response.put("Image", container.image);
+            response.putObject("State").put("Status", container.status).put("Running", container.running).put("ExitCode", 0);
+            ObjectNode config = response.putObject("Config");
+            config.put("Image", container.image);
+            config.set("Labels", container.labels);
+            config.set("Env", container.env);
+            ObjectNode networkSettings = response.putObject("NetworkSettings");
+            networkSettings.put("IPAddress", container.running ? container.ipAddress : "");
+            networkSettings.put("Gateway", container.running ? GATEWAY : "");
+            putNetworks(networkSettings, container);
+        }
+        sendObject(exchange, 200, response);
+    }
+
+    private void list(HttpExchange exchange, boolean all, String filters) throws IOException {
+        List<String> labelFilters = new ArrayList<>();
+        if (filters != null && !filters.isEmpty()) {
+            MAPPER.readTree(filters).path("label").forEach(label -> labelFilters.add(label.asText()));
+        }
+
+        ArrayNode list = MAPPER.createArrayNode();
+        synchronized (containers) {
+            for (FakeContainer container : containers.values()) {
+                if ((all || container.running) && hasLabels(container, labelFilters)) {
+                    ObjectNode node = list.addObject();
+                    node.put("Id", container.id);
+                    node.putArray("Names").add("/" + container.name);
+                    node.put("Image", container.image);
+                    node.put("Created", container.created);
+                    node.put("State", container.status);
+                    node.put("Status", container.running ? "Up" : container.status);
+                    node.set("Labels", container.labels);
+                    node.putArray("Ports");
+                    putNetworks(node.putObject("NetworkSettings"), container);
+                }
+            }
+        }
+        sendObject(exchange, 200, list);
+    }
+
+    private static boolean hasLabels(FakeContainer container, List<String> labelFilters) {
+        for (String filter : labelFilters) {
+            int equals = filter.indexOf('=');
+            String key = (equals > 0) ? filter.substring(0, equals) : filter;
+            JsonNode value = container.labels.get(key);
+            if (value == null || (equals > 0 && !value.asText().equals(filter.substring(equals + 1)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void putNetworks(ObjectNode networkSettings, FakeContainer container) {
+        ObjectNode networks = networkSettings.putObject("Networks");
+        if (container.running) {
+            networks.putObject("bridge").put("IPAddress", container.ipAddress).put("Gateway", GATEWAY);
+        }
+    }
+
+    /**
+     * Answers with the multiplexed stream format of containers without TTY, one frame per line
+     */
+    private void logs(HttpExchange exchange, String id, boolean stdout, boolean stderr) throws IOException {
+        FakeContainer container;
+        synchronized (containers) {
+            container = find(id);
+        }
+        if (container == null) {
+            sendMessage(exchange, 404, "No such container: " + id);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/vnd.docker.raw-stream");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            if (stdout) {
+                writeFrame(body, 1, "Fake container " + container.name + " of image " + container.image + "\n");
+            }
+            if (stderr) {
+                writeFrame(body, 2, "Nothing runs in fake container " + container.name + "\n");
+            }
+        }
+    }
+
+    private static void writeFrame(OutputStream body, int stream, String line) throws IOException {
+        byte[] payload = line.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.put((byte) stream).put((byte) 0).put((byte) 0).put((byte) 0).putInt(payload.length);
+        body.write(header.array());
+        body.write(payload);
+    }
+
+    /**
+     * Keeps the response open and writes every following event, which matches the type and event filters, as a JSON object,
+     * until the client disconnects or the daemon closes. Past events are replayed first, when <code>since</code> is given.
+     */
+    private void streamEvents(HttpExchange exchange, String since, String filters) throws IOException, InterruptedException {
+        Map<String, List<String>> filterValues = new HashMap<>();
+        if (filters != null && !filters.isEmpty()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = MAPPER.readTree(filters).fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                List<String> values = new ArrayList<>();
+                field.getValue().forEach(value -> values.add(value.asText()));
+                filterValues.put(field.getKey(), values);
+            }
+        }
+
+        BlockingQueue<ObjectNode> events = new LinkedBlockingQueue<>();
+        synchronized (subscribers) {
+            if (since != null) {
+                long sinceSeconds = Long.parseLong(since);
+                history.stream().filter(event -> event.get("time").asLong() >= sinceSeconds).forEach(events::add);
+            }
+            subscribers.add(events);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.flush();
+            for (ObjectNode event = events.take(); event != END_OF_STREAM; event = events.take()) {
+                if (matches(event, filterValues.get("type"), "Type") && matches(event, filterValues.get("event"), "Action")) {
+                    writeLine(body, event);
+                }
+            }
+        } finally {
+            synchronized (subscribers) {
+                subscribers.remove(events);
+            }
+        }
+    }
+
+    private static boolean matches(ObjectNode event, List<String> values, String field) {
+        return values == null || values.contains(event.path(field).asText());
+    }
+
+    private void publish(FakeContainer container, String action) {
+        long now = System.currentTimeMillis();
+        ObjectNode event = MAPPER.createObjectNode();
+        event.put("status", action);
+        event.put("id", container.id);
+        event.put("from", container.image);
+        event.put("Type", "container");
+        event.put("Action", action);
+        ObjectNode actor = event.putObject("Actor");
+        actor.put("ID", container.id);
+        ObjectNode attributes = actor.putObject("Attributes");
+        attributes.put("image", container.image);
+        attributes.put("name", container.name);
+        Iterator<Map.Entry<String, JsonNode>> labels = container.labels.fields();
+        while (labels.hasNext()) {
+            Map.Entry<String, JsonNode> label = labels.next();
+            attributes.set(label.getKey(), label.getValue());
+        }
+        event.put("time", now / 1000);
+        event.put("timeNano", now * 1000000);
+        synchronized (subscribers) {
+            history.addLast(event);
+            if (history.size() > EVENT_HISTORY) {
+                history.removeFirst();
+            }
+            subscribers.forEach(subscriber -> subscriber.add(event));
+        }
+    }
+
+    /**
+     * Finds a container by ID, unique prefix of the ID or name, like the daemon does. Call with the lock of the containers held.
+     */
+    private FakeContainer find(String idOrName) {
+        FakeContainer container = containers.get(idOrName);
+        if (container != null) {
+            return container;
+        }
+        for (FakeContainer candidate : containers.values()) {
+            if (candidate.id.startsWith(idOrName) || candidate.name.equals(idOrName)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Call with the lock of the containers held
+     */
+    private String nextAddress() {
+        int address = assignedAddresses++;
+        return "172.17." + (address / 250) + "." + (address % 250 + 2);
+    }
+
+    private static String newId() {
+        return (UUID.randomUUID().toString() + UUID.randomUUID().toString()).replace("-", "");
+    }
+
+    private static boolean isTrue(String value) {
+        return "1".equals(value) || "true".equalsIgnoreCase(value);
+    }
+
+    private static void writeLine(OutputStream body, JsonNode node) throws IOException {
+        body.write(MAPPER.writeValueAsBytes(node));
+        body.write('\n');
+        body.flush();
+    }
+
+    private static void sendObject(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sendMessage(HttpExchange exchange, int status, String message) throws IOException {
+        sendObject(exchange, status, MAPPER.createObjectNode().put("message", message));
+    }
+
+    private static void sendStatus(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream body = exchange.getRequestBody()) {
+            return IOUtils.toString(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+        if (query == null || query.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"), URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * State of a container, guarded by the lock of the containers
+     */
+    private static class FakeContainer {
+        private String id;
+        private String name;
+        private String image;
+        private long created;
+        private ObjectNode labels;
+        private ArrayNode env;
+        private boolean running;
+        private String status = "created";
+        private String ipAddress;
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.containersol.minimesos.fake;
+
+import java.util.List;
+
+import com.containersol.minimesos.cluster.ClusterProcess;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.MesosClusterFactory;
+import com.containersol.minimesos.marathon.MarathonContainer;
+import com.containersol.minimesos.mesos.MesosAgentContainer;
+import com.containersol.minimesos.mesos.MesosMasterContainer;
+
+/**
+ * Loads the cluster of a {@link FakeControlPlane}, so the library and the CLI talk to the fake master, agents and Marathon instead
+ * of containers. Members are neither started nor removed, and Docker is not needed.
+ * <pre>
+ * try (FakeControlPlane controlPlane = new FakeControlPlane(new FakeClusterConfig().withAgents(500).withTasks(50000))) {
+ *     MesosCluster cluster = new FakeMesosClusterFactory(controlPlane).loadCluster();
+ *     ...
+ * }
+ * </pre>
+ */
+public class FakeMesosClusterFactory extends MesosClusterFactory {
+
+    private final FakeControlPlane controlPlane;
+
+    public FakeMesosClusterFactory(FakeControlPlane controlPlane) {
+        this.controlPlane = controlPlane;
+    }
+
+    /**
+     * @return cluster with the master, agents and Marathon of the control plane
+     */
+    public MesosCluster loadCluster() {
+        return MesosCluster.loadCluster(controlPlane.getClusterId(), this);
+    }
+
+    @Override
+    public void loadRunningCluster(MesosCluster cluster) {
+        if (!controlPlane.getClusterId().equals(cluster.getClusterId())) {
+            return;
+        }
+        List<ClusterProcess> members = cluster.getMemberProcesses();
+        members.add(new FakeMaster(cluster, controlPlane));
+        List<String> agentAddresses = controlPlane.getAgentAddresses();
+        for (int i = 0; i < agentAddresses.size(); i++) {
+            members.add(new FakeAgent(cluster, "agent" + i, agentAddresses.get(i), controlPlane));
+        }
+        members.add(new FakeMarathon(cluster, controlPlane));
+    }
+
+    @Override
+    public void destroyRunningCluster(String clusterId) {
+        if (controlPlane.getClusterId().equals(clusterId)) {
+            controlPlane.close();
+        }
+    }
+
+    private static String containerId(String clusterId, String uuid) {
+        return clusterId + "-" + uuid;
+    }
+
+    private static class FakeMaster extends MesosMasterContainer {
+
+        private final FakeControlPlane controlPlane;
+
+        FakeMaster(MesosCluster cluster, FakeControlPlane controlPlane) {
+            super(cluster, "master", containerId(cluster.getClusterId(), "master"));
+            this.controlPlane = controlPlane;
+        }
+
+        @Override
+        public String getIpAddress() {
+            return FakeControlPlane.MASTER_ADDRESS;
+        }
+
+        @Override
+        public int getServicePort() {
+            return controlPlane.getPort();
+        }
+
+        @Override
+        public void pullImage() {
+            // nothing to pull
+        }
+
+        @Override
+        public void start(int timeout) {
+            // the control plane serves the master
+        }
+
+        @Override
+        public void remove() {
+            stopWatcher();
+        }
+
+    }
+
+    private static class FakeAgent extends MesosAgentContainer {
+
+        private final String address;
+
+        private final FakeControlPlane controlPlane;
+
+        FakeAgent(MesosCluster cluster, String uuid, String address, FakeControlPlane controlPlane) {
+            super(cluster, uuid, containerId(cluster.getClusterId(), uuid));
+            this.address = address;
+            this.controlPlane = controlPlane;
+        }
+
+        @Override
+        public String getIpAddress() {
+            return address;
+        }
+
+        @Override
+        public int getServicePort() {
+            return controlPlane.getPort();
+        }
+
+        @Override
+        public void pullImage() {
+            // nothing to pull
+        }
+
+        @Override
+        public void start(int timeout) {
+            // the control plane serves the agent
+        }
+
+        @Override
+        public void remove() {
+            // the control plane serves the agent
+        }
+
+    }
+
+    private static class FakeMarathon extends MarathonContainer {
+
+        private final FakeControlPlane controlPlane;
+
+        FakeMarathon(MesosCluster cluster, FakeControlPlane controlPlane) {
+            super(cluster, "marathon", containerId(cluster.getClusterId(), "marathon"));
+            this.controlPlane = controlPlane;
+        }
+
+        @Override
+        public String getIpAddress() {
+            return FakeControlPlane.MARATHON_ADDRESS;
+        }
+
+        @Override
+        protected int getServicePort() {
+            return controlPlane.getPort();
+        }
+
+        @Override
+        public void pullImage() {
+            // nothing to pull
+        }
+
+        @Override
+        public void start(int timeout) {
+            // the control plane serves Marathon
+        }
+
+        @Override
+        public void remove() {
+            // the control plane serves Marathon
+        }
+
+    }
+
+}
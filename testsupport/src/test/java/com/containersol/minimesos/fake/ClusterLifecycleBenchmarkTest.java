@@ -0,0 +1,165 @@
+package com.containersol.minimesos.fake;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.containersol.minimesos.cluster.ClusterProcess;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.cluster.ReadinessProbe;
+import com.containersol.minimesos.config.ClusterConfig;
+import com.containersol.minimesos.config.MesosAgentConfig;
+import com.containersol.minimesos.config.MesosMasterConfig;
+import com.containersol.minimesos.config.ZooKeeperConfig;
+import com.containersol.minimesos.mesos.MesosAgentContainer;
+import com.containersol.minimesos.mesos.MesosClusterContainersFactory;
+import com.containersol.minimesos.mesos.MesosMasterContainer;
+import com.containersol.minimesos.mesos.ZooKeeperContainer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static com.containersol.minimesos.fake.FakeDockerDaemon.Call;
+import static com.jayway.awaitility.Awaitility.await;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs full up, load and destroy cycles of clusters against a {@link FakeDockerDaemon} with fixed latencies and fails, when a cycle
+ * makes more Docker calls or takes longer than its budget. Call budgets are the counts of the current implementation, so a change,
+ * which saves calls, should lower them. Time budgets leave room for slow build machines.
+ * <p>
+ * Readiness of ZooKeeper and the master and registration of agents are not checked, as nothing listens at the container addresses.
+ */
+public class ClusterLifecycleBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClusterLifecycleBenchmarkTest.class);
+
+    private FakeDockerDaemon daemon;
+
+    @Before
+    public void before() {
+        daemon = new FakeDockerDaemon();
+        daemon.useAsDockerHost();
+        daemon.setLatency(Call.LIST_IMAGES, 5);
+        daemon.setLatency(Call.PULL, 100);
+        daemon.setLatency(Call.CREATE, 20);
+        daemon.setLatency(Call.START, 30);
+        daemon.setLatency(Call.INSPECT, 2);
+        daemon.setLatency(Call.LIST, 10);
+        daemon.setLatency(Call.REMOVE, 20);
+
+        // pulls images, opens the events stream and warms up the JVM
+        cycle(1);
+        // the events stream connects in the background
+        await("events stream").atMost(5, TimeUnit.SECONDS).until(() -> daemon.getEventStreamCount() == 1 && daemon.isIdle());
+        daemon.resetCallCounts();
+    }
+
+    @After
+    public void after() {
+        daemon.close();
+    }
+
+    @Test
+    public void testCycle_1Agent() {
+        assertCycle(1, 2000);
+    }
+
+    @Test
+    public void testCycle_10Agents() {
+        assertCycle(10, 4000);
+    }
+
+    @Test
+    public void testCycle_100Agents() {
+        assertCycle(100, 15000);
+    }
+
+    private void assertCycle(int agents, long budgetMillis) {
+        long millis = cycle(agents);
+        await("idle Docker daemon").atMost(5, TimeUnit.SECONDS).until(daemon::isIdle);
+        Map<Call, Long> calls = daemon.getCallCounts();
+        LOGGER.info(String.format("Cycle of %d agents took %d ms with Docker calls %s", agents, millis, calls));
+
+        int members = agents + 2;
+        assertEquals(0, daemon.getContainerCount());
+        assertEquals(members, (long) calls.get(Call.CREATE));
+        assertEquals(members, (long) calls.get(Call.START));
+        assertEquals(members, (long) calls.get(Call.REMOVE));
+        assertEquals(0, (long) calls.get(Call.PULL));
+        assertEquals(0, (long) calls.get(Call.KILL));
+        // prefetch of the three images, members do not check them again
+        assertBudget(Call.LIST_IMAGES, 3, calls);
+        // address of ZooKeeper for the environment of the other members
+        assertBudget(Call.INSPECT, 1, calls);
+        // containers labelled with the cluster ID by load and by destroy
+        assertBudget(Call.LIST, 2, calls);
+        assertBudget(Call.EVENTS, 0, calls);
+        assertTrue(String.format("Cycle of %d agents took %d ms, more than its budget of %d ms", agents, millis, budgetMillis), millis <= budgetMillis);
+    }
+
+    private static void assertBudget(Call call, long budget, Map<Call, Long> calls) {
+        assertTrue(String.format("%d %s calls exceed the budget of %d", calls.get(call), call, budget), calls.get(call) <= budget);
+    }
+
+    /**
+     * Starts a cluster, loads it from Docker like CLI commands do and destroys the loaded cluster
+     *
+     * @return milliseconds the cycle took
+     */
+    private static long cycle(int agents) {
+        long start = System.nanoTime();
+
+        MesosCluster cluster = newCluster(agents);
+        cluster.start();
+
+        MesosClusterContainersFactory factory = new MesosClusterContainersFactory();
+        MesosCluster loaded = MesosCluster.loadCluster(cluster.getClusterId(), factory);
+        assertEquals(agents, loaded.getAgents().size());
+        loaded.destroy(factory);
+
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static MesosCluster newCluster(int agents) {
+        ClusterConfig config = new ClusterConfig();
+        config.setZookeeper(new ZooKeeperConfig());
+        config.setMaster(new MesosMasterConfig(ClusterConfig.DEFAULT_MESOS_VERSION));
+
+        ZooKeeperContainer zooKeeper = new ZooKeeperContainer(config.getZookeeper()) {
+            @Override
+            public ReadinessProbe getReadinessProbe() {
+                return null;
+            }
+        };
+        MesosMasterContainer master = new MesosMasterContainer(config.getMaster()) {
+            @Override
+            public ReadinessProbe getReadinessProbe() {
+                return null;
+            }
+
+            @Override
+            public void waitFor() {
+                // agents do not register with a fake master
+            }
+        };
+        master.setZooKeeper(zooKeeper);
+
+        List<ClusterProcess> processes = new ArrayList<>();
+        processes.add(zooKeeper);
+        processes.add(master);
+        for (int i = 0; i < agents; i++) {
+            MesosAgentConfig agentConfig = new MesosAgentConfig(ClusterConfig.DEFAULT_MESOS_VERSION);
+            config.getAgents().add(agentConfig);
+            MesosAgentContainer agent = new MesosAgentContainer(agentConfig);
+            agent.setZooKeeper(zooKeeper);
+            processes.add(agent);
+        }
+        return new MesosCluster(config, processes);
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.containersol.minimesos.fake;
+
+import com.containersol.minimesos.MinimesosException;
+import com.containersol.minimesos.cluster.MesosAgent;
+import com.containersol.minimesos.cluster.MesosCluster;
+import com.containersol.minimesos.marathon.MarathonContainer;
+import com.containersol.minimesos.state.Executor;
+import com.containersol.minimesos.state.State;
+import com.containersol.minimesos.util.Downloader;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FakeControlPlaneTest {
+
+    private FakeControlPlane controlPlane;
+
+    @After
+    public void after() {
+        if (controlPlane != null) {
+            controlPlane.close();
+        }
+    }
+
+    @Test
+    public void testLoadCluster() {
+        MesosCluster cluster = load(new FakeClusterConfig().withAgents(5).withTasks(20));
+
+        assertEquals(5, cluster.getAgents().size());
+        assertEquals("1.0.0", cluster.getMaster().getVersion());
+        State state = cluster.getMaster().getState();
+        assertEquals(5, state.getActivatedAgents());
+        assertEquals(20, state.getIndex().getTaskCount());
+        assertEquals("marathon", cluster.getMaster().getStateSummary().getFrameworks().get(0).getName());
+    }
+
+    @Test
+    public void testForEachTask_largeCluster() {
+        MesosCluster cluster = load(new FakeClusterConfig().withAgents(500).withTasks(50000));
+        AtomicInteger onFirstAgent = new AtomicInteger();
+
+        int count = cluster.getMaster().forEachTask(500, task -> {
+            if ("fake-agent-S0".equals(task.getSlaveId())) {
+                onFirstAgent.incrementAndGet();
+            }
+        });
+
+        assertEquals(50000, count);
+        assertEquals(100, onFirstAgent.get());
+        assertEquals(101, controlPlane.getRequestCount("/master/tasks"));
+        assertEquals(500, cluster.getMaster().getRegisteredAgents().size());
+    }
+
+    @Test
+    public void testForEachTask_includesCompletedTasks() {
+        MesosCluster cluster = load(new FakeClusterConfig().withAgents(2).withTasks(6).withCompletedTasks(4));
+        AtomicInteger terminal = new AtomicInteger();
+        Set<String> frameworkIds = new HashSet<>();
+
+        int count = cluster.getMaster().forEachTask(3, task -> {
+            if (task.isTerminal()) {
+                terminal.incrementAndGet();
+                frameworkIds.add(task.getFrameworkId());
+            }
+        });
+
+        assertEquals(10, count);
+        assertEquals(4, terminal.get());
+        // completed tasks of a framework, which is not registered anymore
+        assertTrue(frameworkIds.contains("fake-framework-completed"));
+        assertEquals(2, cluster.getMaster().getStateSummary().getFrameworks().size());
+    }
+
+    @Test
+    public void testAgentSandbox() {
+        MesosCluster cluster = load(new FakeClusterConfig().withAgents(2).withTasks(4));
+        MesosAgent agent = cluster.getAgents().get(1);
+
+        State state = agent.getState();
+        Executor executor = state.getFrameworks().get(0).getExecutors().get(0);
+        String stdout = new Downloader().getFileContentAsString(agent.getServiceUrl() + "/files/download?path=" + executor.getDirectory() + "/stdout");
+
+        assertEquals("fake-agent-S1", state.getId());
+        assertTrue(stdout.contains("stdout of task " + executor.getId()));
+    }
+
+    @Test
+    public void testMarathonWaitFor_waitsForLeader() {
+        MesosCluster cluster = load(new FakeClusterConfig());
+
+        ((MarathonContainer) cluster.getMarathon()).waitFor();
+
+        assertEquals(1, controlPlane.getRequestCount("/v2/leader"));
+        assertEquals(0, controlPlane.getRequestCount("/ping"));
+    }
+
+    @Test
+    public void testKillAllAppsAndGroups() {
+        MesosCluster cluster = load(new FakeClusterConfig().withApps(50).withGroups(10));
+
+        cluster.getMarathon().killAllApps();
+        cluster.getMarathon().killAllGroups();
+
+        assertEquals(0, controlPlane.getAppCount());
+        assertEquals(0, controlPlane.getGroupCount());
+        assertEquals(1, controlPlane.getRequestCount("/v2/apps/app7"));
+    }
+
+    @Test
+    public void testTeardownFrameworks() {
+        MesosCluster cluster = load(new FakeClusterConfig().withFrameworks(4).withTasks(40));
+
+        cluster.getMaster().teardownFrameworks(Collections.singleton("marathon"));
+
+        assertEquals(10, controlPlane.getTaskCount());
+        assertEquals(1, cluster.getMaster().getFrameworks().size());
+    }
+
+    @Test
+    public void testWaitForState() {
+        MesosCluster cluster = load(new FakeClusterConfig().withAgents(10));
+
+        cluster.waitForState(state -> state.getActivatedAgents() == 10);
+    }
+
+    @Test
+    public void testErrorInjection() {
+        MesosCluster cluster = load(new FakeClusterConfig());
+        controlPlane.setErrorRate(1);
+
+        try {
+            cluster.getMaster().getState();
+            fail("Injected error is not reported");
+        } catch (MinimesosException e) {
+            assertTrue(e.getCause().getMessage().contains("503"));
+        }
+    }
+
+    @Test
+    public void testLatency() {
+        MesosCluster cluster = load(new FakeClusterConfig().withLatency(200));
+
+        long start = System.currentTimeMillis();
+        cluster.getMaster().getVersion();
+
+        assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+    private MesosCluster load(FakeClusterConfig config) {
+        controlPlane = new FakeControlPlane(config);
+        return new FakeMesosClusterFactory(controlPlane).loadCluster();
+    }
+
+}
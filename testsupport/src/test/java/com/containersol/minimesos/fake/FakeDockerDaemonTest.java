@@ -0,0 +1,118 @@
+package com.containersol.minimesos.fake;
+
+import com.containersol.minimesos.docker.DockerClientFactory;
+import com.containersol.minimesos.docker.DockerContainersUtil;
+import com.containersol.minimesos.docker.DockerEvents;
+import com.github.dockerjava.api.DockerClient;
+import com.github.dockerjava.api.exception.NotFoundException;
+import com.github.dockerjava.api.model.Container;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FakeDockerDaemonTest {
+
+    private FakeDockerDaemon daemon;
+
+    private DockerClient client;
+
+    @Before
+    public void before() {
+        daemon = new FakeDockerDaemon();
+        daemon.useAsDockerHost();
+        client = DockerClientFactory.build();
+    }
+
+    @After
+    public void after() {
+        daemon.close();
+    }
+
+    @Test
+    public void testContainerLifecycle() {
+        daemon.addImage("busybox", "1.0");
+
+        String id = client.createContainerCmd("busybox:1.0").withName("fake-busybox").withLabels(Collections.singletonMap("role", "test")).exec().getId();
+        client.startContainerCmd(id).exec();
+
+        assertTrue(client.inspectContainerCmd(id).exec().getState().getRunning());
+        assertEquals("172.17.0.2", DockerContainersUtil.getIpAddress(id));
+        List<Container> listed = DockerContainersUtil.getContainers(false, Collections.singletonMap("role", "test")).getContainers();
+        assertEquals(1, listed.size());
+        assertEquals("/fake-busybox", listed.get(0).getNames()[0]);
+        assertEquals(0, DockerContainersUtil.getContainers(false, Collections.singletonMap("role", "other")).size());
+        assertTrue(DockerContainersUtil.getDockerLogs(id).get(0).contains("fake-busybox"));
+
+        DockerContainersUtil.removeContainer(id);
+
+        assertEquals(0, daemon.getContainerCount());
+        assertEquals(1, daemon.getCallCount(FakeDockerDaemon.Call.CREATE));
+        assertEquals(1, daemon.getCallCount(FakeDockerDaemon.Call.START));
+        assertEquals(1, daemon.getCallCount(FakeDockerDaemon.Call.REMOVE));
+    }
+
+    @Test
+    public void testPullImage() {
+        DockerContainersUtil.pullImage("containersol/mesos-agent", "1.0.0", 5);
+
+        assertEquals(1, client.listImagesCmd().exec().size());
+        assertEquals(1, daemon.getCallCount(FakeDockerDaemon.Call.PULL));
+    }
+
+    @Test
+    public void testCreateWithoutImage() {
+        try {
+            client.createContainerCmd("missing:1.0").exec();
+            fail("Container is created from a missing image");
+        } catch (NotFoundException e) {
+            assertEquals(0, daemon.getContainerCount());
+        }
+    }
+
+    @Test
+    public void testKill() {
+        daemon.addImage("busybox", "1.0");
+        String id = client.createContainerCmd("busybox:1.0").exec().getId();
+        client.startContainerCmd(id).exec();
+
+        client.killContainerCmd(id).exec();
+
+        assertFalse(client.inspectContainerCmd(id).exec().getState().getRunning());
+        assertEquals(1, DockerContainersUtil.getContainers(true).size());
+        assertEquals(0, DockerContainersUtil.getContainers(false).size());
+    }
+
+    @Test
+    public void testStartedOrDied_replaysStartBeforeStreamConnects() throws Exception {
+        daemon.addImage("busybox", "1.0");
+        daemon.setLatency(FakeDockerDaemon.Call.EVENTS, 500);
+        String id = client.createContainerCmd("busybox:1.0").exec().getId();
+
+        CompletableFuture<String> started = DockerEvents.startedOrDied(id);
+        client.startContainerCmd(id).exec();
+
+        assertEquals(DockerEvents.STATUS_START, started.get(5, TimeUnit.SECONDS));
+        DockerEvents.forget(id);
+    }
+
+    @Test
+    public void testLatency() {
+        daemon.setLatency(FakeDockerDaemon.Call.LIST, 200);
+
+        long start = System.currentTimeMillis();
+        DockerContainersUtil.getContainers(true);
+
+        assertTrue(System.currentTimeMillis() - start >= 200);
+    }
+
+}